@@ -43,6 +43,44 @@ CREATE TABLE grades (
     UNIQUE (student_id, subject_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Create score aggregates table (running sum/count/min/max per student and per subject)
+CREATE TABLE score_aggregates (
+    scope VARCHAR(10) NOT NULL,
+    scope_id VARCHAR(10) NOT NULL,
+    score_sum DECIMAL(12,1) NOT NULL,
+    score_count BIGINT NOT NULL,
+    min_score DECIMAL(3,1),
+    max_score DECIMAL(3,1),
+    PRIMARY KEY (scope, scope_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create change log table (append-only, read by GET /api/sync)
+CREATE TABLE change_log (
+    seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(10) NOT NULL,
+    entity_id VARCHAR(20) NOT NULL,
+    op VARCHAR(10) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    INDEX idx_change_log_entity (entity_type, entity_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create change log watermark table (single row: highest seq removed by tombstone purge)
+CREATE TABLE change_log_watermark (
+    id INT PRIMARY KEY,
+    purged_through BIGINT NOT NULL,
+    compacted_at DATETIME(6)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create idempotency key table (stored responses of write requests sent with Idempotency-Key)
+CREATE TABLE idempotency_key (
+    idem_key VARCHAR(200) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    status_code INT,
+    response_body LONGTEXT,
+    expires_at DATETIME(6) NOT NULL,
+    INDEX idx_idempotency_key_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Create indexes for better performance
 CREATE INDEX idx_students_name ON students(student_name);
 CREATE INDEX idx_students_birth_year ON students(birth_year);
@@ -77,4 +115,13 @@ INSERT INTO grades (student_id, subject_id, average_score) VALUES
 ('SV003', 'MH004', 8.0),
 ('SV004', 'MH001', 7.0),
 ('SV004', 'MH003', 6.0),
-('SV005', 'MH005', 8.5);
\ No newline at end of file
+('SV005', 'MH005', 8.5);
+
+-- Build score aggregates for the sample data
+INSERT INTO score_aggregates (scope, scope_id, score_sum, score_count, min_score, max_score)
+SELECT 'STUDENT', student_id, SUM(average_score), COUNT(*), MIN(average_score), MAX(average_score)
+FROM grades GROUP BY student_id;
+
+INSERT INTO score_aggregates (scope, scope_id, score_sum, score_count, min_score, max_score)
+SELECT 'SUBJECT', subject_id, SUM(average_score), COUNT(*), MIN(average_score), MAX(average_score)
+FROM grades GROUP BY subject_id;
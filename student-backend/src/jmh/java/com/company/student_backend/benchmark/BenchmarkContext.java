@@ -0,0 +1,27 @@
+package com.company.student_backend.benchmark;
+
+import com.company.student_backend.StudentBackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Khởi động ứng dụng với profile "test" (H2 trong bộ nhớ), không web server, tắt log SQL/debug
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        // Command-line arguments take precedence over application-test.yml
+        return new SpringApplicationBuilder(StudentBackendApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.company.student_backend=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+    }
+}
@@ -0,0 +1,117 @@
+package com.company.student_backend.benchmark;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sinh dữ liệu benchmark có thể lặp lại: cùng số lượng luôn cho cùng dữ liệu (seed cố định).
+ * Mỗi học sinh có điểm cho tất cả SUBJECTS môn, nên N điểm ứng với N / SUBJECTS học sinh
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 20_240_901L;
+    public static final int SUBJECTS = 20;
+
+    private static final String[] FAMILY = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ", "Đặng"};
+    private static final String[] MIDDLE = {"Văn", "Thị", "Hữu", "Minh", "Ngọc", "Thanh", "Quốc", "Gia"};
+    private static final String[] GIVEN = {"An", "Bình", "Châu", "Dũng", "Giang", "Hà", "Hải", "Khánh", "Linh", "Nam",
+            "Phương", "Quân", "Sơn", "Trang", "Tuấn", "Vy"};
+
+    private BenchmarkData() {
+    }
+
+    public static int studentCount(int grades) {
+        return (grades + SUBJECTS - 1) / SUBJECTS;
+    }
+
+    public static String studentId(int index) {
+        return String.format("SV%07d", index);
+    }
+
+    public static String subjectId(int index) {
+        return String.format("MH%03d", index);
+    }
+
+    public static List<SubjectDTO> subjects() {
+        List<SubjectDTO> subjects = new ArrayList<>(SUBJECTS);
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects.add(new SubjectDTO(subjectId(i), "Môn học " + (i + 1)));
+        }
+        return subjects;
+    }
+
+    public static List<StudentDTO> students(int grades) {
+        Random random = new Random(SEED);
+        int count = studentCount(grades);
+        List<StudentDTO> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = FAMILY[random.nextInt(FAMILY.length)] + " " + MIDDLE[random.nextInt(MIDDLE.length)]
+                    + " " + GIVEN[random.nextInt(GIVEN.length)];
+            students.add(new StudentDTO(studentId(i), name, 1995 + random.nextInt(10)));
+        }
+        return students;
+    }
+
+    public static List<GradeDTO> grades(int count) {
+        Random random = new Random(SEED);
+        List<GradeDTO> grades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GradeDTO grade = new GradeDTO();
+            grade.setStudentId(studentId(i / SUBJECTS));
+            grade.setSubjectId(subjectId(i % SUBJECTS));
+            grade.setAverageScore(score(random));
+            grades.add(grade);
+        }
+        return grades;
+    }
+
+    /**
+     * Điểm dạng DTO đầy đủ như response của API (có id và tên học sinh/môn học)
+     */
+    public static List<GradeDTO> gradeResponses(int count) {
+        List<StudentDTO> students = students(count);
+        List<SubjectDTO> subjects = subjects();
+        List<GradeDTO> grades = grades(count);
+        for (int i = 0; i < count; i++) {
+            GradeDTO grade = grades.get(i);
+            grade.setId((long) i + 1);
+            grade.setStudentName(students.get(i / SUBJECTS).getStudentName());
+            grade.setSubjectName(subjects.get(i % SUBJECTS).getSubjectName());
+        }
+        return grades;
+    }
+
+    /**
+     * Entity đã liên kết sẵn với Student/Subject dùng chung, như sau khi JOIN FETCH
+     */
+    public static List<Grade> gradeEntities(int count) {
+        List<Student> students = students(count).stream()
+                .map(dto -> new Student(dto.getStudentId(), dto.getStudentName(), dto.getBirthYear(), null))
+                .toList();
+        List<Subject> subjects = subjects().stream()
+                .map(dto -> new Subject(dto.getSubjectId(), dto.getSubjectName(), null))
+                .toList();
+        List<GradeDTO> dtos = grades(count);
+        List<Grade> grades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            grades.add(new Grade((long) i + 1, students.get(i / SUBJECTS), subjects.get(i % SUBJECTS),
+                    dtos.get(i).getAverageScore()));
+        }
+        return grades;
+    }
+
+    private static BigDecimal score(Random random) {
+        // Roughly bell-shaped around 6.5, clamped to the valid 0.0 - 10.0 range
+        int tenths = (int) Math.round(65 + random.nextGaussian() * 15);
+        return BigDecimal.valueOf(Math.max(0, Math.min(100, tenths)), 1);
+    }
+}
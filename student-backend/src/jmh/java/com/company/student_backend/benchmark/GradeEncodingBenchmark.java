@@ -0,0 +1,92 @@
+package com.company.student_backend.benchmark;
+
+import com.company.student_backend.dto.GradeColumnsDTO;
+import com.company.student_backend.dto.GradeDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU mã hoá List&lt;GradeDTO&gt; theo định dạng (JSON, Smile, CBOR) và bố cục (từng dòng, dạng cột),
+ * có và không có gzip như server.compression. Kích thước payload in ra ở cuối mỗi trial
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeEncodingBenchmark {
+
+    @Param({"10000", "100000"})
+    private int grades;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"rows", "columnar"})
+    private String layout;
+
+    private List<GradeDTO> responses;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        responses = BenchmarkData.gradeResponses(grades);
+        // Same builder defaults as the converters registered by BinaryEncodingConfig
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void reportPayloadSize() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        writeTo(raw);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(raw.toByteArray());
+        }
+        System.out.printf("%n[payload] grades=%d format=%s layout=%s raw=%d bytes gzip=%d bytes%n",
+                grades, format, layout, raw.size(), gzipped.size());
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void encodeGzip() throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream())) {
+            writeTo(gzip);
+        }
+    }
+
+    private void writeTo(OutputStream out) throws IOException {
+        // The columnar layout is built per request in the controller, so its cost is included
+        Object body = "columnar".equals(layout) ? GradeColumnsDTO.of(responses) : responses;
+        objectMapper.writeValue(out, body);
+    }
+}
@@ -0,0 +1,64 @@
+package com.company.student_backend.benchmark;
+
+import com.company.student_backend.controller.NdjsonWriter;
+import com.company.student_backend.dto.GradeDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tuần tự hoá List&lt;GradeDTO&gt; lớn: một mảng JSON (GET /api/grades) so với NDJSON (NdjsonWriter)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeSerializationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int grades;
+
+    private List<GradeDTO> responses;
+    private ObjectMapper objectMapper;
+    private NdjsonWriter ndjsonWriter;
+
+    @Setup
+    public void setUp() {
+        responses = BenchmarkData.gradeResponses(grades);
+        // Same defaults as the ObjectMapper Spring Boot configures for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ndjsonWriter = new NdjsonWriter(objectMapper);
+    }
+
+    @Benchmark
+    public void jsonArray() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+
+    @Benchmark
+    public byte[] jsonArrayToBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public void ndjson() throws IOException {
+        ndjsonWriter.<GradeDTO>write(responses::forEach).writeTo(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,85 @@
+package com.company.student_backend.benchmark;
+
+import com.company.student_backend.dto.BulkImportResult;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.service.BulkImportService;
+import com.company.student_backend.service.GradeService;
+import com.company.student_backend.service.RankingService;
+import com.company.student_backend.service.ScoreAggregateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi cùng một tập điểm bằng nhập hàng loạt (JDBC batch theo chunk) so với từng bản ghi qua GradeService.
+ * Mỗi lần đo bắt đầu từ bảng grades rỗng; học sinh và môn học được nạp sẵn
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeWriteBenchmark {
+
+    @Param({"10000"})
+    private int grades;
+
+    private ConfigurableApplicationContext context;
+    private GradeService gradeService;
+    private BulkImportService bulkImportService;
+    private JdbcTemplate jdbcTemplate;
+    private List<GradeDTO> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        gradeService = context.getBean(GradeService.class);
+        bulkImportService = context.getBean(BulkImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bulkImportService.importSubjects(BenchmarkData.subjects().iterator(), false);
+        bulkImportService.importStudents(BenchmarkData.students(grades).iterator(), false);
+        rows = BenchmarkData.grades(grades);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearGrades() {
+        jdbcTemplate.update("DELETE FROM grades");
+        // Keep the derived state consistent with the emptied table
+        context.getBean(ScoreAggregateService.class).rebuild();
+        context.getBean(RankingService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BulkImportResult bulkImport() {
+        return bulkImportService.importGrades(rows.iterator(), false);
+    }
+
+    @Benchmark
+    public void singleRowCreates(Blackhole blackhole) {
+        for (GradeDTO row : rows) {
+            blackhole.consume(gradeService.createGrade(row));
+        }
+    }
+}
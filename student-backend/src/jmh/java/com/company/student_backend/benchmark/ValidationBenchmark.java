@@ -0,0 +1,85 @@
+package com.company.student_backend.benchmark;
+
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.service.BulkImportService;
+import com.company.student_backend.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tra cứu học sinh qua ValidationService (có cache) so với truy vấn thẳng repository trên H2.
+ * Số học sinh = grades / BenchmarkData.SUBJECTS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int grades;
+
+    private ConfigurableApplicationContext context;
+    private ValidationService validationService;
+    private StudentRepository studentRepository;
+    private int students;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        validationService = context.getBean(ValidationService.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        context.getBean(BulkImportService.class).importStudents(BenchmarkData.students(grades).iterator(), false);
+        students = BenchmarkData.studentCount(grades);
+        random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StudentDTO validateAndGetStudent() {
+        return validationService.validateAndGetStudent(nextStudentId());
+    }
+
+    @Benchmark
+    public boolean isStudentExists() {
+        return validationService.isStudentExists(nextStudentId());
+    }
+
+    @Benchmark
+    public Optional<StudentDTO> repositoryFindById() {
+        // The query the cache loads through
+        return studentRepository.findDTOById(nextStudentId());
+    }
+
+    @Benchmark
+    public boolean repositoryExistsById() {
+        return studentRepository.existsByStudentId(nextStudentId());
+    }
+
+    private String nextStudentId() {
+        return BenchmarkData.studentId(random.nextInt(students));
+    }
+}
@@ -0,0 +1,57 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.benchmark.BenchmarkData;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.model.Grade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Chi phí GradeService.convertToDTO khi ánh xạ cả danh sách entity sang DTO
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeMappingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int grades;
+
+    private List<Grade> entities;
+
+    @Setup
+    public void setUp() {
+        entities = BenchmarkData.gradeEntities(grades);
+    }
+
+    @Benchmark
+    public List<GradeDTO> mapList() {
+        return entities.stream()
+                .map(GradeService::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void mapEach(Blackhole blackhole) {
+        for (Grade grade : entities) {
+            blackhole.consume(GradeService.convertToDTO(grade));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.company.student_backend.config;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.service.RedisSharedCacheStore;
+import com.company.student_backend.service.SharedCacheStore;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache trong tiến trình (Caffeine) cho các truy vấn tra cứu học sinh/môn học và kết quả thống kê điểm.
+ * Giới hạn theo kích thước và TTL; evict được hoãn đến sau khi transaction commit.
+ * Mọi @Cacheable dùng sync = true nên giá trị load được lưu ngay: chỉ tra cứu dữ liệu đã commit
+ * (trước khi ghi trong cùng transaction) để cache không giữ dữ liệu của transaction bị rollback.
+ * Các cache kết quả trả về (danh sách môn học, điểm và điểm trung bình theo môn) là TwoTierCache:
+ * khi bật app.response-cache.shared.store=redis, chúng có thêm tầng Redis dùng chung giữa các instance.
+ * Mọi cache bỏ qua giá trị load ngay sau khi khoá bị invalidate (invalidation-grace, hoặc
+ * read-your-writes-window khi có replica): lần đọc replica còn trễ không bị giữ đến hết TTL
+ */
+@Configuration
+@EnableCaching
+@Slf4j
+public class CacheConfig {
+
+    public static final String STUDENTS = "students";
+    public static final String STUDENT_EXISTS = "studentExists";
+    public static final String SUBJECTS = "subjects";
+    public static final String SUBJECT_EXISTS = "subjectExists";
+    public static final String SUBJECT_ANALYTICS = "subjectAnalytics";
+    public static final String COHORT_ANALYTICS = "cohortAnalytics";
+    public static final String SUBJECT_LIST = "subjectList";
+    public static final String SUBJECT_GRADES = "subjectGrades";
+    public static final String SUBJECT_AVERAGE = "subjectAverage";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.students.spec:maximumSize=10000,expireAfterWrite=5m}") String studentSpec,
+            @Value("${app.cache.subjects.spec:maximumSize=1000,expireAfterWrite=30m}") String subjectSpec,
+            @Value("${app.cache.analytics.spec:maximumSize=1000,expireAfterWrite=10m}") String analyticsSpec,
+            @Value("${app.response-cache.local.spec:maximumSize=1000,expireAfterWrite=30s}") String responseSpec,
+            @Value("${app.response-cache.shared.ttl:5m}") Duration sharedTtl,
+            @Value("${app.response-cache.invalidation-grace:0s}") Duration invalidationGrace,
+            @Value("${app.datasource.replica.url:}") String replicaUrl,
+            @Value("${app.datasource.replica.read-your-writes-window:2s}") Duration replicaLag,
+            ObjectProvider<SharedCacheStore> sharedCacheStore,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        Duration grace = grace(invalidationGrace, replicaUrl, replicaLag);
+        List<Cache> caches = new ArrayList<>(List.of(
+                caffeine(STUDENTS, studentSpec, grace),
+                caffeine(STUDENT_EXISTS, studentSpec, grace),
+                caffeine(SUBJECTS, subjectSpec, grace),
+                caffeine(SUBJECT_EXISTS, subjectSpec, grace),
+                caffeine(SUBJECT_ANALYTICS, analyticsSpec, grace),
+                caffeine(COHORT_ANALYTICS, analyticsSpec, grace)));
+
+        SharedCacheStore shared = sharedCacheStore.getIfAvailable();
+        TypeFactory types = objectMapper.getTypeFactory();
+        Map<String, JavaType> responseTypes = Map.of(
+                SUBJECT_LIST, types.constructCollectionType(List.class, SubjectDTO.class),
+                SUBJECT_GRADES, types.constructCollectionType(List.class, GradeDTO.class),
+                SUBJECT_AVERAGE, types.constructType(BigDecimal.class));
+        Map<String, TwoTierCache> responseCaches = new HashMap<>();
+        responseTypes.forEach((name, type) -> responseCaches.put(name, new TwoTierCache(name,
+                Caffeine.from(responseSpec), shared, sharedTtl, grace, objectMapper, type, meterRegistry)));
+        caches.addAll(responseCaches.values());
+        if (shared != null) {
+            shared.subscribe((cache, key) -> {
+                TwoTierCache target = responseCaches.get(cache);
+                if (target != null) {
+                    target.evictLocal(key);
+                }
+            });
+        }
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        cacheManager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.response-cache.shared.store", havingValue = "redis")
+    public SharedCacheStore sharedCacheStore(
+            @Value("${app.response-cache.shared.redis.uri}") String uri,
+            @Value("${app.response-cache.shared.redis.key-prefix:response-cache:}") String keyPrefix,
+            @Value("${app.response-cache.shared.redis.timeout:500ms}") Duration timeout,
+            @Value("${app.response-cache.shared.redis.tombstone:1s}") Duration tombstone,
+            @Value("${app.response-cache.invalidation-grace:0s}") Duration invalidationGrace,
+            @Value("${app.datasource.replica.url:}") String replicaUrl,
+            @Value("${app.datasource.replica.read-your-writes-window:2s}") Duration replicaLag) {
+        log.info("Shared response cache store: redis");
+        // Other instances may load the old value until the invalidation reaches them, or within the grace
+        return new RedisSharedCacheStore(uri, keyPrefix, timeout,
+                tombstone.plus(grace(invalidationGrace, replicaUrl, replicaLag)));
+    }
+
+    private static Duration grace(Duration invalidationGrace, String replicaUrl, Duration replicaLag) {
+        // A load right after a write may still read the lagging replica
+        return StringUtils.hasText(replicaUrl) && replicaLag.compareTo(invalidationGrace) > 0
+                ? replicaLag : invalidationGrace;
+    }
+
+    private static CaffeineCache caffeine(String name, String spec, Duration grace) {
+        return new InvalidationAwareCaffeineCache(name, Caffeine.from(spec).recordStats().build(),
+                new InvalidationClock(grace));
+    }
+}
@@ -0,0 +1,71 @@
+package com.company.student_backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Giới hạn số luồng cùng giữ kết nối database bằng semaphore công bằng (FIFO).
+ * Với virtual thread, số request đồng thời không còn bị giới hạn bởi thread pool của Tomcat;
+ * luồng vượt giới hạn xếp hàng ở đây (có metric) và bị từ chối sau maxWait thay vì dồn vào Hikari
+ */
+public class ConnectionLimiter {
+
+    private final int limit;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ConnectionLimiter(int limit, Duration maxWait, MeterRegistry registry) {
+        this.limit = limit;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(limit, true);
+        this.waitTimer = Timer.builder("db.limiter.wait")
+                .description("Time spent waiting for a database connection permit")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejected = Counter.builder("db.limiter.rejected")
+                .description("Connection requests rejected after waiting for a permit")
+                .register(registry);
+        Gauge.builder("db.limiter.queued", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database connection permit")
+                .register(registry);
+        Gauge.builder("db.limiter.active", permits, semaphore -> limit - semaphore.availablePermits())
+                .description("Database connection permits in use")
+                .register(registry);
+        Gauge.builder("db.limiter.limit", () -> limit)
+                .description("Maximum concurrent database connection holders")
+                .register(registry);
+    }
+
+    public void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            // A timed tryAcquire honours fairness, unlike the untimed one
+            acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection permit", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new SQLTransientConnectionException("No database connection permit available after "
+                    + maxWait.toMillis() + " ms (limit " + limit + ", queued " + permits.getQueueLength() + ")");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,45 @@
+package com.company.student_backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Bọc DataSource bằng LimitingDataSource khi app.db-limiter.enabled = true (mặc định).
+ * Mọi truy cập repository/JdbcTemplate đều đi qua DataSource, nên đây là điểm chặn trước tầng repository
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db-limiter.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ConnectionLimiterConfig {
+
+    @Bean
+    public ConnectionLimiter connectionLimiter(
+            @Value("${app.db-limiter.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${app.db-limiter.max-wait:5s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        log.info("Database connection limiter: {} permits, max wait {} ms", permits, maxWait.toMillis());
+        return new ConnectionLimiter(permits, maxWait, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor limitingDataSourcePostProcessor(ObjectProvider<ConnectionLimiter> connectionLimiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimitingDataSource)) {
+                    return new LimitingDataSource(dataSource, connectionLimiter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
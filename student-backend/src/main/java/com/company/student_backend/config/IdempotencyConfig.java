@@ -0,0 +1,31 @@
+package com.company.student_backend.config;
+
+import com.company.student_backend.service.IdempotencyStore;
+import com.company.student_backend.service.InMemoryIdempotencyStore;
+import com.company.student_backend.service.JdbcIdempotencyStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Chọn store cho Idempotency-Key: memory (một instance) hoặc jdbc (bảng idempotency_key, dùng chung giữa các instance)
+ */
+@Configuration
+@Slf4j
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(
+            @Value("${app.idempotency.store:memory}") String store,
+            @Value("${app.idempotency.maximum-size:100000}") long maximumSize,
+            JdbcTemplate jdbcTemplate) {
+        log.info("Idempotency key store: {}", store);
+        return switch (store) {
+            case "memory" -> new InMemoryIdempotencyStore(maximumSize);
+            case "jdbc" -> new JdbcIdempotencyStore(jdbcTemplate);
+            default -> throw new IllegalStateException("Unknown app.idempotency.store: " + store);
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.company.student_backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * CaffeineCache bỏ qua giá trị vừa load nếu khoá bị invalidate trong khoảng grace trước đó (xem InvalidationClock),
+ * để lần đọc replica còn trễ ngay sau một lần ghi không bị giữ trong cache đến hết TTL.
+ * Chỉ get(key, valueLoader) — tức @Cacheable(sync = true) — biết thời điểm bắt đầu load; put() dùng thời điểm put.
+ * Vẫn là CaffeineCache nên metric cache.gets của Spring Boot giữ nguyên
+ */
+@Slf4j
+class InvalidationAwareCaffeineCache extends CaffeineCache {
+
+    private final InvalidationClock clock;
+
+    InvalidationAwareCaffeineCache(String name, Cache<Object, Object> cache, InvalidationClock clock) {
+        super(name, cache);
+        this.clock = clock;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object[] uncached = new Object[1];
+        // Caffeine holds an eviction of this key until the load returns, so only loads that started
+        // within the grace period after an invalidation need to be kept out
+        Object value = getNativeCache().get(key, k -> {
+            long started = System.nanoTime();
+            Object loaded;
+            try {
+                loaded = toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (clock.isCacheable(key, started)) {
+                return loaded;
+            }
+            log.debug("Not caching {} {}: invalidated just before loading", getName(), key);
+            uncached[0] = loaded;
+            return null;
+        });
+        return (T) fromStoreValue(value != null ? value : uncached[0]);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (clock.isCacheable(key, System.nanoTime())) {
+            super.put(key, value);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (clock.isCacheable(key, System.nanoTime())) {
+            return super.putIfAbsent(key, value);
+        }
+        return get(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        clock.markInvalidated(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        clock.markInvalidated(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        clock.markInvalidated(null);
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clock.markInvalidated(null);
+        return super.invalidate();
+    }
+}
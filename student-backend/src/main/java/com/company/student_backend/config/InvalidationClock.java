@@ -0,0 +1,49 @@
+package com.company.student_backend.config;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thời điểm invalidate gần nhất của một cache, theo nhóm khoá (stripe).
+ * Giá trị được load sau khi khoá bị invalidate trong lúc load, hoặc trong khoảng grace trước khi load bắt đầu,
+ * thì không được lưu: loader có thể đã đọc dữ liệu trước commit hoặc từ replica còn trễ
+ */
+class InvalidationClock {
+
+    private static final int STRIPES = 64;
+
+    private final long graceNanos;
+    // Last invalidation time (System.nanoTime) per key stripe; invalidating every key marks every stripe
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STRIPES);
+
+    InvalidationClock(Duration grace) {
+        this.graceNanos = grace.toNanos();
+        long longAgo = System.nanoTime() - graceNanos - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            invalidatedAt.set(i, longAgo);
+        }
+    }
+
+    /**
+     * Ghi nhận invalidate của một khoá; key null nghĩa là mọi khoá
+     */
+    void markInvalidated(Object key) {
+        long now = System.nanoTime();
+        if (key == null) {
+            for (int i = 0; i < STRIPES; i++) {
+                invalidatedAt.set(i, now);
+            }
+        } else {
+            invalidatedAt.set(stripe(key), now);
+        }
+    }
+
+    boolean isCacheable(Object key, long loadStartedNanos) {
+        return loadStartedNanos - invalidatedAt.get(stripe(key)) > graceNanos;
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(Objects.hashCode(key), STRIPES);
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.student_backend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Metric cho đường nóng: timer (có histogram) cho các service được đánh dấu @Timed,
+ * số câu SQL/thời gian JDBC/thời gian chờ kết nối theo từng request, và log request chậm.
+ * Timer theo từng phương thức repository do Spring Boot cung cấp (spring.data.repository.invocations)
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowRequestThreshold;
+    private final int slowRequestTopQueries;
+
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${app.metrics.slow-request-threshold:500ms}") Duration slowRequestThreshold,
+                         @Value("${app.metrics.slow-request-top-queries:5}") int slowRequestTopQueries) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestThreshold = slowRequestThreshold;
+        this.slowRequestTopQueries = slowRequestTopQueries;
+    }
+
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * SqlTrackingDataSource luôn nằm trong, sát pool (dưới LimitingDataSource nếu có), để thời gian chờ kết nối
+     * là thời gian chờ của Hikari, không tính hàng đợi của limiter; không phụ thuộc thứ tự các BeanPostProcessor
+     */
+    @Bean
+    public static BeanPostProcessor sqlTrackingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof LimitingDataSource limiting) {
+                    if (!(limiting.getTargetDataSource() instanceof SqlTrackingDataSource)) {
+                        limiting.setTargetDataSource(new SqlTrackingDataSource(limiting.getTargetDataSource()));
+                    }
+                    return bean;
+                }
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlTrackingDataSource)) {
+                    return new SqlTrackingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(meterRegistry, slowRequestThreshold, slowRequestTopQueries))
+                .addPathPatterns("/api/**");
+    }
+}
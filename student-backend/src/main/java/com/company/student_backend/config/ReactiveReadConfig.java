@@ -0,0 +1,64 @@
+package com.company.student_backend.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Pool R2DBC riêng cho các endpoint đọc không chặn (/api/reactive/**), bật bằng app.reactive.enabled.
+ * Auto-configuration R2DBC của Spring Boot bị tắt (xem spring.autoconfigure.exclude) để không tạo
+ * R2dbcTransactionManager cạnh JpaTransactionManager; đường ghi vẫn hoàn toàn qua JPA/JDBC
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+@Slf4j
+public class ReactiveReadConfig {
+
+    @Bean
+    public ReactivePool reactivePool(
+            @Value("${app.reactive.r2dbc.url}") String url,
+            @Value("${app.reactive.r2dbc.username:${spring.datasource.username}}") String username,
+            @Value("${app.reactive.r2dbc.password:${spring.datasource.password}}") String password,
+            @Value("${app.reactive.r2dbc.pool.initial-size:2}") int initialSize,
+            @Value("${app.reactive.r2dbc.pool.max-size:10}") int maxSize,
+            @Value("${app.reactive.r2dbc.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        log.info("Reactive read pool: {} (max {} connections)", url, maxSize);
+        return new ReactivePool(new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build()));
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ReactivePool reactivePool) {
+        return DatabaseClient.create(reactivePool.pool());
+    }
+
+    /**
+     * Pool không đăng ký thành bean ConnectionFactory: DataSourceAutoConfiguration của Spring Boot
+     * bỏ qua việc tạo DataSource khi có bean ConnectionFactory. Được đóng ở đây khi context tắt
+     */
+    public record ReactivePool(ConnectionPool pool) implements DisposableBean {
+
+        @Override
+        public void destroy() {
+            pool.dispose();
+        }
+    }
+}
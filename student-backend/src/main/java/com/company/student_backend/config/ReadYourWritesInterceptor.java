@@ -0,0 +1,37 @@
+package com.company.student_backend.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Gắn thời điểm ghi gần nhất của client (cookie/header) vào luồng xử lý request cho ReplicaLagGuard
+ */
+class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private final ReplicaLagGuard lagGuard;
+
+    ReadYourWritesInterceptor(ReplicaLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            lagGuard.beginRequest(request, response);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming bodies are written on another thread; do not leak this request's scope into the pool
+        lagGuard.endRequest();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        lagGuard.endRequest();
+    }
+}
@@ -0,0 +1,97 @@
+package com.company.student_backend.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+
+/**
+ * Đảm bảo đọc được dữ liệu vừa ghi (read-your-writes) theo từng client: sau khi một request ghi commit,
+ * response mang thời điểm ghi trong cookie last-write và header X-Last-Write. Trong khoảng window sau thời điểm đó
+ * (nên đặt lớn hơn độ trễ sao chép của replica), các transaction chỉ đọc của client gửi lại cookie hoặc header
+ * vẫn đi vào primary; client khác không bị ảnh hưởng và tiếp tục đọc replica.
+ * Thời điểm là giờ hệ thống nên instance nào nhận request cũng áp dụng được, với điều kiện đồng hồ các instance
+ * lệch nhau ít hơn nhiều so với window. Ngoài request HTTP (job định kỳ, test), phạm vi là luồng hiện tại
+ */
+public class ReplicaLagGuard {
+
+    public static final String COOKIE = "last-write";
+    public static final String HEADER = "X-Last-Write";
+
+    private static final class Scope {
+        private long lastWriteMillis = Long.MIN_VALUE;
+        private HttpServletResponse response;
+    }
+
+    private final long windowMillis;
+    private final ThreadLocal<Scope> scope = ThreadLocal.withInitial(Scope::new);
+
+    public ReplicaLagGuard(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    void beginRequest(HttpServletRequest request, HttpServletResponse response) {
+        Scope current = new Scope();
+        current.response = response;
+        current.lastWriteMillis = clientLastWrite(request);
+        scope.set(current);
+    }
+
+    void endRequest() {
+        scope.remove();
+    }
+
+    public void recordWrite() {
+        Scope current = scope.get();
+        long now = System.currentTimeMillis();
+        current.lastWriteMillis = now;
+        HttpServletResponse response = current.response;
+        if (response != null && !response.isCommitted()) {
+            response.setHeader(HEADER, Long.toString(now));
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(now))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(Duration.ofMillis(windowMillis).plusSeconds(1).toSeconds())
+                    .build()
+                    .toString());
+        }
+    }
+
+    public boolean isReplicaReadable() {
+        long lastWrite = scope.get().lastWriteMillis;
+        if (lastWrite == Long.MIN_VALUE) {
+            return true;
+        }
+        long elapsed = System.currentTimeMillis() - lastWrite;
+        // A time further in the future than the window is not clock skew: ignore it
+        return elapsed >= windowMillis || elapsed < -windowMillis;
+    }
+
+    private static long clientLastWrite(HttpServletRequest request) {
+        long lastWrite = parse(request.getHeader(HEADER));
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    lastWrite = Math.max(lastWrite, parse(cookie.getValue()));
+                }
+            }
+        }
+        return lastWrite;
+    }
+
+    private static long parse(String value) {
+        if (value == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.company.student_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Tách đọc/ghi khi cấu hình app.datasource.replica.url: primary dùng spring.datasource.*,
+ * replica dùng app.datasource.replica.* (pool kế thừa spring.datasource.hikari.*, có thể ghi đè
+ * bằng app.datasource.replica.hikari.*). Không cấu hình replica thì giữ DataSource mặc định của Spring Boot
+ */
+@Configuration
+@Conditional(ReplicaRoutingConfig.ReplicaConfigured.class)
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(
+            @Value("${app.datasource.replica.read-your-writes-window:2s}") Duration readYourWritesWindow) {
+        return new ReplicaLagGuard(readYourWritesWindow);
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer(ReplicaLagGuard replicaLagGuard) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadYourWritesInterceptor(replicaLagGuard)).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    @Bean
+    public DataSourcePools dataSourcePools(DataSourceProperties properties, Environment environment,
+                                           MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(environment.getRequiredProperty("app.datasource.replica.url"))
+                .username(environment.getProperty("app.datasource.replica.username", properties.determineUsername()))
+                .password(environment.getProperty("app.datasource.replica.password", properties.determinePassword()))
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        binder.bind("app.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        log.info("Routing read-only transactions to replica {}", replica.getJdbcUrl());
+        return new DataSourcePools(primary, replica);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourcePools pools, ReplicaLagGuard replicaLagGuard) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(pools.primary(), pools.replica(), replicaLagGuard));
+    }
+
+    /**
+     * Hai pool không đăng ký thành bean DataSource riêng (chỉ có một DataSource cho JPA/JdbcTemplate),
+     * nên được đóng ở đây khi context tắt
+     */
+    public record DataSourcePools(HikariDataSource primary, HikariDataSource replica) implements DisposableBean {
+
+        @Override
+        public void destroy() {
+            replica.close();
+            primary.close();
+        }
+    }
+
+    static class ReplicaConfigured implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return StringUtils.hasText(context.getEnvironment().getProperty("app.datasource.replica.url"));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.company.student_backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Transaction @Transactional(readOnly = true) đọc từ replica, còn lại dùng primary.
+ * Phải được bọc trong LazyConnectionDataSourceProxy: kết nối thật chỉ được lấy ở câu lệnh đầu tiên,
+ * khi cờ read-only của transaction đã được thiết lập
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagGuard lagGuard;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return lagGuard.isReplicaReadable() ? Route.REPLICA : Route.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Read-write transaction: open the read-your-writes window once it commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lagGuard.recordWrite();
+                }
+            });
+        } else {
+            lagGuard.recordWrite();
+        }
+        return Route.PRIMARY;
+    }
+}
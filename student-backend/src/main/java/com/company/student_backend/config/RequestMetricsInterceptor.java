@@ -0,0 +1,93 @@
+package com.company.student_backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi metric SQL theo endpoint (số câu lệnh, thời gian JDBC, thời gian chờ kết nối)
+ * và log chi tiết các câu SQL của request chậm hơn ngưỡng
+ */
+@Slf4j
+class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+    private final int topQueries;
+
+    RequestMetricsInterceptor(MeterRegistry registry, Duration slowThreshold, int topQueries) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+        this.topQueries = topQueries;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Re-dispatch of an async request: the first dispatch has already been measured
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        RequestSqlStats.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming bodies are written on another thread; stop tracking on this one
+        RequestSqlStats.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (stats == null || start == null) {
+            return;
+        }
+        RequestSqlStats.clear();
+        long elapsedNanos = System.nanoTime() - (Long) start;
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per request")
+                .tags("uri", uri, "method", method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Time spent executing SQL per request")
+                .tags("uri", uri, "method", method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("http.server.requests.connection.wait")
+                .description("Time spent waiting for pooled connections per request")
+                .tags("uri", uri, "method", method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getConnectionWaitNanos(), TimeUnit.NANOSECONDS);
+
+        if (elapsedNanos >= slowThreshold.toNanos()) {
+            log.warn("Slow request {} {} ({}): {} ms, {} SQL statements in {} ms, {} connections waited {} ms; top queries:{}",
+                    method, request.getRequestURI(), uri,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    stats.getStatements(), TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()),
+                    stats.getConnections(), TimeUnit.NANOSECONDS.toMillis(stats.getConnectionWaitNanos()),
+                    stats.topQueries(topQueries));
+        }
+    }
+}
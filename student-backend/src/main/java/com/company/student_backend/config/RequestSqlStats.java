@@ -0,0 +1,91 @@
+package com.company.student_backend.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Số câu SQL, thời gian JDBC và thời gian chờ kết nối của request đang xử lý trên luồng hiện tại.
+ * Chỉ được ghi từ luồng của request nên không cần đồng bộ
+ */
+final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    // Distinct SQL strings kept for the slow-request breakdown; the rest are only counted
+    private static final int MAX_DISTINCT_QUERIES = 50;
+
+    private static final class QueryStats {
+        private int count;
+        private long nanos;
+    }
+
+    private final Map<String, QueryStats> queries = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+    private int connections;
+    private long connectionWaitNanos;
+
+    static RequestSqlStats start() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        QueryStats query = queries.get(sql);
+        if (query == null && queries.size() < MAX_DISTINCT_QUERIES) {
+            query = new QueryStats();
+            queries.put(sql, query);
+        }
+        if (query != null) {
+            query.count++;
+            query.nanos += nanos;
+        }
+    }
+
+    void recordConnection(long nanos) {
+        connections++;
+        connectionWaitNanos += nanos;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    int getConnections() {
+        return connections;
+    }
+
+    long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    /**
+     * Các câu SQL tốn thời gian nhất, mỗi dòng: số lần, tổng ms, câu lệnh
+     */
+    String topQueries(int limit) {
+        return queries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStats> e) -> e.getValue().nanos).reversed())
+                .limit(limit)
+                .map(e -> String.format("%n  %dx %d ms  %s", e.getValue().count,
+                        TimeUnit.NANOSECONDS.toMillis(e.getValue().nanos), e.getKey()))
+                .collect(Collectors.joining());
+    }
+}
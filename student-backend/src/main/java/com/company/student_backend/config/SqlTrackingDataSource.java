@@ -0,0 +1,89 @@
+package com.company.student_backend.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource ghi thời gian mượn kết nối và thời gian thực thi từng câu SQL vào RequestSqlStats.
+ * Ngoài request (job nền, scheduler) kết nối được trả về nguyên vẹn, không bọc proxy
+ */
+class SqlTrackingDataSource extends DelegatingDataSource {
+
+    SqlTrackingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats == null) {
+            return obtainTargetDataSource().getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        stats.recordConnection(System.nanoTime() - start);
+        return trackConnection(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats == null) {
+            return obtainTargetDataSource().getConnection(username, password);
+        }
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        stats.recordConnection(System.nanoTime() - start);
+        return trackConnection(connection);
+    }
+
+    private static Connection trackConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement statement) {
+                        // prepareStatement/prepareCall carry the SQL; createStatement passes it to execute*
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return trackStatement(statement, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object trackStatement(Statement target, Class<?> type, String preparedSql) {
+        Class<?> iface = type == CallableStatement.class ? CallableStatement.class
+                : type == PreparedStatement.class ? PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{iface},
+                (proxy, method, args) -> {
+                    RequestSqlStats stats = RequestSqlStats.current();
+                    if (stats == null || !method.getName().startsWith("execute")) {
+                        return invoke(target, method, args);
+                    }
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String s ? s : "<batch>";
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(target, method, args);
+                    } finally {
+                        stats.recordStatement(sql, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
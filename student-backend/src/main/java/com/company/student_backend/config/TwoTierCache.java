@@ -0,0 +1,268 @@
+package com.company.student_backend.config;
+
+import com.company.student_backend.service.SharedCacheStore;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache hai tầng cho kết quả trả về của service: Caffeine trong tiến trình phía trước,
+ * SharedCacheStore (null nếu chỉ dùng một tầng) dùng chung giữa các instance phía sau, giá trị lưu dạng JSON.
+ * get(key, valueLoader) — tức @Cacheable(sync = true) — chỉ gọi loader một lần cho mỗi khoá trong một instance;
+ * lỗi của tầng chung chỉ được ghi log, request vẫn đọc/ghi DB như khi không có cache.
+ * Giá trị vừa load không được lưu (ở cả hai tầng) nếu khoá bị invalidate trong lúc load hoặc trong khoảng
+ * invalidation-grace trước khi load bắt đầu (xem InvalidationClock)
+ */
+@Slf4j
+class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final SharedCacheStore shared;
+    private final Duration sharedTtl;
+    private final ObjectMapper objectMapper;
+    private final JavaType valueType;
+    private final Counter localHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private final Counter sharedErrors;
+    private final Counter uncachedLoads;
+    private final InvalidationClock clock;
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    TwoTierCache(String name, Caffeine<Object, Object> local, SharedCacheStore shared, Duration sharedTtl,
+                 Duration invalidationGrace, ObjectMapper objectMapper, JavaType valueType, MeterRegistry meterRegistry) {
+        super(true);
+        this.clock = new InvalidationClock(invalidationGrace);
+        this.name = name;
+        this.local = local.build();
+        this.shared = shared;
+        this.sharedTtl = sharedTtl;
+        this.objectMapper = objectMapper;
+        this.valueType = valueType;
+        this.localHits = lookups(meterRegistry, "local_hit");
+        this.sharedHits = lookups(meterRegistry, "shared_hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.sharedErrors = Counter.builder("response_cache.shared.errors")
+                .description("Shared cache tier operations that failed and were skipped")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.uncachedLoads = Counter.builder("response_cache.uncached_loads")
+                .description("Loaded values not cached because the key was invalidated during or just before the load")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String id = id(key);
+        Object value = local.getIfPresent(id);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        value = sharedGet(id);
+        if (value != null) {
+            sharedHits.increment();
+            local.put(id, value);
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String id = id(key);
+        Object value = local.getIfPresent(id);
+        if (value != null) {
+            localHits.increment();
+            return (T) fromStoreValue(value);
+        }
+        // Concurrent callers for the same key wait on this one load. Unlike Caffeine's get(key, fn),
+        // an eviction does not block behind it: the load sees the eviction and skips caching instead
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(id, mine);
+        if (running != null) {
+            return (T) fromStoreValue(await(running));
+        }
+        try {
+            value = local.getIfPresent(id);
+            if (value == null) {
+                long started = System.nanoTime();
+                value = load(key, id, valueLoader, started);
+                if (clock.isCacheable(id, started)) {
+                    local.put(id, value);
+                }
+            }
+            mine.complete(value);
+            return (T) fromStoreValue(value);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, mine);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String id = id(key);
+        Object storeValue = toStoreValue(value);
+        local.put(id, storeValue);
+        sharedPut(id, storeValue);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String id = id(key);
+        clock.markInvalidated(id);
+        local.invalidate(id);
+        if (shared != null) {
+            try {
+                shared.evict(name, id);
+            } catch (RuntimeException e) {
+                sharedFailed("evict", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evict(key);
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        clock.markInvalidated(null);
+        local.invalidateAll();
+        if (shared != null) {
+            try {
+                shared.clear(name);
+            } catch (RuntimeException e) {
+                sharedFailed("clear", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        clear();
+        return false;
+    }
+
+    /**
+     * Invalidation từ instance khác: chỉ bỏ bản sao cục bộ
+     */
+    void evictLocal(String key) {
+        clock.markInvalidated(key);
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private Object load(Object key, String id, Callable<?> valueLoader, long started) {
+        Object value = sharedGet(id);
+        if (value != null) {
+            sharedHits.increment();
+            return value;
+        }
+        misses.increment();
+        try {
+            value = toStoreValue(valueLoader.call());
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (clock.isCacheable(id, started)) {
+            sharedPut(id, value);
+        } else {
+            uncachedLoads.increment();
+            log.debug("Not caching {} {}: invalidated while loading", name, id);
+        }
+        return value;
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Object sharedGet(String id) {
+        if (shared == null) {
+            return null;
+        }
+        try {
+            byte[] json = shared.get(name, id);
+            if (json == null) {
+                return null;
+            }
+            Object value = objectMapper.readValue(json, valueType);
+            return value == null ? NullValue.INSTANCE : value;
+        } catch (IOException | RuntimeException e) {
+            sharedFailed("get", e);
+            return null;
+        }
+    }
+
+    private void sharedPut(String id, Object storeValue) {
+        if (shared == null) {
+            return;
+        }
+        try {
+            Object value = storeValue == NullValue.INSTANCE ? null : storeValue;
+            shared.put(name, id, objectMapper.writeValueAsBytes(value), sharedTtl);
+        } catch (IOException | RuntimeException e) {
+            sharedFailed("put", e);
+        }
+    }
+
+    private void sharedFailed(String operation, Exception e) {
+        sharedErrors.increment();
+        log.warn("Shared cache {} failed for {}: {}", operation, name, e.toString());
+    }
+
+    private Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("response_cache.lookups")
+                .description("Response cache lookups by the tier that answered")
+                .tags("cache", name, "result", result)
+                .register(meterRegistry);
+    }
+
+    private static String id(Object key) {
+        return key.toString();
+    }
+}
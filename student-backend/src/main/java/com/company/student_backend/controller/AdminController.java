@@ -0,0 +1,53 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.AggregateRebuildResult;
+import com.company.student_backend.dto.ChangeLogCompactionResult;
+import com.company.student_backend.service.ChangeLogService;
+import com.company.student_backend.service.RankingService;
+import com.company.student_backend.service.ScoreAggregateService;
+import com.company.student_backend.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    private final ScoreAggregateService scoreAggregateService;
+    private final RankingService rankingService;
+    private final SearchService searchService;
+    private final ChangeLogService changeLogService;
+
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<AggregateRebuildResult> rebuildAggregates() {
+        log.info("POST /api/admin/aggregates/rebuild - Rebuilding score aggregates");
+        AggregateRebuildResult result = scoreAggregateService.rebuild();
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/rankings/rebuild")
+    public ResponseEntity<Void> rebuildRankings() {
+        log.info("POST /api/admin/rankings/rebuild - Rebuilding ranking index");
+        rankingService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        log.info("POST /api/admin/search/rebuild - Rebuilding name search index");
+        searchService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/sync/compact")
+    public ResponseEntity<ChangeLogCompactionResult> compactChangeLog() {
+        log.info("POST /api/admin/sync/compact - Compacting change log");
+        ChangeLogCompactionResult result = changeLogService.compact();
+        return ResponseEntity.ok(result);
+    }
+}
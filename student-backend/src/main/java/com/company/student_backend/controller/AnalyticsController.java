@@ -0,0 +1,48 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.ScoreDistributionDTO;
+import com.company.student_backend.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/subjects")
+    public ResponseEntity<List<ScoreDistributionDTO>> getAllSubjectDistributions() {
+        log.info("GET /api/analytics/subjects - Getting score distributions for all subjects");
+        List<ScoreDistributionDTO> distributions = analyticsService.getAllSubjectDistributions();
+        return ResponseEntity.ok(distributions);
+    }
+
+    @GetMapping("/subject/{subjectId}")
+    public ResponseEntity<ScoreDistributionDTO> getSubjectDistribution(@PathVariable String subjectId) {
+        log.info("GET /api/analytics/subject/{} - Getting score distribution by subject", subjectId);
+        ScoreDistributionDTO distribution = analyticsService.getSubjectDistribution(subjectId);
+        return ResponseEntity.ok(distribution);
+    }
+
+    @GetMapping("/cohorts")
+    public ResponseEntity<List<ScoreDistributionDTO>> getAllCohortDistributions() {
+        log.info("GET /api/analytics/cohorts - Getting score distributions for all birth years");
+        List<ScoreDistributionDTO> distributions = analyticsService.getAllCohortDistributions();
+        return ResponseEntity.ok(distributions);
+    }
+
+    @GetMapping("/cohort/{birthYear}")
+    public ResponseEntity<ScoreDistributionDTO> getCohortDistribution(@PathVariable Integer birthYear) {
+        log.info("GET /api/analytics/cohort/{} - Getting score distribution by birth year", birthYear);
+        ScoreDistributionDTO distribution = analyticsService.getCohortDistribution(birthYear);
+        return ResponseEntity.ok(distribution);
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * GET có điều kiện dựa trên phiên bản bảng: so If-None-Match / If-Modified-Since trước,
+ * chỉ khi dữ liệu đã đổi mới gọi service để truy vấn và serialize.
+ * Phiên bản null (xem DataVersionService) thì luôn trả body và không kèm ETag/Last-Modified
+ */
+final class ETags {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private ETags() {
+    }
+
+    static <T> ResponseEntity<T> conditional(HttpServletRequest request, DataVersionService.Version version, Supplier<T> body) {
+        return conditional(request, version, null, body);
+    }
+
+    static <T> ResponseEntity<T> conditional(HttpServletRequest request, DataVersionService.Version version,
+                                             MediaType contentType, Supplier<T> body) {
+        if (version == null) {
+            // No comparable version right now: always send the body, without validators
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT);
+            if (contentType != null) {
+                ok.contentType(contentType);
+            }
+            return ok.body(body.get());
+        }
+        String etag = representationTag(version.etag(), contentType != null ? null : request);
+        // Request-only ServletWebRequest: evaluates the preconditions without touching the response,
+        // so a 404 thrown by the service below does not leak validators
+        if (new ServletWebRequest(request).checkNotModified(etag, version.lastModified())) {
+            return validators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, version).build();
+        }
+        ResponseEntity.BodyBuilder ok = validators(ResponseEntity.ok(), etag, version);
+        if (contentType != null) {
+            ok.contentType(contentType);
+        }
+        return ok.body(body.get());
+    }
+
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder builder, String etag,
+                                                         DataVersionService.Version version) {
+        builder.cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(etag);
+        if (version.lastModified() >= 0) {
+            builder.lastModified(version.lastModified());
+        }
+        return builder;
+    }
+
+    /**
+     * JSON, Smile và CBOR là các biểu diễn khác nhau của cùng dữ liệu, nên ETag mạnh phải khác nhau
+     */
+    private static String representationTag(String etag, HttpServletRequest request) {
+        String encoding = request == null ? null : binaryEncoding(request.getHeader(HttpHeaders.ACCEPT));
+        return encoding == null ? etag : etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    private static String binaryEncoding(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return null;
+        }
+        // Same preference order as content negotiation: quality first, then specificity
+        MimeTypeUtils.sortBySpecificity(accepted);
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (type.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+                return "smile";
+            }
+        }
+        return null;
+    }
+}
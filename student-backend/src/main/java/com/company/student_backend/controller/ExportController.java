@@ -0,0 +1,57 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.ExportFormat;
+import com.company.student_backend.dto.ExportJobDTO;
+import com.company.student_backend.service.ExportService;
+import com.company.student_backend.service.ExportService.ExportFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @PostMapping
+    public ResponseEntity<ExportJobDTO> submitExport(@RequestParam(defaultValue = "csv") String format) {
+        log.info("POST /api/exports - Submitting gradebook export ({})", format);
+        ExportJobDTO job = exportService.submit(ExportFormat.from(format));
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQuery(null)
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJobDTO> getExport(@PathVariable String id) {
+        log.info("GET /api/exports/{} - Fetching export job", id);
+        return ResponseEntity.ok(exportService.getJob(id));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String id) {
+        log.info("GET /api/exports/{}/download - Downloading export", id);
+        ExportFile file = exportService.getFile(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.format().getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.filename()).build().toString())
+                .body(new FileSystemResource(file.path()));
+    }
+}
@@ -1,14 +1,31 @@
 package com.company.student_backend.controller;
 
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.dto.BulkImportResult;
+import com.company.student_backend.dto.CursorPage;
+import com.company.student_backend.dto.GradeColumnsDTO;
 import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.ScoreStatsDTO;
+import com.company.student_backend.service.BulkImportService;
+import com.company.student_backend.service.BulkRowReader;
+import com.company.student_backend.service.DataVersionService;
+import com.company.student_backend.service.GradeEventBroadcaster;
 import com.company.student_backend.service.GradeService;
+import com.company.student_backend.service.GradeWriteBehindService;
+import com.company.student_backend.service.IdempotencyService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -20,36 +37,112 @@ import java.util.List;
 public class GradeController {
 
     private final GradeService gradeService;
+    private final NdjsonWriter ndjsonWriter;
+    private final BulkImportService bulkImportService;
+    private final BulkRowReader bulkRowReader;
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
+    private final GradeWriteBehindService gradeWriteBehindService;
+    private final GradeEventBroadcaster gradeEventBroadcaster;
 
     @GetMapping
-    public ResponseEntity<List<GradeDTO>> getAllGrades() {
+    public ResponseEntity<List<GradeDTO>> getAllGrades(HttpServletRequest request) {
         log.info("GET /api/grades - Getting all grades");
-        List<GradeDTO> grades = gradeService.getAllGrades();
-        return ResponseEntity.ok(grades);
+        return ETags.conditional(request, dataVersionService.grades(), gradeService::getAllGrades);
+    }
+
+    @GetMapping(params = "layout=columnar")
+    public ResponseEntity<GradeColumnsDTO> getAllGradesColumnar(HttpServletRequest request) {
+        log.info("GET /api/grades?layout=columnar - Getting all grades as columns");
+        return ETags.conditional(request, dataVersionService.grades(), () -> GradeColumnsDTO.of(gradeService.getAllGrades()));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<GradeDTO>> getGradesPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) Long after,
+            HttpServletRequest request) {
+        log.info("GET /api/grades?limit={}&after={} - Getting grades page", limit, after);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getGradesPage(after, limit));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchLookupResult<GradeDTO, Long>> getGradesByIds(@RequestParam List<Long> ids, HttpServletRequest request) {
+        log.info("GET /api/grades?ids= - Getting grades by IDs ({} requested)", ids.size());
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getGradesByIds(ids));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllGrades(HttpServletRequest request) {
+        log.info("GET /api/grades (NDJSON) - Streaming all grades");
+        return ETags.conditional(request, dataVersionService.grades(), MediaType.APPLICATION_NDJSON,
+                () -> ndjsonWriter.write(gradeService::streamAllGrades));
+    }
+
+    /**
+     * Theo dõi thay đổi điểm qua Server-Sent Events thay vì poll; lọc theo môn học và/hoặc học sinh
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGradeChanges(
+            @RequestParam(required = false) String subjectId,
+            @RequestParam(required = false) String studentId) {
+        log.info("GET /api/grades/stream?subjectId={}&studentId={} - Subscribing to grade changes", subjectId, studentId);
+        return gradeEventBroadcaster.subscribe(subjectId, studentId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<GradeDTO> getGradeById(@PathVariable Long id) {
+    public ResponseEntity<GradeDTO> getGradeById(@PathVariable Long id, HttpServletRequest request) {
         log.info("GET /api/grades/{} - Getting grade by ID", id);
-        GradeDTO grade = gradeService.getGradeById(id);
-        return ResponseEntity.ok(grade);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getGradeById(id));
     }
 
     @PostMapping
-    public ResponseEntity<GradeDTO> createGrade(@Valid @RequestBody GradeDTO gradeDTO) {
+    public ResponseEntity<GradeDTO> createGrade(
+            @Valid @RequestBody GradeDTO gradeDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         log.info("POST /api/grades - Creating new grade for student: {} and subject: {}",
                 gradeDTO.getStudentId(), gradeDTO.getSubjectId());
-        GradeDTO createdGrade = gradeService.createGrade(gradeDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdGrade);
+        return idempotencyService.execute(idempotencyKey, request, gradeDTO, HttpStatus.CREATED, GradeDTO.class,
+                () -> gradeService.createGrade(gradeDTO));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResult> importGrades(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean upsert) throws IOException {
+        log.info("POST /api/grades/bulk - Importing grades from JSON (upsert: {})", upsert);
+        BulkImportResult result = bulkImportService.importGrades(
+                bulkRowReader.readJson(body, GradeDTO.class), upsert);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkImportResult> importGradesCsv(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        log.info("POST /api/grades/bulk - Importing grades from CSV (upsert: {})", upsert);
+        BulkImportResult result = bulkImportService.importGrades(
+                bulkRowReader.readCsv(body, "studentId", BulkImportService::gradeFromCsv), upsert);
+        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<GradeDTO> updateGrade(
             @PathVariable Long id,
-            @Valid @RequestBody GradeDTO gradeDTO) {
+            @Valid @RequestBody GradeDTO gradeDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         log.info("PUT /api/grades/{} - Updating grade", id);
-        GradeDTO updatedGrade = gradeService.updateGrade(id, gradeDTO);
-        return ResponseEntity.ok(updatedGrade);
+        if (gradeWriteBehindService.isEnabled()) {
+            // Buffered: 202 with the pending score, written by the next flush; 200 if it fell back to a direct write
+            return idempotencyService.execute(idempotencyKey, request, gradeDTO, GradeDTO.class, () -> {
+                GradeWriteBehindService.Update update = gradeWriteBehindService.enqueue(id, gradeDTO);
+                return ResponseEntity.status(update.buffered() ? HttpStatus.ACCEPTED : HttpStatus.OK).body(update.grade());
+            });
+        }
+        return idempotencyService.execute(idempotencyKey, request, gradeDTO, HttpStatus.OK, GradeDTO.class,
+                () -> gradeService.updateGrade(id, gradeDTO));
     }
 
     @DeleteMapping("/{id}")
@@ -60,30 +153,52 @@ public class GradeController {
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<GradeDTO>> getGradesByStudentId(@PathVariable String studentId) {
+    public ResponseEntity<List<GradeDTO>> getGradesByStudentId(@PathVariable String studentId, HttpServletRequest request) {
         log.info("GET /api/grades/student/{} - Getting grades by student ID", studentId);
-        List<GradeDTO> grades = gradeService.getGradesByStudentId(studentId);
-        return ResponseEntity.ok(grades);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getGradesByStudentId(studentId));
+    }
+
+    @GetMapping(value = "/student/{studentId}", params = "layout=columnar")
+    public ResponseEntity<GradeColumnsDTO> getGradesByStudentIdColumnar(@PathVariable String studentId, HttpServletRequest request) {
+        log.info("GET /api/grades/student/{}?layout=columnar - Getting grades by student ID as columns", studentId);
+        return ETags.conditional(request, dataVersionService.grades(),
+                () -> GradeColumnsDTO.of(gradeService.getGradesByStudentId(studentId)));
     }
 
     @GetMapping("/subject/{subjectId}")
-    public ResponseEntity<List<GradeDTO>> getGradesBySubjectId(@PathVariable String subjectId) {
+    public ResponseEntity<List<GradeDTO>> getGradesBySubjectId(@PathVariable String subjectId, HttpServletRequest request) {
         log.info("GET /api/grades/subject/{} - Getting grades by subject ID", subjectId);
-        List<GradeDTO> grades = gradeService.getGradesBySubjectId(subjectId);
-        return ResponseEntity.ok(grades);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getGradesBySubjectId(subjectId));
+    }
+
+    @GetMapping(value = "/subject/{subjectId}", params = "layout=columnar")
+    public ResponseEntity<GradeColumnsDTO> getGradesBySubjectIdColumnar(@PathVariable String subjectId, HttpServletRequest request) {
+        log.info("GET /api/grades/subject/{}?layout=columnar - Getting grades by subject ID as columns", subjectId);
+        return ETags.conditional(request, dataVersionService.grades(),
+                () -> GradeColumnsDTO.of(gradeService.getGradesBySubjectId(subjectId)));
     }
 
     @GetMapping("/student/{studentId}/average")
-    public ResponseEntity<BigDecimal> getAverageScoreByStudentId(@PathVariable String studentId) {
+    public ResponseEntity<BigDecimal> getAverageScoreByStudentId(@PathVariable String studentId, HttpServletRequest request) {
         log.info("GET /api/grades/student/{}/average - Getting average score by student ID", studentId);
-        BigDecimal averageScore = gradeService.getAverageScoreByStudentId(studentId);
-        return ResponseEntity.ok(averageScore);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getAverageScoreByStudentId(studentId));
     }
 
     @GetMapping("/subject/{subjectId}/average")
-    public ResponseEntity<BigDecimal> getAverageScoreBySubjectId(@PathVariable String subjectId) {
+    public ResponseEntity<BigDecimal> getAverageScoreBySubjectId(@PathVariable String subjectId, HttpServletRequest request) {
         log.info("GET /api/grades/subject/{}/average - Getting average score by subject ID", subjectId);
-        BigDecimal averageScore = gradeService.getAverageScoreBySubjectId(subjectId);
-        return ResponseEntity.ok(averageScore);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getAverageScoreBySubjectId(subjectId));
+    }
+
+    @GetMapping("/student/{studentId}/stats")
+    public ResponseEntity<ScoreStatsDTO> getScoreStatsByStudentId(@PathVariable String studentId, HttpServletRequest request) {
+        log.info("GET /api/grades/student/{}/stats - Getting score stats by student ID", studentId);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getScoreStatsByStudentId(studentId));
+    }
+
+    @GetMapping("/subject/{subjectId}/stats")
+    public ResponseEntity<ScoreStatsDTO> getScoreStatsBySubjectId(@PathVariable String subjectId, HttpServletRequest request) {
+        log.info("GET /api/grades/subject/{}/stats - Getting score stats by subject ID", subjectId);
+        return ETags.conditional(request, dataVersionService.grades(), () -> gradeService.getScoreStatsBySubjectId(subjectId));
     }
 }
@@ -0,0 +1,39 @@
+package com.company.student_backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Ghi từng dòng JSON (NDJSON) ra response ngay khi service đẩy dữ liệu sang,
+ * không gom toàn bộ danh sách vào bộ nhớ
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public <T> StreamingResponseBody write(Consumer<Consumer<T>> source) {
+        return out -> {
+            try {
+                source.accept(item -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(item));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+    }
+}
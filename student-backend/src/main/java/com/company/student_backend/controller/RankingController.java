@@ -0,0 +1,62 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.RankingEntryDTO;
+import com.company.student_backend.dto.StudentRankDTO;
+import com.company.student_backend.service.RankingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/rankings")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class RankingController {
+
+    private final RankingService rankingService;
+
+    @GetMapping("/subject/{subjectId}/top")
+    public ResponseEntity<List<RankingEntryDTO>> getTopStudentsBySubject(
+            @PathVariable String subjectId,
+            @RequestParam(defaultValue = "10") int k) {
+        log.info("GET /api/rankings/subject/{}/top?k={} - Getting top students by subject", subjectId, k);
+        List<RankingEntryDTO> ranking = rankingService.getTopStudentsBySubject(subjectId, k);
+        return ResponseEntity.ok(ranking);
+    }
+
+    @GetMapping("/subject/{subjectId}/bottom")
+    public ResponseEntity<List<RankingEntryDTO>> getBottomStudentsBySubject(
+            @PathVariable String subjectId,
+            @RequestParam(defaultValue = "10") int k) {
+        log.info("GET /api/rankings/subject/{}/bottom?k={} - Getting bottom students by subject", subjectId, k);
+        List<RankingEntryDTO> ranking = rankingService.getBottomStudentsBySubject(subjectId, k);
+        return ResponseEntity.ok(ranking);
+    }
+
+    @GetMapping("/subject/{subjectId}/student/{studentId}")
+    public ResponseEntity<StudentRankDTO> getStudentRankInSubject(
+            @PathVariable String subjectId,
+            @PathVariable String studentId) {
+        log.info("GET /api/rankings/subject/{}/student/{} - Getting student rank in subject", subjectId, studentId);
+        StudentRankDTO rank = rankingService.getStudentRankInSubject(subjectId, studentId);
+        return ResponseEntity.ok(rank);
+    }
+
+    @GetMapping("/overall/top")
+    public ResponseEntity<List<RankingEntryDTO>> getTopStudentsOverall(@RequestParam(defaultValue = "10") int k) {
+        log.info("GET /api/rankings/overall/top?k={} - Getting top students by mean score", k);
+        List<RankingEntryDTO> ranking = rankingService.getTopStudentsOverall(k);
+        return ResponseEntity.ok(ranking);
+    }
+
+    @GetMapping("/overall/bottom")
+    public ResponseEntity<List<RankingEntryDTO>> getBottomStudentsOverall(@RequestParam(defaultValue = "10") int k) {
+        log.info("GET /api/rankings/overall/bottom?k={} - Getting bottom students by mean score", k);
+        List<RankingEntryDTO> ranking = rankingService.getBottomStudentsOverall(k);
+        return ResponseEntity.ok(ranking);
+    }
+}
@@ -0,0 +1,77 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.service.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Các GET nóng qua R2DBC. Spring MVC chạy Flux/Mono ở chế độ async nên luồng Tomcat được trả lại trong lúc chờ;
+ * với application/x-ndjson từng phần tử được ghi ngay và chỉ yêu cầu phần tử tiếp theo sau khi ghi xong (backpressure).
+ * Ghi dữ liệu vẫn dùng các controller hiện có
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ReactiveReadController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    @GetMapping(value = "/students", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<StudentDTO> getAllStudents() {
+        log.info("GET /api/reactive/students - Streaming all students");
+        return reactiveReadService.getAllStudents();
+    }
+
+    @GetMapping("/students/{studentId}")
+    public Mono<StudentDTO> getStudentById(@PathVariable String studentId) {
+        log.info("GET /api/reactive/students/{} - Getting student by ID", studentId);
+        return reactiveReadService.getStudentById(studentId);
+    }
+
+    @GetMapping(value = "/subjects", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<SubjectDTO> getAllSubjects() {
+        log.info("GET /api/reactive/subjects - Streaming all subjects");
+        return reactiveReadService.getAllSubjects();
+    }
+
+    @GetMapping("/subjects/{subjectId}")
+    public Mono<SubjectDTO> getSubjectById(@PathVariable String subjectId) {
+        log.info("GET /api/reactive/subjects/{} - Getting subject by ID", subjectId);
+        return reactiveReadService.getSubjectById(subjectId);
+    }
+
+    @GetMapping(value = "/grades", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<GradeDTO> getAllGrades() {
+        log.info("GET /api/reactive/grades - Streaming all grades");
+        return reactiveReadService.getAllGrades();
+    }
+
+    @GetMapping("/grades/{id}")
+    public Mono<GradeDTO> getGradeById(@PathVariable Long id) {
+        log.info("GET /api/reactive/grades/{} - Getting grade by ID", id);
+        return reactiveReadService.getGradeById(id);
+    }
+
+    @GetMapping(value = "/grades/student/{studentId}", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<GradeDTO> getGradesByStudentId(@PathVariable String studentId) {
+        log.info("GET /api/reactive/grades/student/{} - Streaming grades by student ID", studentId);
+        return reactiveReadService.getGradesByStudentId(studentId);
+    }
+
+    @GetMapping(value = "/grades/subject/{subjectId}", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<GradeDTO> getGradesBySubjectId(@PathVariable String subjectId) {
+        log.info("GET /api/reactive/grades/subject/{} - Streaming grades by subject ID", subjectId);
+        return reactiveReadService.getGradesBySubjectId(subjectId);
+    }
+}
@@ -1,14 +1,28 @@
 package com.company.student_backend.controller;
 
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.dto.BulkImportResult;
+import com.company.student_backend.dto.CursorPage;
+import com.company.student_backend.dto.ReportCardDTO;
 import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.service.BulkImportService;
+import com.company.student_backend.service.BulkRowReader;
+import com.company.student_backend.service.DataVersionService;
+import com.company.student_backend.service.IdempotencyService;
+import com.company.student_backend.service.ReportCardService;
 import com.company.student_backend.service.StudentService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,35 +33,98 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final NdjsonWriter ndjsonWriter;
+    private final BulkImportService bulkImportService;
+    private final BulkRowReader bulkRowReader;
+    private final ReportCardService reportCardService;
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
-    public ResponseEntity<List<StudentDTO>> getAllStudents() {
+    public ResponseEntity<List<StudentDTO>> getAllStudents(HttpServletRequest request) {
         log.info("GET /api/students - Getting all students");
-        List<StudentDTO> students = studentService.getAllStudents();
-        return ResponseEntity.ok(students);
+        return ETags.conditional(request, dataVersionService.students(), studentService::getAllStudents);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<StudentDTO>> getStudentsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String after,
+            HttpServletRequest request) {
+        log.info("GET /api/students?limit={}&after={} - Getting students page", limit, after);
+        return ETags.conditional(request, dataVersionService.students(), () -> studentService.getStudentsPage(after, limit));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchLookupResult<StudentDTO, String>> getStudentsByIds(@RequestParam List<String> ids, HttpServletRequest request) {
+        log.info("GET /api/students?ids= - Getting students by IDs ({} requested)", ids.size());
+        return ETags.conditional(request, dataVersionService.students(), () -> studentService.getStudentsByIds(ids));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStudents(HttpServletRequest request) {
+        log.info("GET /api/students (NDJSON) - Streaming all students");
+        return ETags.conditional(request, dataVersionService.students(), MediaType.APPLICATION_NDJSON,
+                () -> ndjsonWriter.write(studentService::streamAllStudents));
     }
 
     @GetMapping("/{studentId}")
-    public ResponseEntity<StudentDTO> getStudentById(@PathVariable String studentId) {
+    public ResponseEntity<StudentDTO> getStudentById(@PathVariable String studentId, HttpServletRequest request) {
         log.info("GET /api/students/{} - Getting student by ID", studentId);
-        StudentDTO student = studentService.getStudentById(studentId);
-        return ResponseEntity.ok(student);
+        return ETags.conditional(request, dataVersionService.students(), () -> studentService.getStudentById(studentId));
+    }
+
+    @GetMapping("/{studentId}/report-card")
+    public ResponseEntity<ReportCardDTO> getReportCard(@PathVariable String studentId, HttpServletRequest request) {
+        log.info("GET /api/students/{}/report-card - Getting report card", studentId);
+        return ETags.conditional(request, dataVersionService.grades(), () -> reportCardService.getReportCard(studentId));
+    }
+
+    @GetMapping("/report-cards")
+    public ResponseEntity<List<ReportCardDTO>> getReportCards(@RequestParam List<String> ids, HttpServletRequest request) {
+        log.info("GET /api/students/report-cards - Getting report cards for {} students", ids.size());
+        return ETags.conditional(request, dataVersionService.grades(), () -> reportCardService.getReportCards(ids));
     }
 
     @PostMapping
-    public ResponseEntity<StudentDTO> createStudent(@Valid @RequestBody StudentDTO studentDTO) {
+    public ResponseEntity<StudentDTO> createStudent(
+            @Valid @RequestBody StudentDTO studentDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         log.info("POST /api/students - Creating new student: {}", studentDTO.getStudentId());
-        StudentDTO createdStudent = studentService.createStudent(studentDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdStudent);
+        return idempotencyService.execute(idempotencyKey, request, studentDTO, HttpStatus.CREATED, StudentDTO.class,
+                () -> studentService.createStudent(studentDTO));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResult> importStudents(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean upsert) throws IOException {
+        log.info("POST /api/students/bulk - Importing students from JSON (upsert: {})", upsert);
+        BulkImportResult result = bulkImportService.importStudents(
+                bulkRowReader.readJson(body, StudentDTO.class), upsert);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkImportResult> importStudentsCsv(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        log.info("POST /api/students/bulk - Importing students from CSV (upsert: {})", upsert);
+        BulkImportResult result = bulkImportService.importStudents(
+                bulkRowReader.readCsv(body, "studentId", BulkImportService::studentFromCsv), upsert);
+        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{studentId}")
     public ResponseEntity<StudentDTO> updateStudent(
             @PathVariable String studentId,
-            @Valid @RequestBody StudentDTO studentDTO) {
+            @Valid @RequestBody StudentDTO studentDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         log.info("PUT /api/students/{} - Updating student", studentId);
-        StudentDTO updatedStudent = studentService.updateStudent(studentId, studentDTO);
-        return ResponseEntity.ok(updatedStudent);
+        return idempotencyService.execute(idempotencyKey, request, studentDTO, HttpStatus.OK, StudentDTO.class,
+                () -> studentService.updateStudent(studentId, studentDTO));
     }
 
     @DeleteMapping("/{studentId}")
@@ -57,17 +134,25 @@ public class StudentController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<CursorPage<StudentDTO>> suggestStudents(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
+        log.info("GET /api/students/search?q={}&offset={}&limit={} - Suggesting students by name", q, offset, limit);
+        return ETags.conditional(request, dataVersionService.students(), () -> studentService.suggestStudents(q, offset, limit));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<StudentDTO>> searchStudentsByName(@RequestParam String name) {
+    public ResponseEntity<List<StudentDTO>> searchStudentsByName(@RequestParam String name, HttpServletRequest request) {
         log.info("GET /api/students/search?name={} - Searching students by name", name);
-        List<StudentDTO> students = studentService.searchStudentsByName(name);
-        return ResponseEntity.ok(students);
+        return ETags.conditional(request, dataVersionService.students(), () -> studentService.searchStudentsByName(name));
     }
 
     @GetMapping("/birth-year/{year}")
-    public ResponseEntity<List<StudentDTO>> getStudentsByBirthYear(@PathVariable Integer year) {
+    public ResponseEntity<List<StudentDTO>> getStudentsByBirthYear(@PathVariable Integer year, HttpServletRequest request) {
         log.info("GET /api/students/birth-year/{} - Getting students by birth year", year);
-        List<StudentDTO> students = studentService.getStudentsByBirthYear(year);
-        return ResponseEntity.ok(students);
+        return ETags.conditional(request, dataVersionService.students(), () -> studentService.getStudentsByBirthYear(year));
     }
 }
@@ -1,14 +1,26 @@
 package com.company.student_backend.controller;
 
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.dto.BulkImportResult;
+import com.company.student_backend.dto.CursorPage;
 import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.service.BulkImportService;
+import com.company.student_backend.service.BulkRowReader;
+import com.company.student_backend.service.DataVersionService;
+import com.company.student_backend.service.IdempotencyService;
 import com.company.student_backend.service.SubjectService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,35 +31,85 @@ import java.util.List;
 public class SubjectController {
 
     private final SubjectService subjectService;
+    private final NdjsonWriter ndjsonWriter;
+    private final BulkImportService bulkImportService;
+    private final BulkRowReader bulkRowReader;
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
-    public ResponseEntity<List<SubjectDTO>> getAllSubjects() {
+    public ResponseEntity<List<SubjectDTO>> getAllSubjects(HttpServletRequest request) {
         log.info("GET /api/subjects - Getting all subjects");
-        List<SubjectDTO> subjects = subjectService.getAllSubjects();
-        return ResponseEntity.ok(subjects);
+        return ETags.conditional(request, dataVersionService.subjects(), subjectService::getAllSubjects);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<SubjectDTO>> getSubjectsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String after,
+            HttpServletRequest request) {
+        log.info("GET /api/subjects?limit={}&after={} - Getting subjects page", limit, after);
+        return ETags.conditional(request, dataVersionService.subjects(), () -> subjectService.getSubjectsPage(after, limit));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchLookupResult<SubjectDTO, String>> getSubjectsByIds(@RequestParam List<String> ids, HttpServletRequest request) {
+        log.info("GET /api/subjects?ids= - Getting subjects by IDs ({} requested)", ids.size());
+        return ETags.conditional(request, dataVersionService.subjects(), () -> subjectService.getSubjectsByIds(ids));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllSubjects(HttpServletRequest request) {
+        log.info("GET /api/subjects (NDJSON) - Streaming all subjects");
+        return ETags.conditional(request, dataVersionService.subjects(), MediaType.APPLICATION_NDJSON,
+                () -> ndjsonWriter.write(subjectService::streamAllSubjects));
     }
 
     @GetMapping("/{subjectId}")
-    public ResponseEntity<SubjectDTO> getSubjectById(@PathVariable String subjectId) {
+    public ResponseEntity<SubjectDTO> getSubjectById(@PathVariable String subjectId, HttpServletRequest request) {
         log.info("GET /api/subjects/{} - Getting subject by ID", subjectId);
-        SubjectDTO subject = subjectService.getSubjectById(subjectId);
-        return ResponseEntity.ok(subject);
+        return ETags.conditional(request, dataVersionService.subjects(), () -> subjectService.getSubjectById(subjectId));
     }
 
     @PostMapping
-    public ResponseEntity<SubjectDTO> createSubject(@Valid @RequestBody SubjectDTO subjectDTO) {
+    public ResponseEntity<SubjectDTO> createSubject(
+            @Valid @RequestBody SubjectDTO subjectDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         log.info("POST /api/subjects - Creating new subject: {}", subjectDTO.getSubjectId());
-        SubjectDTO createdSubject = subjectService.createSubject(subjectDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdSubject);
+        return idempotencyService.execute(idempotencyKey, request, subjectDTO, HttpStatus.CREATED, SubjectDTO.class,
+                () -> subjectService.createSubject(subjectDTO));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResult> importSubjects(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean upsert) throws IOException {
+        log.info("POST /api/subjects/bulk - Importing subjects from JSON (upsert: {})", upsert);
+        BulkImportResult result = bulkImportService.importSubjects(
+                bulkRowReader.readJson(body, SubjectDTO.class), upsert);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkImportResult> importSubjectsCsv(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        log.info("POST /api/subjects/bulk - Importing subjects from CSV (upsert: {})", upsert);
+        BulkImportResult result = bulkImportService.importSubjects(
+                bulkRowReader.readCsv(body, "subjectId", BulkImportService::subjectFromCsv), upsert);
+        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{subjectId}")
     public ResponseEntity<SubjectDTO> updateSubject(
             @PathVariable String subjectId,
-            @Valid @RequestBody SubjectDTO subjectDTO) {
+            @Valid @RequestBody SubjectDTO subjectDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         log.info("PUT /api/subjects/{} - Updating subject", subjectId);
-        SubjectDTO updatedSubject = subjectService.updateSubject(subjectId, subjectDTO);
-        return ResponseEntity.ok(updatedSubject);
+        return idempotencyService.execute(idempotencyKey, request, subjectDTO, HttpStatus.OK, SubjectDTO.class,
+                () -> subjectService.updateSubject(subjectId, subjectDTO));
     }
 
     @DeleteMapping("/{subjectId}")
@@ -57,10 +119,19 @@ public class SubjectController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<CursorPage<SubjectDTO>> suggestSubjects(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
+        log.info("GET /api/subjects/search?q={}&offset={}&limit={} - Suggesting subjects by name", q, offset, limit);
+        return ETags.conditional(request, dataVersionService.subjects(), () -> subjectService.suggestSubjects(q, offset, limit));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<SubjectDTO>> searchSubjectsByName(@RequestParam String name) {
+    public ResponseEntity<List<SubjectDTO>> searchSubjectsByName(@RequestParam String name, HttpServletRequest request) {
         log.info("GET /api/subjects/search?name={} - Searching subjects by name", name);
-        List<SubjectDTO> subjects = subjectService.searchSubjectsByName(name);
-        return ResponseEntity.ok(subjects);
+        return ETags.conditional(request, dataVersionService.subjects(), () -> subjectService.searchSubjectsByName(name));
     }
 }
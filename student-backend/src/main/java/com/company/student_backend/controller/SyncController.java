@@ -0,0 +1,27 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.SyncResponseDTO;
+import com.company.student_backend.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponseDTO> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        log.info("GET /api/sync?since={}&limit={} - Getting changes", since, limit);
+        SyncResponseDTO changes = syncService.getChanges(since, limit);
+        return ResponseEntity.ok(changes);
+    }
+}
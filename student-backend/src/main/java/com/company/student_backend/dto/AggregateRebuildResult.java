@@ -0,0 +1,15 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateRebuildResult {
+
+    private int studentAggregates;
+    private int subjectAggregates;
+    private long elapsedMillis;
+}
@@ -0,0 +1,60 @@
+package com.company.student_backend.dto;
+
+import com.company.student_backend.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Kết quả tra cứu theo danh sách mã (GET ...?ids=a,b,c): các bản ghi tìm thấy theo thứ tự mã trong yêu cầu
+ * (mã trùng được gộp) và các mã không tồn tại, thay vì trả 404 cho cả yêu cầu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupResult<T, K> {
+
+    public static final int MAX_IDS = 100;
+
+    private List<T> items;
+    private List<K> missingIds;
+
+    /**
+     * Bỏ mã trùng (giữ thứ tự), 400 nếu vượt quá MAX_IDS, rồi tra cứu tất cả bằng một lần gọi query
+     */
+    public static <T, K> BatchLookupResult<T, K> lookup(Collection<K> ids, Function<Set<K>, List<T>> query,
+                                                        Function<T, K> idOf) {
+        Set<K> distinct = new LinkedHashSet<>(ids);
+        if (distinct.size() > MAX_IDS) {
+            throw new InvalidRequestException("Chỉ được tra cứu tối đa " + MAX_IDS + " mã mỗi lần");
+        }
+        if (distinct.isEmpty()) {
+            return new BatchLookupResult<>(List.of(), List.of());
+        }
+        return of(distinct, query.apply(distinct), idOf);
+    }
+
+    private static <T, K> BatchLookupResult<T, K> of(Set<K> ids, List<T> rows, Function<T, K> idOf) {
+        Map<K, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> items = new ArrayList<>(byId.size());
+        List<K> missingIds = new ArrayList<>();
+        for (K id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                items.add(row);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchLookupResult<>(items, missingIds);
+    }
+}
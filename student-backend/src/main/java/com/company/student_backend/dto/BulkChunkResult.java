@@ -0,0 +1,20 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkChunkResult {
+
+    private int chunk;
+    private int offset;
+    private int size;
+    private int created;
+    private int updated;
+    private int failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,47 @@
+package com.company.student_backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Báo cáo kết quả nhập hàng loạt: tổng hợp số lượng, thông lượng của từng chunk
+ * và trạng thái của từng dòng
+ */
+@Data
+@NoArgsConstructor
+public class BulkImportResult {
+
+    private int total;
+    private int created;
+    private int updated;
+    private int failed;
+    private long elapsedMillis;
+    private List<BulkChunkResult> chunks = new ArrayList<>();
+    private List<BulkRowResult> rows = new ArrayList<>();
+
+    public void addChunk(int offset, List<BulkRowResult> chunkRows, long elapsedNanos) {
+        int chunkCreated = 0;
+        int chunkUpdated = 0;
+        int chunkFailed = 0;
+        for (BulkRowResult row : chunkRows) {
+            switch (row.getStatus()) {
+                case CREATED -> chunkCreated++;
+                case UPDATED -> chunkUpdated++;
+                default -> chunkFailed++;
+            }
+        }
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : chunkRows.size() * 1_000_000_000d / elapsedNanos;
+
+        chunks.add(new BulkChunkResult(chunks.size(), offset, chunkRows.size(),
+                chunkCreated, chunkUpdated, chunkFailed, elapsedMillis, rowsPerSecond));
+        rows.addAll(chunkRows);
+        total += chunkRows.size();
+        created += chunkCreated;
+        updated += chunkUpdated;
+        failed += chunkFailed;
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DUPLICATE,
+        INVALID,
+        NOT_FOUND,
+        FAILED
+    }
+
+    private int index;
+    private String key;
+    private Status status;
+    private String message;
+}
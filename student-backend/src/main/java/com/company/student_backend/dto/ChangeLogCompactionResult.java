@@ -0,0 +1,16 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogCompactionResult {
+
+    private int supersededRemoved;
+    private int tombstonesPurged;
+    private long purgedThrough;
+    private long elapsedMillis;
+}
@@ -0,0 +1,38 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Một trang kết quả phân trang theo keyset.
+ * nextCursor là khoá của phần tử cuối cùng, truyền lại qua tham số "after" để lấy trang kế tiếp.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Build a page from rows fetched with limit + 1, so the extra row only signals hasMore
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,37 @@
+package com.company.student_backend.dto;
+
+import com.company.student_backend.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    // CBOR sequence of GradeColumnsDTO blocks
+    COLUMNAR("application/cbor", "cbor");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Định dạng xuất không hợp lệ: " + value + " (csv, xlsx, columnar)");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDTO {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String id;
+    private ExportFormat format;
+    private Status status;
+    // Rows written so far; final count once COMPLETED
+    private long rows;
+    private long sizeBytes;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String error;
+}
@@ -0,0 +1,77 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Danh sách điểm dạng cột (GET /api/grades?layout=columnar): tên học sinh và tên môn
+ * chỉ gửi một lần trong từ điển, mỗi dòng chỉ còn chỉ số vào từ điển và điểm
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeColumnsDTO {
+
+    private List<String> studentIds;
+    private List<String> studentNames;
+    private List<String> subjectIds;
+    private List<String> subjectNames;
+
+    private long[] ids;
+    private int[] studentIndex;
+    private int[] subjectIndex;
+    // DECIMAL(3,1) scores as tenths (8.5 -> 85), exact and without a BigDecimal per row
+    private int[] scoreTenths;
+
+    public static GradeColumnsDTO of(List<GradeDTO> grades) {
+        Dictionary students = new Dictionary();
+        Dictionary subjects = new Dictionary();
+        int size = grades.size();
+        long[] ids = new long[size];
+        int[] studentIndex = new int[size];
+        int[] subjectIndex = new int[size];
+        int[] scoreTenths = new int[size];
+        for (int i = 0; i < size; i++) {
+            GradeDTO grade = grades.get(i);
+            ids[i] = grade.getId();
+            studentIndex[i] = students.indexOf(grade.getStudentId(), grade.getStudentName());
+            subjectIndex[i] = subjects.indexOf(grade.getSubjectId(), grade.getSubjectName());
+            scoreTenths[i] = grade.getAverageScore().movePointRight(1).intValueExact();
+        }
+        return new GradeColumnsDTO(students.ids, students.names, subjects.ids, subjects.names,
+                ids, studentIndex, subjectIndex, scoreTenths);
+    }
+
+    public List<GradeDTO> toRows() {
+        List<GradeDTO> rows = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            rows.add(new GradeDTO(ids[i],
+                    studentIds.get(studentIndex[i]), subjectIds.get(subjectIndex[i]),
+                    BigDecimal.valueOf(scoreTenths[i], 1),
+                    studentNames.get(studentIndex[i]), subjectNames.get(subjectIndex[i])));
+        }
+        return rows;
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        int indexOf(String id, String name) {
+            return positions.computeIfAbsent(id, key -> {
+                ids.add(id);
+                names.add(name);
+                return ids.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.company.student_backend.dto;
+
+import com.company.student_backend.event.GradeChange;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Một sự kiện thay đổi điểm gửi qua GET /api/grades/stream (SSE)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeEventDTO {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Type type;
+    private Long gradeId;
+    private String studentId;
+    private String subjectId;
+    // null for CREATED
+    private BigDecimal oldScore;
+    // null for DELETED
+    private BigDecimal newScore;
+    private LocalDateTime occurredAt;
+
+    public static GradeEventDTO of(GradeChange change, LocalDateTime occurredAt) {
+        Type type = change.isCreate() ? Type.CREATED : change.isDelete() ? Type.DELETED : Type.UPDATED;
+        return new GradeEventDTO(type, change.gradeId(), change.studentId(), change.subjectId(),
+                change.oldScore(), change.newScore(), occurredAt);
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingEntryDTO {
+
+    private int rank;
+    private String studentId;
+    private String studentName;
+    private BigDecimal score;
+}
@@ -0,0 +1,21 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCardDTO {
+
+    private String studentId;
+    private String studentName;
+    private Integer birthYear;
+    private List<ReportCardEntryDTO> subjects;
+    private int gradeCount;
+    private BigDecimal average;
+}
@@ -0,0 +1,20 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCardEntryDTO {
+
+    private String subjectId;
+    private String subjectName;
+    private BigDecimal averageScore;
+    // Null when the ranking index has not caught up with this grade yet
+    private Integer rank;
+    private Integer total;
+}
@@ -0,0 +1,30 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Phân bố điểm của một nhóm (môn học hoặc khoá theo năm sinh).
+ * histogram[i] là số điểm bằng i / 10, với i từ 0 đến 100
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreDistributionDTO {
+
+    private String group;
+    private long count;
+    private BigDecimal mean;
+    private BigDecimal stdDev;
+    private BigDecimal min;
+    private BigDecimal p25;
+    private BigDecimal median;
+    private BigDecimal p75;
+    private BigDecimal p90;
+    private BigDecimal max;
+    private Double passRate;
+    private long[] histogram;
+}
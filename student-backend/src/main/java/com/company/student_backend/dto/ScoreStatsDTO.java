@@ -0,0 +1,31 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreStatsDTO {
+
+    private long count;
+    private BigDecimal sum;
+    private BigDecimal average;
+    private BigDecimal min;
+    private BigDecimal max;
+
+    /**
+     * Used by JPQL constructor expressions (COUNT, SUM, MIN, MAX)
+     */
+    public ScoreStatsDTO(Long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+        this(count == null ? 0 : count, sum, average(sum, count == null ? 0 : count), min, max);
+    }
+
+    public static BigDecimal average(BigDecimal sum, long count) {
+        return count == 0 || sum == null ? null : sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+    }
+}
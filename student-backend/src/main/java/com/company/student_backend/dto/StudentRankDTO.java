@@ -0,0 +1,20 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentRankDTO {
+
+    private String studentId;
+    private String subjectId;
+    private BigDecimal score;
+    private int rank;
+    private int total;
+    private double percentile;
+}
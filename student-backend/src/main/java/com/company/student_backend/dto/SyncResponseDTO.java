@@ -0,0 +1,32 @@
+package com.company.student_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+
+    // Pass back as ?since= on the next call
+    private long checkpoint;
+    // True: the log no longer covers the client's checkpoint, reload the full lists then resume from checkpoint
+    private boolean fullResync;
+    private boolean hasMore;
+
+    private List<StudentDTO> students;
+    private List<SubjectDTO> subjects;
+    private List<GradeDTO> grades;
+
+    private List<String> deletedStudentIds;
+    private List<String> deletedSubjectIds;
+    private List<Long> deletedGradeIds;
+
+    public static SyncResponseDTO fullResync(long checkpoint) {
+        return new SyncResponseDTO(checkpoint, true, false,
+                List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,30 @@
+package com.company.student_backend.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Một thay đổi điểm: oldScore = null khi tạo mới, newScore = null khi xoá
+ */
+public record GradeChange(Long gradeId, String studentId, String subjectId, BigDecimal oldScore, BigDecimal newScore) {
+
+    public static GradeChange created(Long gradeId, String studentId, String subjectId, BigDecimal score) {
+        return new GradeChange(gradeId, studentId, subjectId, null, score);
+    }
+
+    public static GradeChange updated(Long gradeId, String studentId, String subjectId,
+                                      BigDecimal oldScore, BigDecimal newScore) {
+        return new GradeChange(gradeId, studentId, subjectId, oldScore, newScore);
+    }
+
+    public static GradeChange deleted(Long gradeId, String studentId, String subjectId, BigDecimal score) {
+        return new GradeChange(gradeId, studentId, subjectId, score, null);
+    }
+
+    public boolean isCreate() {
+        return oldScore == null;
+    }
+
+    public boolean isDelete() {
+        return newScore == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.student_backend.event;
+
+import java.util.List;
+
+/**
+ * Được publish bên trong transaction ghi điểm (GradeService, nhập hàng loạt).
+ * Listener đồng bộ chạy trong cùng transaction; dùng @TransactionalEventListener
+ * nếu chỉ cần phản ứng sau khi commit
+ */
+public record GradeChangeEvent(List<GradeChange> changes) {
+
+    public static GradeChangeEvent of(GradeChange change) {
+        return new GradeChangeEvent(List.of(change));
+    }
+}
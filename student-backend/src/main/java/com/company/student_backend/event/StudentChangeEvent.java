@@ -0,0 +1,20 @@
+package com.company.student_backend.event;
+
+import com.company.student_backend.dto.StudentDTO;
+
+import java.util.List;
+
+/**
+ * Được publish bên trong transaction ghi học sinh (StudentService, nhập hàng loạt).
+ * saved gồm cả bản ghi tạo mới và cập nhật
+ */
+public record StudentChangeEvent(List<StudentDTO> saved, List<String> deletedIds) {
+
+    public static StudentChangeEvent saved(StudentDTO student) {
+        return new StudentChangeEvent(List.of(student), List.of());
+    }
+
+    public static StudentChangeEvent deleted(String studentId) {
+        return new StudentChangeEvent(List.of(), List.of(studentId));
+    }
+}
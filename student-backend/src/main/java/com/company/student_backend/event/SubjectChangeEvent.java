@@ -0,0 +1,20 @@
+package com.company.student_backend.event;
+
+import com.company.student_backend.dto.SubjectDTO;
+
+import java.util.List;
+
+/**
+ * Được publish bên trong transaction ghi môn học (SubjectService, nhập hàng loạt).
+ * saved gồm cả bản ghi tạo mới và cập nhật
+ */
+public record SubjectChangeEvent(List<SubjectDTO> saved, List<String> deletedIds) {
+
+    public static SubjectChangeEvent saved(SubjectDTO subject) {
+        return new SubjectChangeEvent(List.of(subject), List.of());
+    }
+
+    public static SubjectChangeEvent deleted(String subjectId) {
+        return new SubjectChangeEvent(List.of(), List.of(subjectId));
+    }
+}
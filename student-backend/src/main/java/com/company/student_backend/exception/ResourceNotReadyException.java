@@ -0,0 +1,7 @@
+package com.company.student_backend.exception;
+
+public class ResourceNotReadyException extends RuntimeException {
+    public ResourceNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.company.student_backend.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.company.student_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Nhật ký thay đổi chỉ ghi thêm, phục vụ đồng bộ delta cho ứng dụng di động.
+ * Ghi trong cùng transaction với thao tác ghi dữ liệu; changed_at lưu theo giờ UTC
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_entity", columnList = "entity_type, entity_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    public enum EntityType {
+        STUDENT, SUBJECT, GRADE
+    }
+
+    public enum Op {
+        UPSERT, DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "entity_type", nullable = false, length = 10)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false, length = 20)
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "op", nullable = false, length = 10)
+    private Op op;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,29 @@
+package com.company.student_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng duy nhất: các bản ghi xoá có seq <= purged_through đã bị dọn khỏi change_log,
+ * client có checkpoint cũ hơn mốc này phải tải lại toàn bộ
+ */
+@Entity
+@Table(name = "change_log_watermark")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogWatermark {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "purged_through", nullable = false)
+    private long purgedThrough;
+
+    @Column(name = "compacted_at")
+    private LocalDateTime compactedAt;
+}
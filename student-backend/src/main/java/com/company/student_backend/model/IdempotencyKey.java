@@ -0,0 +1,39 @@
+package com.company.student_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kết quả đã lưu của một request ghi theo Idempotency-Key (đọc/ghi qua JdbcIdempotencyStore).
+ * status_code null nghĩa là request vẫn đang xử lý; expires_at tính theo UTC
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "idem_key", length = 200)
+    private String key;
+
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
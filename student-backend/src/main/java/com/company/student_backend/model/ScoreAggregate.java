@@ -0,0 +1,35 @@
+package com.company.student_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Thống kê điểm được duy trì tăng dần theo học sinh hoặc môn học,
+ * cập nhật trong cùng transaction với thao tác ghi điểm
+ */
+@Entity
+@Table(name = "score_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreAggregate {
+
+    @EmbeddedId
+    private ScoreAggregateId id;
+
+    @Column(name = "score_sum", nullable = false, precision = 12, scale = 1)
+    private BigDecimal scoreSum;
+
+    @Column(name = "score_count", nullable = false)
+    private long scoreCount;
+
+    @Column(name = "min_score", precision = 3, scale = 1)
+    private BigDecimal minScore;
+
+    @Column(name = "max_score", precision = 3, scale = 1)
+    private BigDecimal maxScore;
+}
@@ -0,0 +1,41 @@
+package com.company.student_backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreAggregateId implements Serializable {
+
+    public enum Scope {
+        STUDENT,
+        SUBJECT
+    }
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "scope", length = 10)
+    private Scope scope;
+
+    @Column(name = "scope_id", length = 10)
+    private String scopeId;
+
+    public static ScoreAggregateId student(String studentId) {
+        return new ScoreAggregateId(Scope.STUDENT, studentId);
+    }
+
+    public static ScoreAggregateId subject(String subjectId) {
+        return new ScoreAggregateId(Scope.SUBJECT, subjectId);
+    }
+}
@@ -1,18 +1,36 @@
 package com.company.student_backend.repository;
 
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.ScoreStatsDTO;
 import com.company.student_backend.model.Grade;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GradeRepository extends JpaRepository<Grade, Long> {
 
+    /**
+     * Projection dùng chung: dựng GradeDTO trực tiếp từ một câu JOIN,
+     * không nạp entity nên không phát sinh truy vấn lazy (N+1) cho student/subject
+     */
+    String SELECT_GRADE_DTO = "SELECT new com.company.student_backend.dto.GradeDTO(" +
+            "g.id, st.studentId, sj.subjectId, g.averageScore, st.studentName, sj.subjectName) " +
+            "FROM Grade g JOIN g.student st JOIN g.subject sj ";
+
     List<Grade> findByStudentStudentId(String studentId);
 
     List<Grade> findBySubjectSubjectId(String subjectId);
@@ -22,9 +40,71 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
     @Query("SELECT g FROM Grade g JOIN FETCH g.student JOIN FETCH g.subject")
     List<Grade> findAllWithStudentAndSubject();
 
+    @Query("SELECT g FROM Grade g JOIN FETCH g.student JOIN FETCH g.subject WHERE g.id = :id")
+    Optional<Grade> findByIdWithStudentAndSubject(@Param("id") Long id);
+
+    /**
+     * Khoá ghi các dòng theo thứ tự ID, để hai lô ghi chồng lên nhau luôn lấy khoá cùng thứ tự
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Grade g WHERE g.id IN :ids ORDER BY g.id")
+    List<Grade> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_GRADE_DTO + "ORDER BY g.id")
+    List<GradeDTO> findAllAsDTO();
+
+    @Query(SELECT_GRADE_DTO + "WHERE g.id = :id")
+    Optional<GradeDTO> findDTOById(@Param("id") Long id);
+
+    @Query(SELECT_GRADE_DTO + "WHERE g.id IN :ids ORDER BY g.id")
+    List<GradeDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Declared queries get no transaction of their own: GradeService.getGradesByStudentId calls this outside one
+    @Transactional(readOnly = true)
+    @Query(SELECT_GRADE_DTO + "WHERE st.studentId = :studentId ORDER BY g.id")
+    List<GradeDTO> findDTOsByStudentId(@Param("studentId") String studentId);
+
+    @Query(SELECT_GRADE_DTO + "WHERE sj.subjectId = :subjectId ORDER BY g.id")
+    List<GradeDTO> findDTOsBySubjectId(@Param("subjectId") String subjectId);
+
+    @Query(SELECT_GRADE_DTO + "WHERE st.studentId IN :studentIds AND sj.subjectId IN :subjectIds")
+    List<GradeDTO> findDTOsByStudentIdsAndSubjectIds(@Param("studentIds") Collection<String> studentIds,
+                                                     @Param("subjectIds") Collection<String> subjectIds);
+
+    @Query(SELECT_GRADE_DTO + "WHERE g.id > :afterId ORDER BY g.id")
+    List<GradeDTO> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(SELECT_GRADE_DTO + "ORDER BY g.id")
+    Stream<GradeDTO> streamAll();
+
     @Query("SELECT g FROM Grade g WHERE g.averageScore >= :minScore")
     List<Grade> findByAverageScoreGreaterThanEqual(@Param("minScore") BigDecimal minScore);
 
+    @Query("SELECT new com.company.student_backend.dto.ScoreStatsDTO(COUNT(g), SUM(g.averageScore), MIN(g.averageScore), MAX(g.averageScore)) " +
+            "FROM Grade g WHERE g.student.studentId = :studentId")
+    ScoreStatsDTO findLiveStatsByStudentId(@Param("studentId") String studentId);
+
+    @Query("SELECT new com.company.student_backend.dto.ScoreStatsDTO(COUNT(g), SUM(g.averageScore), MIN(g.averageScore), MAX(g.averageScore)) " +
+            "FROM Grade g WHERE g.subject.subjectId = :subjectId")
+    ScoreStatsDTO findLiveStatsBySubjectId(@Param("subjectId") String subjectId);
+
+    @Query("SELECT g.subject.subjectId AS groupKey, g.averageScore AS score, COUNT(g) AS total " +
+            "FROM Grade g WHERE g.subject.subjectId = :subjectId GROUP BY g.subject.subjectId, g.averageScore")
+    List<ScoreBucketCount> countScoresBySubjectId(@Param("subjectId") String subjectId);
+
+    @Query("SELECT g.subject.subjectId AS groupKey, g.averageScore AS score, COUNT(g) AS total " +
+            "FROM Grade g GROUP BY g.subject.subjectId, g.averageScore ORDER BY g.subject.subjectId")
+    List<ScoreBucketCount> countScoresBySubject();
+
+    @Query("SELECT CAST(g.student.birthYear AS String) AS groupKey, g.averageScore AS score, COUNT(g) AS total " +
+            "FROM Grade g WHERE g.student.birthYear = :birthYear GROUP BY g.student.birthYear, g.averageScore")
+    List<ScoreBucketCount> countScoresByBirthYear(@Param("birthYear") Integer birthYear);
+
+    @Query("SELECT CAST(g.student.birthYear AS String) AS groupKey, g.averageScore AS score, COUNT(g) AS total " +
+            "FROM Grade g GROUP BY g.student.birthYear, g.averageScore ORDER BY g.student.birthYear")
+    List<ScoreBucketCount> countScoresByCohort();
+
     @Query("SELECT AVG(g.averageScore) FROM Grade g WHERE g.student.studentId = :studentId")
     BigDecimal findAverageScoreByStudentId(@Param("studentId") String studentId);
 
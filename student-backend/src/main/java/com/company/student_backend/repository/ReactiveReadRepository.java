@@ -0,0 +1,103 @@
+package com.company.student_backend.repository;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Truy vấn đọc qua R2DBC, trả về cùng các DTO của đường JPA (cùng cột, cùng thứ tự sắp xếp).
+ * Flux phát từng dòng theo nhu cầu của subscriber nên bộ nhớ không phụ thuộc số dòng
+ */
+@Repository
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveReadRepository {
+
+    private static final String SELECT_GRADE_DTO =
+            "SELECT g.id, g.student_id, g.subject_id, g.average_score, st.student_name, sj.subject_name " +
+            "FROM grades g JOIN students st ON st.student_id = g.student_id " +
+            "JOIN subjects sj ON sj.subject_id = g.subject_id ";
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    public Flux<StudentDTO> findAllStudents() {
+        return reactiveDatabaseClient
+                .sql("SELECT student_id, student_name, birth_year FROM students ORDER BY student_id")
+                .map(ReactiveReadRepository::toStudent)
+                .all();
+    }
+
+    public Mono<StudentDTO> findStudentById(String studentId) {
+        return reactiveDatabaseClient
+                .sql("SELECT student_id, student_name, birth_year FROM students WHERE student_id = :studentId")
+                .bind("studentId", studentId)
+                .map(ReactiveReadRepository::toStudent)
+                .one();
+    }
+
+    public Flux<SubjectDTO> findAllSubjects() {
+        return reactiveDatabaseClient
+                .sql("SELECT subject_id, subject_name FROM subjects ORDER BY subject_id")
+                .map(ReactiveReadRepository::toSubject)
+                .all();
+    }
+
+    public Mono<SubjectDTO> findSubjectById(String subjectId) {
+        return reactiveDatabaseClient
+                .sql("SELECT subject_id, subject_name FROM subjects WHERE subject_id = :subjectId")
+                .bind("subjectId", subjectId)
+                .map(ReactiveReadRepository::toSubject)
+                .one();
+    }
+
+    public Flux<GradeDTO> findAllGrades() {
+        return reactiveDatabaseClient.sql(SELECT_GRADE_DTO + "ORDER BY g.id")
+                .map(ReactiveReadRepository::toGrade)
+                .all();
+    }
+
+    public Mono<GradeDTO> findGradeById(Long id) {
+        return reactiveDatabaseClient.sql(SELECT_GRADE_DTO + "WHERE g.id = :id")
+                .bind("id", id)
+                .map(ReactiveReadRepository::toGrade)
+                .one();
+    }
+
+    public Flux<GradeDTO> findGradesByStudentId(String studentId) {
+        return reactiveDatabaseClient.sql(SELECT_GRADE_DTO + "WHERE g.student_id = :studentId ORDER BY g.id")
+                .bind("studentId", studentId)
+                .map(ReactiveReadRepository::toGrade)
+                .all();
+    }
+
+    public Flux<GradeDTO> findGradesBySubjectId(String subjectId) {
+        return reactiveDatabaseClient.sql(SELECT_GRADE_DTO + "WHERE g.subject_id = :subjectId ORDER BY g.id")
+                .bind("subjectId", subjectId)
+                .map(ReactiveReadRepository::toGrade)
+                .all();
+    }
+
+    private static StudentDTO toStudent(Readable row) {
+        return new StudentDTO(row.get("student_id", String.class), row.get("student_name", String.class),
+                row.get("birth_year", Integer.class));
+    }
+
+    private static SubjectDTO toSubject(Readable row) {
+        return new SubjectDTO(row.get("subject_id", String.class), row.get("subject_name", String.class));
+    }
+
+    private static GradeDTO toGrade(Readable row) {
+        return new GradeDTO(row.get("id", Long.class), row.get("student_id", String.class),
+                row.get("subject_id", String.class), row.get("average_score", BigDecimal.class),
+                row.get("student_name", String.class), row.get("subject_name", String.class));
+    }
+}
@@ -0,0 +1,10 @@
+package com.company.student_backend.repository;
+
+import com.company.student_backend.model.ScoreAggregate;
+import com.company.student_backend.model.ScoreAggregateId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScoreAggregateRepository extends JpaRepository<ScoreAggregate, ScoreAggregateId> {
+}
@@ -0,0 +1,15 @@
+package com.company.student_backend.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection cho truy vấn đếm số điểm theo từng mức điểm (GROUP BY nhóm, điểm)
+ */
+public interface ScoreBucketCount {
+
+    String getGroupKey();
+
+    BigDecimal getScore();
+
+    Long getTotal();
+}
@@ -1,13 +1,20 @@
 package com.company.student_backend.repository;
 
+import com.company.student_backend.dto.StudentDTO;
 import com.company.student_backend.model.Student;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, String> {
@@ -19,8 +26,31 @@ public interface StudentRepository extends JpaRepository<Student, String> {
     @Query("SELECT s FROM Student s LEFT JOIN FETCH s.grades g LEFT JOIN FETCH g.subject WHERE s.studentId = :studentId")
     Optional<Student> findByIdWithGrades(@Param("studentId") String studentId);
 
+    @Query("SELECT DISTINCT s FROM Student s LEFT JOIN FETCH s.grades g LEFT JOIN FETCH g.subject WHERE s.studentId IN :studentIds")
+    List<Student> findAllByIdWithGrades(@Param("studentIds") Collection<String> studentIds);
+
     @Query("SELECT s FROM Student s WHERE s.birthYear BETWEEN :startYear AND :endYear")
     List<Student> findByBirthYearBetween(@Param("startYear") Integer startYear, @Param("endYear") Integer endYear);
 
+    @Query("SELECT new com.company.student_backend.dto.StudentDTO(s.studentId, s.studentName, s.birthYear) " +
+            "FROM Student s WHERE s.studentId > :after ORDER BY s.studentId")
+    List<StudentDTO> findPageAfter(@Param("after") String after, Limit limit);
+
+    @Query("SELECT new com.company.student_backend.dto.StudentDTO(s.studentId, s.studentName, s.birthYear) " +
+            "FROM Student s WHERE s.studentId = :studentId")
+    Optional<StudentDTO> findDTOById(@Param("studentId") String studentId);
+
+    @Query("SELECT new com.company.student_backend.dto.StudentDTO(s.studentId, s.studentName, s.birthYear) " +
+            "FROM Student s WHERE s.studentId IN :studentIds ORDER BY s.studentId")
+    List<StudentDTO> findDTOsByIdIn(@Param("studentIds") Collection<String> studentIds);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT new com.company.student_backend.dto.StudentDTO(s.studentId, s.studentName, s.birthYear) " +
+            "FROM Student s ORDER BY s.studentId")
+    Stream<StudentDTO> streamAll();
+
+    @Query("SELECT s.studentId FROM Student s WHERE s.studentId IN :studentIds")
+    Set<String> findExistingIds(@Param("studentIds") Collection<String> studentIds);
+
     boolean existsByStudentId(String studentId);
 }
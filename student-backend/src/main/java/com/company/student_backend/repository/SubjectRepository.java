@@ -1,15 +1,45 @@
 package com.company.student_backend.repository;
 
+import com.company.student_backend.dto.SubjectDTO;
 import com.company.student_backend.model.Subject;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface SubjectRepository extends JpaRepository<Subject, String> {
 
     List<Subject> findBySubjectNameContainingIgnoreCase(String name);
 
+    @Query("SELECT new com.company.student_backend.dto.SubjectDTO(s.subjectId, s.subjectName) " +
+            "FROM Subject s WHERE s.subjectId > :after ORDER BY s.subjectId")
+    List<SubjectDTO> findPageAfter(@Param("after") String after, Limit limit);
+
+    @Query("SELECT new com.company.student_backend.dto.SubjectDTO(s.subjectId, s.subjectName) " +
+            "FROM Subject s WHERE s.subjectId = :subjectId")
+    Optional<SubjectDTO> findDTOById(@Param("subjectId") String subjectId);
+
+    @Query("SELECT new com.company.student_backend.dto.SubjectDTO(s.subjectId, s.subjectName) " +
+            "FROM Subject s WHERE s.subjectId IN :subjectIds ORDER BY s.subjectId")
+    List<SubjectDTO> findDTOsByIdIn(@Param("subjectIds") Collection<String> subjectIds);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT new com.company.student_backend.dto.SubjectDTO(s.subjectId, s.subjectName) " +
+            "FROM Subject s ORDER BY s.subjectId")
+    Stream<SubjectDTO> streamAll();
+
+    @Query("SELECT s.subjectId FROM Subject s WHERE s.subjectId IN :subjectIds")
+    Set<String> findExistingIds(@Param("subjectIds") Collection<String> subjectIds);
+
     boolean existsBySubjectId(String subjectId);
 }
@@ -0,0 +1,102 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.ScoreDistributionDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.ScoreBucketCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thống kê phân bố điểm theo môn học và theo khoá (năm sinh).
+ * Điểm chỉ có 101 mức nên database đếm theo (nhóm, điểm) trong một lần quét,
+ * còn trung bình, độ lệch chuẩn, phân vị và tỉ lệ đạt được tính từ bộ đếm
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsService {
+
+    private final GradeRepository gradeRepository;
+    private final ValidationService validationService;
+    private final CacheManager cacheManager;
+
+    @Value("${app.analytics.pass-score:5.0}")
+    private BigDecimal passScore;
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SUBJECT_ANALYTICS, key = "#subjectId", sync = true)
+    public ScoreDistributionDTO getSubjectDistribution(String subjectId) {
+        log.debug("Computing score distribution for subject ID: {}", subjectId);
+        validationService.validateAndGetSubject(subjectId);
+        return distribution(subjectId, gradeRepository.countScoresBySubjectId(subjectId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScoreDistributionDTO> getAllSubjectDistributions() {
+        log.debug("Computing score distributions for all subjects");
+        return distributions(gradeRepository.countScoresBySubject());
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.COHORT_ANALYTICS, key = "#birthYear", sync = true)
+    public ScoreDistributionDTO getCohortDistribution(Integer birthYear) {
+        log.debug("Computing score distribution for birth year: {}", birthYear);
+        return distribution(String.valueOf(birthYear), gradeRepository.countScoresByBirthYear(birthYear));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScoreDistributionDTO> getAllCohortDistributions() {
+        log.debug("Computing score distributions for all cohorts");
+        return distributions(gradeRepository.countScoresByCohort());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGradeChange(GradeChangeEvent event) {
+        // Already after commit: evictIfPresent/invalidate act immediately on the transaction-aware cache
+        Cache subjects = cacheManager.getCache(CacheConfig.SUBJECT_ANALYTICS);
+        event.changes().stream()
+                .map(GradeChange::subjectId)
+                .distinct()
+                .forEach(subjects::evictIfPresent);
+        cacheManager.getCache(CacheConfig.COHORT_ANALYTICS).invalidate();
+    }
+
+    private ScoreDistributionDTO distribution(String group, List<ScoreBucketCount> buckets) {
+        ScoreHistogram histogram = new ScoreHistogram();
+        buckets.forEach(bucket -> histogram.add(bucket.getScore(), bucket.getTotal()));
+        return histogram.toDistribution(group, passTenths());
+    }
+
+    private List<ScoreDistributionDTO> distributions(List<ScoreBucketCount> buckets) {
+        Map<String, ScoreHistogram> histograms = new LinkedHashMap<>();
+        buckets.forEach(bucket -> histograms.computeIfAbsent(bucket.getGroupKey(), key -> new ScoreHistogram())
+                .add(bucket.getScore(), bucket.getTotal()));
+
+        int passTenths = passTenths();
+        List<ScoreDistributionDTO> result = new ArrayList<>(histograms.size());
+        histograms.forEach((group, histogram) -> result.add(histogram.toDistribution(group, passTenths)));
+        return result;
+    }
+
+    private int passTenths() {
+        // Scores are stored with one decimal: 4.95 means 5.0, not 4.9
+        return passScore.setScale(1, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+}
@@ -0,0 +1,406 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.BulkImportResult;
+import com.company.student_backend.dto.BulkRowResult;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.event.StudentChangeEvent;
+import com.company.student_backend.event.SubjectChangeEvent;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Nhập dữ liệu hàng loạt theo từng chunk, mỗi chunk một transaction.
+ * Kiểm tra tồn tại bằng vài truy vấn IN (...) cho cả chunk và ghi bằng JDBC batch,
+ * thay vì lặp lại luồng create từng bản ghi (nhiều round trip cho mỗi dòng)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkImportService {
+
+    private static final String INSERT_GRADE_SQL =
+            "INSERT INTO grades (student_id, subject_id, average_score) VALUES (?, ?, ?)";
+    private static final String UPDATE_GRADE_SQL =
+            "UPDATE grades SET average_score = ? WHERE student_id = ? AND subject_id = ?";
+    private static final String INSERT_STUDENT_SQL =
+            "INSERT INTO students (student_id, student_name, birth_year) VALUES (?, ?, ?)";
+    private static final String UPDATE_STUDENT_SQL =
+            "UPDATE students SET student_name = ?, birth_year = ? WHERE student_id = ?";
+    private static final String INSERT_SUBJECT_SQL =
+            "INSERT INTO subjects (subject_id, subject_name) VALUES (?, ?)";
+    private static final String UPDATE_SUBJECT_SQL =
+            "UPDATE subjects SET subject_name = ? WHERE subject_id = ?";
+
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final GradeRepository gradeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GradeWriteBehindService gradeWriteBehindService;
+
+    @Value("${app.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    public BulkImportResult importGrades(Iterator<GradeDTO> rows, boolean upsert) {
+        log.debug("Importing grades in chunks of {} (upsert: {})", chunkSize, upsert);
+        return importInChunks("grades", rows, (chunk, offset) -> importGradeChunk(chunk, offset, upsert));
+    }
+
+    @CacheEvict(cacheNames = {CacheConfig.STUDENTS, CacheConfig.STUDENT_EXISTS, CacheConfig.COHORT_ANALYTICS,
+            CacheConfig.SUBJECT_GRADES}, allEntries = true)
+    public BulkImportResult importStudents(Iterator<StudentDTO> rows, boolean upsert) {
+        log.debug("Importing students in chunks of {} (upsert: {})", chunkSize, upsert);
+        return importInChunks("students", rows, (chunk, offset) -> importKeyedChunk(chunk, offset, upsert,
+                StudentDTO::getStudentId, studentRepository::findExistingIds,
+                INSERT_STUDENT_SQL, (ps, dto) -> {
+                    ps.setString(1, dto.getStudentId());
+                    ps.setString(2, dto.getStudentName());
+                    ps.setInt(3, dto.getBirthYear());
+                },
+                UPDATE_STUDENT_SQL, (ps, dto) -> {
+                    ps.setString(1, dto.getStudentName());
+                    ps.setInt(2, dto.getBirthYear());
+                    ps.setString(3, dto.getStudentId());
+                },
+                "Mã học sinh đã tồn tại: ", saved -> new StudentChangeEvent(saved, List.of())));
+    }
+
+    @CacheEvict(cacheNames = {CacheConfig.SUBJECTS, CacheConfig.SUBJECT_EXISTS, CacheConfig.SUBJECT_LIST,
+            CacheConfig.SUBJECT_GRADES}, allEntries = true)
+    public BulkImportResult importSubjects(Iterator<SubjectDTO> rows, boolean upsert) {
+        log.debug("Importing subjects in chunks of {} (upsert: {})", chunkSize, upsert);
+        return importInChunks("subjects", rows, (chunk, offset) -> importKeyedChunk(chunk, offset, upsert,
+                SubjectDTO::getSubjectId, subjectRepository::findExistingIds,
+                INSERT_SUBJECT_SQL, (ps, dto) -> {
+                    ps.setString(1, dto.getSubjectId());
+                    ps.setString(2, dto.getSubjectName());
+                },
+                UPDATE_SUBJECT_SQL, (ps, dto) -> {
+                    ps.setString(1, dto.getSubjectName());
+                    ps.setString(2, dto.getSubjectId());
+                },
+                "Mã môn học đã tồn tại: ", saved -> new SubjectChangeEvent(saved, List.of())));
+    }
+
+    public static GradeDTO gradeFromCsv(String[] columns) {
+        GradeDTO dto = new GradeDTO();
+        dto.setStudentId(column(columns, 0));
+        dto.setSubjectId(column(columns, 1));
+        dto.setAverageScore(decimalColumn(columns, 2));
+        return dto;
+    }
+
+    public static StudentDTO studentFromCsv(String[] columns) {
+        return new StudentDTO(column(columns, 0), column(columns, 1), integerColumn(columns, 2));
+    }
+
+    public static SubjectDTO subjectFromCsv(String[] columns) {
+        return new SubjectDTO(column(columns, 0), column(columns, 1));
+    }
+
+    /**
+     * Publish the chunk's changes inside its transaction, reading back the generated ids of inserted rows
+     */
+    private void publishGradeChanges(List<GradeDTO> chunk, List<Integer> inserts, List<Integer> updates,
+                                     Map<String, GradeDTO> before) {
+        List<GradeChange> changes = new ArrayList<>(inserts.size() + updates.size());
+        if (!inserts.isEmpty()) {
+            Map<String, GradeDTO> inserted = findGradesByKey(
+                    collectIds(inserts.stream().map(chunk::get).toList(), GradeDTO::getStudentId),
+                    collectIds(inserts.stream().map(chunk::get).toList(), GradeDTO::getSubjectId));
+            for (int i : inserts) {
+                GradeDTO dto = chunk.get(i);
+                GradeDTO saved = inserted.get(gradeKey(dto.getStudentId(), dto.getSubjectId()));
+                changes.add(GradeChange.created(saved.getId(), dto.getStudentId(), dto.getSubjectId(), dto.getAverageScore()));
+            }
+        }
+        for (int i : updates) {
+            GradeDTO dto = chunk.get(i);
+            GradeDTO old = before.get(gradeKey(dto.getStudentId(), dto.getSubjectId()));
+            changes.add(GradeChange.updated(old.getId(), dto.getStudentId(), dto.getSubjectId(),
+                    old.getAverageScore(), dto.getAverageScore()));
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new GradeChangeEvent(changes));
+        }
+    }
+
+    private Map<String, GradeDTO> findGradesByKey(Set<String> studentIds, Set<String> subjectIds) {
+        if (studentIds.isEmpty() || subjectIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return gradeRepository.findDTOsByStudentIdsAndSubjectIds(studentIds, subjectIds).stream()
+                .collect(Collectors.toMap(grade -> gradeKey(grade.getStudentId(), grade.getSubjectId()), grade -> grade));
+    }
+
+    private <T> BulkImportResult importInChunks(String label, Iterator<T> rows,
+                                                BiFunction<List<T>, Integer, List<BulkRowResult>> importer) {
+        long start = System.nanoTime();
+        BulkImportResult result = new BulkImportResult();
+
+        int offset = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        Map<Integer, String> unreadable = new HashMap<>();
+        while (rows.hasNext()) {
+            try {
+                chunk.add(rows.next());
+            } catch (BulkRowReader.UnreadableRowException e) {
+                // Kept as an empty row so it is reported as INVALID with the reader's message
+                unreadable.put(chunk.size(), e.getMessage());
+                chunk.add(null);
+            }
+            if (chunk.size() == chunkSize || !rows.hasNext()) {
+                long chunkStart = System.nanoTime();
+                List<BulkRowResult> chunkRows = importer.apply(chunk, offset);
+                unreadable.forEach((i, message) -> chunkRows.get(i).setMessage(message));
+                result.addChunk(offset, chunkRows, System.nanoTime() - chunkStart);
+                offset += chunk.size();
+                chunk.clear();
+                unreadable.clear();
+            }
+        }
+
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {}: {} created, {} updated, {} failed in {} chunks, {} ms",
+                label, result.getCreated(), result.getUpdated(), result.getFailed(),
+                result.getChunks().size(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Chunk cho các bảng có khoá tự gán (students, subjects): một truy vấn IN (...) lấy các khoá đã có,
+     * sau đó INSERT/UPDATE bằng JDBC batch, không qua merge() nên không có SELECT trước mỗi bản ghi
+     */
+    private <T> List<BulkRowResult> importKeyedChunk(List<T> chunk, int offset, boolean upsert,
+                                                     Function<T, String> idOf,
+                                                     Function<Set<String>, Set<String>> existingIdsOf,
+                                                     String insertSql, ParameterizedPreparedStatementSetter<T> insertSetter,
+                                                     String updateSql, ParameterizedPreparedStatementSetter<T> updateSetter,
+                                                     String duplicateMessage,
+                                                     Function<List<T>, Object> changeEventOf) {
+        BulkRowResult[] results = new BulkRowResult[chunk.size()];
+        List<Integer> inserts = new ArrayList<>();
+        List<Integer> updates = new ArrayList<>();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> ids = collectIds(chunk, idOf);
+                Set<String> existingIds = ids.isEmpty() ? Collections.emptySet() : existingIdsOf.apply(ids);
+
+                Set<String> seen = new HashSet<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    T dto = chunk.get(i);
+                    int index = offset + i;
+                    String key = dto == null ? null : idOf.apply(dto);
+                    String invalid = validate(dto);
+                    if (invalid != null) {
+                        results[i] = row(index, key, BulkRowResult.Status.INVALID, invalid);
+                    } else if (!seen.add(key)) {
+                        results[i] = row(index, key, BulkRowResult.Status.DUPLICATE, "Mã bị lặp lại trong dữ liệu nhập");
+                    } else if (existingIds.contains(key)) {
+                        if (upsert) {
+                            updates.add(i);
+                            results[i] = row(index, key, BulkRowResult.Status.UPDATED, null);
+                        } else {
+                            results[i] = row(index, key, BulkRowResult.Status.DUPLICATE, duplicateMessage + key);
+                        }
+                    } else {
+                        inserts.add(i);
+                        results[i] = row(index, key, BulkRowResult.Status.CREATED, null);
+                    }
+                }
+
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(insertSql, inserts, inserts.size(),
+                            (ps, i) -> insertSetter.setValues(ps, chunk.get(i)));
+                }
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(updateSql, updates, updates.size(),
+                            (ps, i) -> updateSetter.setValues(ps, chunk.get(i)));
+                }
+                if (!inserts.isEmpty() || !updates.isEmpty()) {
+                    List<T> saved = Stream.concat(inserts.stream(), updates.stream()).map(chunk::get).toList();
+                    eventPublisher.publishEvent(changeEventOf.apply(saved));
+                }
+            });
+        } catch (DataAccessException e) {
+            log.error("Import chunk starting at row {} failed: {}", offset, e.getMessage());
+            markFailed(results, inserts, e);
+            markFailed(results, updates, e);
+        }
+        return List.of(results);
+    }
+
+    private List<BulkRowResult> importGradeChunk(List<GradeDTO> chunk, int offset, boolean upsert) {
+        BulkRowResult[] results = new BulkRowResult[chunk.size()];
+        List<Integer> inserts = new ArrayList<>();
+        List<Integer> updates = new ArrayList<>();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> studentIds = collectIds(chunk, GradeDTO::getStudentId);
+                Set<String> subjectIds = collectIds(chunk, GradeDTO::getSubjectId);
+                Set<String> existingStudents = studentIds.isEmpty()
+                        ? Collections.emptySet() : studentRepository.findExistingIds(studentIds);
+                Set<String> existingSubjects = subjectIds.isEmpty()
+                        ? Collections.emptySet() : subjectRepository.findExistingIds(subjectIds);
+                Map<String, GradeDTO> existingPairs = findGradesByKey(existingStudents, existingSubjects);
+
+                Set<String> seen = new HashSet<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    GradeDTO dto = chunk.get(i);
+                    int index = offset + i;
+                    String invalid = validate(dto);
+                    if (invalid != null) {
+                        results[i] = row(index, dto == null ? null : gradeKey(dto.getStudentId(), dto.getSubjectId()),
+                                BulkRowResult.Status.INVALID, invalid);
+                        continue;
+                    }
+
+                    String key = gradeKey(dto.getStudentId(), dto.getSubjectId());
+                    if (!existingStudents.contains(dto.getStudentId())) {
+                        results[i] = row(index, key, BulkRowResult.Status.NOT_FOUND,
+                                "Không tìm thấy học sinh với mã: " + dto.getStudentId());
+                    } else if (!existingSubjects.contains(dto.getSubjectId())) {
+                        results[i] = row(index, key, BulkRowResult.Status.NOT_FOUND,
+                                "Không tìm thấy môn học với mã: " + dto.getSubjectId());
+                    } else if (!seen.add(key)) {
+                        results[i] = row(index, key, BulkRowResult.Status.DUPLICATE,
+                                "Điểm bị lặp lại trong dữ liệu nhập");
+                    } else if (existingPairs.containsKey(key)) {
+                        if (upsert) {
+                            updates.add(i);
+                            results[i] = row(index, key, BulkRowResult.Status.UPDATED, null);
+                        } else {
+                            results[i] = row(index, key, BulkRowResult.Status.DUPLICATE,
+                                    "Điểm đã tồn tại cho học sinh " + dto.getStudentId() + " và môn học " + dto.getSubjectId());
+                        }
+                    } else {
+                        inserts.add(i);
+                        results[i] = row(index, key, BulkRowResult.Status.CREATED, null);
+                    }
+                }
+
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_GRADE_SQL, inserts, inserts.size(), (ps, i) -> {
+                        GradeDTO dto = chunk.get(i);
+                        ps.setString(1, dto.getStudentId());
+                        ps.setString(2, dto.getSubjectId());
+                        ps.setBigDecimal(3, dto.getAverageScore());
+                    });
+                }
+                if (!updates.isEmpty()) {
+                    // Otherwise a buffered PUT for the same grade would be flushed over the imported score
+                    gradeWriteBehindService.discardPending(updates.stream().map(chunk::get).toList());
+                    jdbcTemplate.batchUpdate(UPDATE_GRADE_SQL, updates, updates.size(), (ps, i) -> {
+                        GradeDTO dto = chunk.get(i);
+                        ps.setBigDecimal(1, dto.getAverageScore());
+                        ps.setString(2, dto.getStudentId());
+                        ps.setString(3, dto.getSubjectId());
+                    });
+                }
+                publishGradeChanges(chunk, inserts, updates, existingPairs);
+            });
+        } catch (DataAccessException e) {
+            log.error("Grade import chunk starting at row {} failed: {}", offset, e.getMessage());
+            markFailed(results, inserts, e);
+            markFailed(results, updates, e);
+        }
+        return List.of(results);
+    }
+
+    private String validate(Object dto) {
+        if (dto == null) {
+            return "Dòng dữ liệu trống";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static void markFailed(BulkRowResult[] results, List<Integer> positions, DataAccessException e) {
+        for (int i : positions) {
+            results[i].setStatus(BulkRowResult.Status.FAILED);
+            results[i].setMessage("Không thể ghi dữ liệu: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static <T> Set<String> collectIds(List<T> chunk, Function<T, String> idOf) {
+        return chunk.stream()
+                .filter(Objects::nonNull)
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static BulkRowResult row(int index, String key, BulkRowResult.Status status, String message) {
+        return new BulkRowResult(index, key, status, message);
+    }
+
+    private static String gradeKey(String studentId, String subjectId) {
+        return studentId + "/" + subjectId;
+    }
+
+    private static String column(String[] columns, int index) {
+        return index < columns.length && !columns[index].isEmpty() ? columns[index] : null;
+    }
+
+    private static Integer integerColumn(String[] columns, int index) {
+        String value = column(columns, index);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal decimalColumn(String[] columns, int index) {
+        String value = column(columns, index);
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            // Giá trị không phải số được coi như bỏ trống, dòng sẽ bị đánh dấu INVALID
+            return null;
+        }
+    }
+}
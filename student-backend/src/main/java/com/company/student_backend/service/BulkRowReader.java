@@ -0,0 +1,176 @@
+package com.company.student_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đọc dữ liệu nhập hàng loạt (mảng JSON hoặc CSV) thành từng phần tử một,
+ * để service xử lý theo chunk mà không phải giữ toàn bộ request body trong bộ nhớ
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkRowReader {
+
+    private static final CsvMapper CSV = CsvMapper.builder()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Dòng không đọc được (sai kiểu dữ liệu, JSON hỏng), ném ra từ next() của iterator; phần tử sau vẫn đọc tiếp được
+     * trừ khi body hỏng cú pháp. BulkImportService báo dòng này là INVALID thay vì dừng cả lần nhập
+     */
+    public static class UnreadableRowException extends RuntimeException {
+
+        public UnreadableRowException(String message) {
+            super(message);
+        }
+    }
+
+    public <T> Iterator<T> readJson(InputStream body, Class<T> type) throws IOException {
+        MappingIterator<T> values = objectMapper.readerFor(type).readValues(body);
+        return new Iterator<>() {
+            // Set when the body itself is malformed: reported as one last unreadable row
+            private String broken;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (done) {
+                    return false;
+                }
+                if (broken != null) {
+                    return true;
+                }
+                try {
+                    // Skips the rest of an element that failed to map
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    broken = syntaxMessage(e);
+                    return true;
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (broken != null) {
+                    done = true;
+                    throw new UnreadableRowException(broken);
+                }
+                try {
+                    return values.nextValue();
+                } catch (JsonMappingException e) {
+                    throw new UnreadableRowException(mappingMessage(e));
+                } catch (IOException e) {
+                    done = true;
+                    throw new UnreadableRowException(syntaxMessage(e));
+                }
+            }
+        };
+    }
+
+    /**
+     * CSV theo RFC 4180: trường có dấu phẩy, dấu ngoặc kép ("") hoặc xuống dòng phải đặt trong ngoặc kép.
+     * Dòng đầu tiên được bỏ qua nếu là tiêu đề (cột đầu trùng với headerFirstColumn), các dòng trống bị bỏ qua.
+     * CSV hỏng cú pháp (ngoặc kép không đóng) được báo là một dòng không đọc được cuối cùng
+     */
+    public <T> Iterator<T> readCsv(InputStream body, String headerFirstColumn, Function<String[], T> mapper) {
+        MappingIterator<String[]> rows;
+        try {
+            rows = CSV.readerFor(String[].class).readValues(new InputStreamReader(body, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Iterator<>() {
+            private String[] next;
+            // Set when the body is malformed: reported as one last unreadable row, the parser cannot resync
+            private String broken;
+            private boolean done;
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                if (done) {
+                    return false;
+                }
+                if (next != null || broken != null) {
+                    return true;
+                }
+                try {
+                    while (rows.hasNextValue()) {
+                        String[] columns = rows.nextValue();
+                        boolean header = first && columns.length > 0 && columns[0].equalsIgnoreCase(headerFirstColumn);
+                        first = false;
+                        if (!header && !isBlank(columns)) {
+                            next = columns;
+                            return true;
+                        }
+                    }
+                    done = true;
+                    return false;
+                } catch (IOException e) {
+                    broken = "Dữ liệu CSV không hợp lệ: "
+                            + (e instanceof JsonProcessingException processing ? processing.getOriginalMessage() : e.getMessage());
+                    return true;
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (broken != null) {
+                    done = true;
+                    throw new UnreadableRowException(broken);
+                }
+                String[] columns = next;
+                next = null;
+                return mapper.apply(columns);
+            }
+        };
+    }
+
+    private static boolean isBlank(String[] columns) {
+        for (String column : columns) {
+            if (!column.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String syntaxMessage(IOException e) {
+        String detail = e instanceof JsonProcessingException processing ? processing.getOriginalMessage() : e.getMessage();
+        return "Dữ liệu JSON không hợp lệ: " + detail;
+    }
+
+    private static String mappingMessage(JsonMappingException e) {
+        String field = e.getPath().stream()
+                .map(reference -> reference.getFieldName() != null ? reference.getFieldName() : "[" + reference.getIndex() + "]")
+                .collect(Collectors.joining("."));
+        return field.isEmpty() ? "Dòng dữ liệu không đọc được" : "Giá trị không hợp lệ ở trường " + field;
+    }
+}
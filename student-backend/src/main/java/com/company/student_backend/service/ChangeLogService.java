@@ -0,0 +1,172 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.ChangeLogCompactionResult;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.event.StudentChangeEvent;
+import com.company.student_backend.event.SubjectChangeEvent;
+import com.company.student_backend.model.ChangeLogEntry;
+import com.company.student_backend.model.ChangeLogEntry.EntityType;
+import com.company.student_backend.model.ChangeLogEntry.Op;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ghi change_log từ các sự kiện thay đổi và dọn gọn nhật ký định kỳ.
+ * Dùng JdbcTemplate để ghi theo lô (seq là AUTO_INCREMENT nên JPA không batch được)
+ * và để changed_at được ghi/đọc cùng một cách, không phụ thuộc múi giờ của Hibernate
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLogService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO change_log (entity_type, entity_id, op, changed_at) VALUES (?, ?, ?, ?)";
+
+    private static final String PAGE_SQL =
+            "SELECT seq, entity_type, entity_id, op, changed_at FROM change_log " +
+            "WHERE seq > ? AND changed_at <= ? ORDER BY seq LIMIT ?";
+
+    // Derived table so MySQL accepts a subquery over the table being deleted from
+    private static final String DELETE_SUPERSEDED_SQL =
+            "DELETE FROM change_log WHERE seq IN (SELECT seq FROM (" +
+            "SELECT o.seq FROM change_log o JOIN change_log n " +
+            "ON n.entity_type = o.entity_type AND n.entity_id = o.entity_id AND n.seq > o.seq) superseded)";
+
+    private static final int WATERMARK_ID = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
+    /**
+     * BEFORE_COMMIT: seq được cấp sát thời điểm commit, thu hẹp khoảng một transaction
+     * nhận seq nhỏ hơn nhưng commit sau transaction khác
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStudentChange(StudentChangeEvent event) {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime now = now();
+        for (StudentDTO student : event.saved()) {
+            rows.add(row(EntityType.STUDENT, student.getStudentId(), Op.UPSERT, now));
+        }
+        for (String studentId : event.deletedIds()) {
+            rows.add(row(EntityType.STUDENT, studentId, Op.DELETE, now));
+        }
+        insert(rows);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onSubjectChange(SubjectChangeEvent event) {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime now = now();
+        for (SubjectDTO subject : event.saved()) {
+            rows.add(row(EntityType.SUBJECT, subject.getSubjectId(), Op.UPSERT, now));
+        }
+        for (String subjectId : event.deletedIds()) {
+            rows.add(row(EntityType.SUBJECT, subjectId, Op.DELETE, now));
+        }
+        insert(rows);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onGradeChange(GradeChangeEvent event) {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime now = now();
+        for (GradeChange change : event.changes()) {
+            rows.add(row(EntityType.GRADE, String.valueOf(change.gradeId()),
+                    change.isDelete() ? Op.DELETE : Op.UPSERT, now));
+        }
+        insert(rows);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ChangeLogEntry> findAfter(long since, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(PAGE_SQL, (rs, rowNum) -> new ChangeLogEntry(
+                rs.getLong("seq"),
+                EntityType.valueOf(rs.getString("entity_type")),
+                rs.getString("entity_id"),
+                Op.valueOf(rs.getString("op")),
+                rs.getObject("changed_at", LocalDateTime.class)
+        ), since, cutoff, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public long latestSeq(LocalDateTime cutoff) {
+        Long seq = jdbcTemplate.queryForObject(
+                "SELECT MAX(seq) FROM change_log WHERE changed_at <= ?", Long.class, cutoff);
+        return seq == null ? 0 : seq;
+    }
+
+    @Transactional(readOnly = true)
+    public long purgedThrough() {
+        List<Long> watermark = jdbcTemplate.queryForList(
+                "SELECT purged_through FROM change_log_watermark WHERE id = ?", Long.class, WATERMARK_ID);
+        return watermark.isEmpty() ? 0 : watermark.get(0);
+    }
+
+    /**
+     * Bỏ các bản ghi đã có bản ghi mới hơn cho cùng thực thể (client chỉ cần trạng thái cuối),
+     * và dọn bản ghi xoá quá hạn giữ lại, nâng mốc purged_through tương ứng
+     */
+    @Scheduled(fixedDelayString = "${app.sync.compaction-interval:1h}",
+            initialDelayString = "${app.sync.compaction-interval:1h}")
+    @Transactional
+    public ChangeLogCompactionResult compact() {
+        long start = System.nanoTime();
+        int superseded = jdbcTemplate.update(DELETE_SUPERSEDED_SQL);
+
+        long purgedThrough = purgedThrough();
+        int tombstones = 0;
+        Long newestExpired = jdbcTemplate.queryForObject(
+                "SELECT MAX(seq) FROM change_log WHERE op = ? AND changed_at < ?",
+                Long.class, Op.DELETE.name(), now().minus(tombstoneRetention));
+        if (newestExpired != null) {
+            tombstones = jdbcTemplate.update(
+                    "DELETE FROM change_log WHERE op = ? AND seq <= ?", Op.DELETE.name(), newestExpired);
+            purgedThrough = Math.max(purgedThrough, newestExpired);
+        }
+        if (jdbcTemplate.update("UPDATE change_log_watermark SET purged_through = ?, compacted_at = ? WHERE id = ?",
+                purgedThrough, now(), WATERMARK_ID) == 0) {
+            jdbcTemplate.update("INSERT INTO change_log_watermark (id, purged_through, compacted_at) VALUES (?, ?, ?)",
+                    WATERMARK_ID, purgedThrough, now());
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Compacted change log: {} superseded entries, {} tombstones removed, purged through seq {} in {} ms",
+                superseded, tombstones, purgedThrough, elapsedMillis);
+        return new ChangeLogCompactionResult(superseded, tombstones, purgedThrough, elapsedMillis);
+    }
+
+    static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    private static Object[] row(EntityType type, String id, Op op, LocalDateTime changedAt) {
+        return new Object[]{type.name(), id, op.name(), changedAt};
+    }
+}
@@ -0,0 +1,51 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeColumnsDTO;
+import com.company.student_backend.dto.GradeDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuỗi CBOR gồm các khối GradeColumnsDTO (mỗi khối có từ điển tên riêng);
+ * đọc lại bằng ObjectMapper.readerFor(GradeColumnsDTO.class).readValues(...)
+ */
+class ColumnarGradeExportWriter implements GradeExportWriter {
+
+    static final int BLOCK_ROWS = 8192;
+
+    private final SequenceWriter sequence;
+    private final List<GradeDTO> block = new ArrayList<>(BLOCK_ROWS);
+
+    ColumnarGradeExportWriter(OutputStream out, ObjectMapper cborMapper) throws IOException {
+        this.sequence = cborMapper.writer().writeValues(out);
+    }
+
+    @Override
+    public void write(GradeDTO grade) throws IOException {
+        block.add(grade);
+        if (block.size() == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!block.isEmpty()) {
+                flushBlock();
+            }
+        } finally {
+            sequence.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        sequence.write(GradeColumnsDTO.of(block));
+        block.clear();
+    }
+}
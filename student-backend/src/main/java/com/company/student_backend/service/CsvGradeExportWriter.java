@@ -0,0 +1,54 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+class CsvGradeExportWriter implements GradeExportWriter {
+
+    private final Writer writer;
+
+    CsvGradeExportWriter(OutputStream out) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // BOM so Excel opens Vietnamese names as UTF-8
+        writer.write('\uFEFF');
+        writer.write(String.join(",", HEADER));
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(GradeDTO grade) throws IOException {
+        writer.write(String.valueOf(grade.getId()));
+        writer.write(',');
+        writer.write(escape(grade.getStudentId()));
+        writer.write(',');
+        writer.write(escape(grade.getStudentName()));
+        writer.write(',');
+        writer.write(escape(grade.getSubjectId()));
+        writer.write(',');
+        writer.write(escape(grade.getSubjectName()));
+        writer.write(',');
+        writer.write(grade.getAverageScore().toPlainString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,176 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.event.StudentChangeEvent;
+import com.company.student_backend.event.SubjectChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phiên bản dữ liệu theo từng bảng, đổi sau khi transaction ghi đã commit.
+ * Controller đọc phiên bản trước khi truy vấn để trả 304 mà không chạm DB.
+ * Khi bật app.response-cache.shared.store=redis, phiên bản nằm trong SharedCacheStore nên mọi instance thấy
+ * lần ghi của nhau (mỗi lần ghi đặt một giá trị ngẫu nhiên mới, hết hạn theo app.response-cache.shared.ttl);
+ * nếu không, bộ đếm nằm trong tiến trình và chỉ đúng khi chạy một instance.
+ * Last-Modified là lúc instance này thấy phiên bản hiện tại lần đầu, chỉ gửi khi giây đó đã qua
+ * (HTTP so sánh theo giây). Khi có replica, không gửi ETag/Last-Modified trong read-your-writes-window
+ * sau khi phiên bản đổi: dữ liệu đọc từ replica lúc đó có thể còn là bản trước lần ghi
+ */
+@Service
+@Slf4j
+public class DataVersionService {
+
+    static final String VERSIONS = "dataVersion";
+
+    // Distinguishes restarts so an old ETag never matches a reset counter
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final SharedCacheStore shared;
+    private final Duration sharedTtl;
+    private final long unsettledMillis;
+
+    private final Table students = new Table("students");
+    private final Table subjects = new Table("subjects");
+    private final Table grades = new Table("grades");
+
+    // When this instance first saw the current ETag of each representation
+    private final Map<String, Seen> seen = new ConcurrentHashMap<>();
+
+    public DataVersionService(ObjectProvider<SharedCacheStore> sharedCacheStore,
+                              @Value("${app.response-cache.shared.ttl:5m}") Duration sharedTtl,
+                              @Value("${app.datasource.replica.url:}") String replicaUrl,
+                              @Value("${app.datasource.replica.read-your-writes-window:2s}") Duration replicaLag) {
+        this.shared = sharedCacheStore.getIfAvailable();
+        this.sharedTtl = sharedTtl;
+        this.unsettledMillis = StringUtils.hasText(replicaUrl) ? replicaLag.toMillis() : 0;
+    }
+
+    /**
+     * @param lastModified -1 nếu không gửi Last-Modified
+     */
+    public record Version(String etag, long lastModified) {
+    }
+
+    /**
+     * @return null nếu chưa so sánh được (vừa ghi và replica có thể còn trễ, hoặc không đọc được tầng chung)
+     */
+    public Version students() {
+        return version("s", students);
+    }
+
+    /**
+     * @return null nếu chưa so sánh được
+     */
+    public Version subjects() {
+        return version("m", subjects);
+    }
+
+    /**
+     * GradeDTO kèm tên học sinh và tên môn, nên phiên bản điểm gộp cả ba bảng
+     * @return null nếu chưa so sánh được
+     */
+    public Version grades() {
+        return version("g", students, subjects, grades);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        students.bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubjectChange(SubjectChangeEvent event) {
+        subjects.bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGradeChange(GradeChangeEvent event) {
+        grades.bump();
+    }
+
+    private Version version(String prefix, Table... tables) {
+        StringBuilder etag = new StringBuilder("\"").append(prefix);
+        if (shared == null) {
+            etag.append(epoch);
+        }
+        for (Table table : tables) {
+            String token = table.token();
+            if (token == null) {
+                return null;
+            }
+            etag.append('-').append(token);
+        }
+        String tag = etag.append('"').toString();
+
+        long now = System.currentTimeMillis();
+        long changedAt = seen.compute(prefix, (key, previous) ->
+                previous != null && previous.etag().equals(tag) ? previous : new Seen(tag, now)).at();
+        if (now - changedAt < unsettledMillis) {
+            // The replica may not have applied the write yet: a stale body must not carry the new ETag
+            return null;
+        }
+        // A second write within the same second would leave a second-precision Last-Modified unchanged
+        long lastModified = now / 1000 > changedAt / 1000 ? changedAt : -1;
+        return new Version(tag, lastModified);
+    }
+
+    private record Seen(String etag, long at) {
+    }
+
+    private final class Table {
+
+        private final String name;
+        private final AtomicLong counter = new AtomicLong();
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        String token() {
+            if (shared == null) {
+                return Long.toString(counter.get());
+            }
+            try {
+                byte[] token = shared.get(VERSIONS, name);
+                if (token == null) {
+                    // First read, or the version expired: any fresh value differs from every ETag handed out
+                    token = newToken();
+                    shared.put(VERSIONS, name, token, sharedTtl);
+                }
+                return new String(token, StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                log.warn("Shared data version read failed for {}: {}", name, e.toString());
+                return null;
+            }
+        }
+
+        void bump() {
+            counter.incrementAndGet();
+            if (shared == null) {
+                return;
+            }
+            try {
+                shared.put(VERSIONS, name, newToken(), sharedTtl);
+            } catch (RuntimeException e) {
+                // Other instances keep the previous version until it expires
+                log.warn("Shared data version bump failed for {}: {}", name, e.toString());
+            }
+        }
+    }
+
+    private static byte[] newToken() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,206 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.ExportFormat;
+import com.company.student_backend.dto.ExportJobDTO;
+import com.company.student_backend.dto.ExportJobDTO.Status;
+import com.company.student_backend.exception.ResourceNotFoundException;
+import com.company.student_backend.exception.ResourceNotReadyException;
+import com.company.student_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Xuất toàn bộ bảng điểm ra file trên đĩa dưới dạng job chạy nền.
+ * Dữ liệu được đọc bằng cursor phía server (streamAllGrades) và ghi thẳng ra file nên bộ nhớ không phụ thuộc số dòng;
+ * job chạy trên executor riêng, giới hạn số luồng và hàng đợi để không tranh tài nguyên với request thông thường
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    private final GradeService gradeService;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final Path directory;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportService(GradeService gradeService,
+                         MappingJackson2CborHttpMessageConverter cborConverter,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.export.directory}") Path directory,
+                         @Value("${app.export.threads:1}") int threads,
+                         @Value("${app.export.queue-capacity:10}") int queueCapacity,
+                         @Value("${app.export.retention:1h}") Duration retention) throws IOException {
+        this.gradeService = gradeService;
+        this.cborConverter = cborConverter;
+        this.directory = Files.createDirectories(directory);
+        this.retention = retention;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Platform threads with low priority: an export holds one connection and one core for its whole run
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "export");
+    }
+
+    public ExportJobDTO submit(ExportFormat format) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), format, LocalDateTime.now());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            log.warn("Export rejected, queue full ({} queued)", executor.getQueue().size());
+            throw new ServiceBusyException("Hàng đợi xuất dữ liệu đã đầy, vui lòng thử lại sau");
+        }
+        log.info("Export job {} queued ({})", job.id, format);
+        return job.toDTO();
+    }
+
+    public ExportJobDTO getJob(String id) {
+        return findJob(id).toDTO();
+    }
+
+    /**
+     * File của job đã hoàn tất; 409 nếu job còn đang chạy hoặc thất bại
+     */
+    public ExportFile getFile(String id) {
+        ExportJob job = findJob(id);
+        if (job.status != Status.COMPLETED) {
+            throw new ResourceNotReadyException("Job xuất dữ liệu chưa hoàn tất (trạng thái: " + job.status + ")");
+        }
+        return new ExportFile(job.file, job.format, "grades-" + job.id + "." + job.format.getExtension());
+    }
+
+    public record ExportFile(Path path, ExportFormat format, String filename) {
+    }
+
+    @Scheduled(fixedDelayString = "${app.export.cleanup-interval:10m}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<ExportJob> expired = jobs.values().stream()
+                .filter(job -> job.completedAt != null && job.completedAt.isBefore(cutoff))
+                .toList();
+        for (ExportJob job : expired) {
+            jobs.remove(job.id);
+            deleteQuietly(job.file);
+        }
+        if (!expired.isEmpty()) {
+            log.info("Purged {} expired export jobs", expired.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ExportJob job) {
+        job.status = Status.RUNNING;
+        Path part = directory.resolve(job.id + ".part");
+        Path target = directory.resolve(job.id + "." + job.format.getExtension());
+        long start = System.nanoTime();
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024);
+                 GradeExportWriter writer = GradeExportWriter.open(job.format, out, cborConverter.getObjectMapper())) {
+                gradeService.streamAllGrades(grade -> {
+                    try {
+                        writer.write(grade);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    job.rows.incrementAndGet();
+                });
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            job.file = target;
+            job.sizeBytes = Files.size(target);
+            job.completedAt = LocalDateTime.now();
+            job.status = Status.COMPLETED;
+            log.info("Export job {} completed: {} rows, {} bytes in {} ms", job.id, job.rows.get(), job.sizeBytes,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            deleteQuietly(part);
+            job.error = "Xuất dữ liệu thất bại";
+            job.completedAt = LocalDateTime.now();
+            job.status = Status.FAILED;
+            log.error("Export job {} failed", job.id, e);
+        }
+    }
+
+    private ExportJob findJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Không tìm thấy job xuất dữ liệu với ID: " + id);
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private static final class ExportJob {
+        private final String id;
+        private final ExportFormat format;
+        private final LocalDateTime createdAt;
+        private final AtomicLong rows = new AtomicLong();
+        // Written by the export thread, read by request threads
+        private volatile Status status = Status.QUEUED;
+        private volatile Path file;
+        private volatile long sizeBytes;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+
+        private ExportJob(String id, ExportFormat format, LocalDateTime createdAt) {
+            this.id = id;
+            this.format = format;
+            this.createdAt = createdAt;
+        }
+
+        private ExportJobDTO toDTO() {
+            return new ExportJobDTO(id, format, status, rows.get(), sizeBytes, createdAt, completedAt, error);
+        }
+    }
+}
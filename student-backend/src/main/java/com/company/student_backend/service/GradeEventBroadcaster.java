@@ -0,0 +1,309 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeEventDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phát các thay đổi điểm tới client đang nghe GET /api/grades/stream (SSE), sau khi transaction ghi điểm đã commit.
+ * Luồng ghi chỉ đưa sự kiện vào hàng đợi có giới hạn của từng subscriber rồi trả về ngay; việc gửi xuống socket
+ * chạy trên executor riêng. Subscriber để hàng đợi đầy bị ngắt kết nối (nhận sự kiện "dropped" nếu còn gửi được)
+ * nên một client chậm không làm chậm request ghi hay các client khác.
+ * Client ngừng đọc làm một lần send bị chặn trên socket: quá write-timeout thì subscriber bị loại và executor được
+ * thêm một luồng thay thế cho đến khi luồng bị chặn thoát ra (khi container hết write timeout hoặc kết nối bị đóng)
+ */
+@Service
+@Slf4j
+public class GradeEventBroadcaster {
+
+    private record Event(long id, GradeEventDTO payload) {
+    }
+
+    private final class Subscriber {
+        private final String subjectId;
+        private final String studentId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Event> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean borrowedThread = new AtomicBoolean();
+        private volatile boolean dropped;
+        private volatile boolean stalled;
+        private volatile boolean sending;
+        private volatile long sendStartedNanos;
+
+        private Subscriber(String subjectId, String studentId, SseEmitter emitter) {
+            this.subjectId = subjectId;
+            this.studentId = studentId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean matches(GradeChange change) {
+            return (subjectId == null || subjectId.equals(change.subjectId()))
+                    && (studentId == null || studentId.equals(change.studentId()));
+        }
+    }
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final long writeTimeoutNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor sender;
+    private final Counter dropped;
+    private final Counter stalledSends;
+
+    public GradeEventBroadcaster(MeterRegistry meterRegistry,
+                                 @Value("${app.grades.stream.buffer-size:256}") int bufferSize,
+                                 @Value("${app.grades.stream.max-subscribers:1000}") int maxSubscribers,
+                                 @Value("${app.grades.stream.timeout:30m}") Duration timeout,
+                                 @Value("${app.grades.stream.sender-threads:2}") int senderThreads,
+                                 @Value("${app.grades.stream.write-timeout:10s}") Duration writeTimeout) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // At most one drain task per subscriber is queued at a time, so the queue is bounded by the subscriber count
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "grade-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = Counter.builder("grade.stream.dropped")
+                .description("Subscribers disconnected because their event buffer overflowed")
+                .register(meterRegistry);
+        this.stalledSends = Counter.builder("grade.stream.stalled")
+                .description("Subscribers disconnected because a single write blocked longer than the write timeout")
+                .register(meterRegistry);
+        Gauge.builder("grade.stream.subscribers", subscribers, Set::size)
+                .description("Open grade event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mở một luồng SSE; subjectId/studentId null nghĩa là không lọc theo trường đó
+     */
+    public SseEmitter subscribe(String subjectId, String studentId) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Grade stream rejected, {} subscribers open", subscribers.size());
+            throw new ServiceBusyException("Quá nhiều kết nối theo dõi điểm, vui lòng thử lại sau");
+        }
+        SseEmitter emitter = createEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(subjectId, studentId, emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Grade stream opened (subject={}, student={}), {} subscribers", subjectId, studentId, subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGradeChange(GradeChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<GradeChange> changes = event.changes();
+        List<Event> events = new ArrayList<>(changes.size());
+        for (GradeChange change : changes) {
+            events.add(new Event(sequence.incrementAndGet(), GradeEventDTO.of(change, now)));
+        }
+        for (Subscriber subscriber : subscribers) {
+            boolean queued = false;
+            for (int i = 0; i < changes.size() && !subscriber.dropped; i++) {
+                if (!subscriber.matches(changes.get(i))) {
+                    continue;
+                }
+                if (subscriber.buffer.offer(events.get(i))) {
+                    queued = true;
+                } else {
+                    drop(subscriber);
+                }
+            }
+            if (queued || subscriber.dropped) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Gửi comment định kỳ để proxy không cắt kết nối rảnh và để phát hiện client đã ngắt
+     */
+    @Scheduled(fixedDelayString = "${app.grades.stream.heartbeat-interval:15s}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue.set(true);
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Loại subscriber có lần send đang bị chặn quá write-timeout (client không đọc nữa, bộ đệm TCP đã đầy)
+     */
+    @Scheduled(fixedDelayString = "${app.grades.stream.write-check-interval:1s}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sending && now - subscriber.sendStartedNanos > writeTimeoutNanos) {
+                stall(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void drop(Subscriber subscriber) {
+        // Completing the emitter is left to the sender thread, which may be blocked writing to this client
+        subscriber.dropped = true;
+        subscribers.remove(subscriber);
+        subscriber.buffer.clear();
+        dropped.increment();
+        log.warn("Grade stream subscriber dropped (subject={}, student={}): buffer of {} events full",
+                subscriber.subjectId, subscriber.studentId, bufferSize);
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void stall(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.stalled = true;
+        subscriber.dropped = true;
+        subscriber.buffer.clear();
+        stalledSends.increment();
+        log.warn("Grade stream subscriber dropped (subject={}, student={}): write blocked for more than {} ms",
+                subscriber.subjectId, subscriber.studentId, TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+        // The blocked thread only returns once the container gives up on the write; lend the pool a replacement
+        synchronized (sender) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + 1);
+            sender.setCorePoolSize(sender.getCorePoolSize() + 1);
+        }
+        subscriber.borrowedThread.set(true);
+        // If the write returned meanwhile nothing is draining: schedule one to give the thread back
+        schedule(subscriber);
+    }
+
+    private void returnBorrowedThread(Subscriber subscriber) {
+        if (subscriber.borrowedThread.compareAndSet(true, false)) {
+            synchronized (sender) {
+                sender.setCorePoolSize(sender.getCorePoolSize() - 1);
+                sender.setMaximumPoolSize(sender.getMaximumPoolSize() - 1);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStartedNanos = System.nanoTime();
+        subscriber.sending = true;
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sending = false;
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                if (subscriber.stalled) {
+                    // Another write would block again
+                    subscriber.emitter.complete();
+                    return;
+                }
+                if (subscriber.dropped) {
+                    send(subscriber, SseEmitter.event().name("dropped")
+                            .data("Kết nối chậm, đã bỏ lỡ sự kiện; hãy tải lại dữ liệu và kết nối lại"));
+                    subscriber.emitter.complete();
+                    return;
+                }
+                Event event = subscriber.buffer.poll();
+                if (event != null) {
+                    send(subscriber, SseEmitter.event()
+                            .id(Long.toString(event.id()))
+                            .name("grade")
+                            .data(event.payload(), MediaType.APPLICATION_JSON));
+                    continue;
+                }
+                if (subscriber.heartbeatDue.getAndSet(false)) {
+                    send(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+                subscriber.scheduled.set(false);
+                // Re-check after releasing the flag: a publisher may have queued while we were finishing
+                if (!hasWork(subscriber) || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            log.debug("Grade stream subscriber closed: {}", Objects.toString(e.getMessage(), e.getClass().getSimpleName()));
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            if (subscriber.stalled) {
+                returnBorrowedThread(subscriber);
+            }
+        }
+    }
+
+    private boolean hasWork(Subscriber subscriber) {
+        return subscriber.dropped || !subscriber.buffer.isEmpty() || subscriber.heartbeatDue.get();
+    }
+}
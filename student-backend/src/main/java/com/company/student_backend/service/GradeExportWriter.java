@@ -0,0 +1,27 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.ExportFormat;
+import com.company.student_backend.dto.GradeDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Ghi từng dòng điểm ra file xuất; mỗi định dạng chỉ giữ một lượng dữ liệu cố định trong bộ nhớ
+ */
+interface GradeExportWriter extends Closeable {
+
+    String[] HEADER = {"id", "studentId", "studentName", "subjectId", "subjectName", "averageScore"};
+
+    void write(GradeDTO grade) throws IOException;
+
+    static GradeExportWriter open(ExportFormat format, OutputStream out, ObjectMapper cborMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvGradeExportWriter(out);
+            case XLSX -> new XlsxGradeExportWriter(out);
+            case COLUMNAR -> new ColumnarGradeExportWriter(out, cborMapper);
+        };
+    }
+}
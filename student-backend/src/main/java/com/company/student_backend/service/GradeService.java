@@ -1,117 +1,256 @@
 package com.company.student_backend.service;
 
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.dto.CursorPage;
 import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.ScoreStatsDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
 import com.company.student_backend.exception.DuplicateResourceException;
 import com.company.student_backend.exception.ResourceNotFoundException;
 import com.company.student_backend.model.Grade;
-import com.company.student_backend.model.Student;
-import com.company.student_backend.model.Subject;
 import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class GradeService {
 
     private final GradeRepository gradeRepository;
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
     private final ValidationService validationService;
+    private final ScoreAggregateService scoreAggregateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final SingleFlight singleFlight;
 
+    @Transactional(readOnly = true)
     public List<GradeDTO> getAllGrades() {
         log.debug("Fetching all grades");
-        return gradeRepository.findAllWithStudentAndSubject().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return gradeRepository.findAllAsDTO();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<GradeDTO> getGradesPage(Long after, int limit) {
+        log.debug("Fetching grades page after ID: {} (limit {})", after, limit);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<GradeDTO> rows = gradeRepository.findPageAfter(after == null ? 0L : after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, grade -> String.valueOf(grade.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllGrades(Consumer<GradeDTO> consumer) {
+        log.debug("Streaming all grades");
+        try (Stream<GradeDTO> grades = gradeRepository.streamAll()) {
+            grades.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public GradeDTO getGradeById(Long id) {
         log.debug("Fetching grade with ID: {}", id);
-        Grade grade = gradeRepository.findById(id)
+        return gradeRepository.findDTOById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy điểm với ID: " + id));
-        return convertToDTO(grade);
+    }
+
+    @Transactional(readOnly = true)
+    public BatchLookupResult<GradeDTO, Long> getGradesByIds(List<Long> gradeIds) {
+        log.debug("Fetching {} grades by ID", gradeIds.size());
+        return BatchLookupResult.lookup(gradeIds, gradeRepository::findDTOsByIdIn, GradeDTO::getId);
     }
 
     public GradeDTO createGrade(GradeDTO gradeDTO) {
         log.debug("Creating new grade: {}", gradeDTO);
 
         // Validate student and subject exist using ValidationService
-        Student student = validationService.validateAndGetStudent(gradeDTO.getStudentId());
-        Subject subject = validationService.validateAndGetSubject(gradeDTO.getSubjectId());
+        StudentDTO student = validationService.validateAndGetStudent(gradeDTO.getStudentId());
+        SubjectDTO subject = validationService.validateAndGetSubject(gradeDTO.getSubjectId());
 
         // Check if grade already exists for this student-subject combination
         if (gradeRepository.existsByStudentStudentIdAndSubjectSubjectId(gradeDTO.getStudentId(), gradeDTO.getSubjectId())) {
             throw new DuplicateResourceException("Điểm đã tồn tại cho học sinh " + gradeDTO.getStudentId() + " và môn học " + gradeDTO.getSubjectId());
         }
 
+        // Lookups come from the cache as DTOs; link by reference so that no SELECT is issued for them
         Grade grade = new Grade();
-        grade.setStudent(student);
-        grade.setSubject(subject);
+        grade.setStudent(studentRepository.getReferenceById(student.getStudentId()));
+        grade.setSubject(subjectRepository.getReferenceById(subject.getSubjectId()));
         grade.setAverageScore(gradeDTO.getAverageScore());
 
         Grade savedGrade = gradeRepository.save(grade);
         log.info("Created grade with ID: {}", savedGrade.getId());
+        eventPublisher.publishEvent(GradeChangeEvent.of(GradeChange.created(
+                savedGrade.getId(), student.getStudentId(), subject.getSubjectId(), savedGrade.getAverageScore())));
 
-        return convertToDTO(savedGrade);
+        return new GradeDTO(savedGrade.getId(), student.getStudentId(), subject.getSubjectId(),
+                savedGrade.getAverageScore(), student.getStudentName(), subject.getSubjectName());
     }
 
     public GradeDTO updateGrade(Long id, GradeDTO gradeDTO) {
         log.debug("Updating grade with ID: {}", id);
 
-        Grade existingGrade = gradeRepository.findById(id)
+        Grade existingGrade = gradeRepository.findByIdWithStudentAndSubject(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy điểm với ID: " + id));
 
+        BigDecimal oldScore = existingGrade.getAverageScore();
         existingGrade.setAverageScore(gradeDTO.getAverageScore());
 
         Grade updatedGrade = gradeRepository.save(existingGrade);
         log.info("Updated grade with ID: {}", updatedGrade.getId());
+        eventPublisher.publishEvent(GradeChangeEvent.of(GradeChange.updated(updatedGrade.getId(),
+                updatedGrade.getStudent().getStudentId(), updatedGrade.getSubject().getSubjectId(),
+                oldScore, updatedGrade.getAverageScore())));
 
         return convertToDTO(updatedGrade);
     }
 
+    /**
+     * Ghi một lô điểm đã gộp (write-behind) trong transaction hiện tại.
+     * Các dòng được khoá trước khi đọc điểm cũ để sự kiện mang đúng oldScore; dòng đã bị xoá thì bỏ qua
+     *
+     * @return số dòng đã thay đổi
+     */
+    public int applyScoreUpdates(Map<Long, BigDecimal> scores) {
+        log.debug("Applying {} buffered score updates", scores.size());
+        List<GradeChange> changes = new ArrayList<>();
+        for (Grade grade : gradeRepository.findAllByIdInForUpdate(scores.keySet())) {
+            BigDecimal oldScore = grade.getAverageScore();
+            BigDecimal newScore = scores.get(grade.getId());
+            if (oldScore.compareTo(newScore) == 0) {
+                continue;
+            }
+            grade.setAverageScore(newScore);
+            // getStudentId()/getSubjectId() on the lazy proxies do not initialize them
+            changes.add(GradeChange.updated(grade.getId(), grade.getStudent().getStudentId(),
+                    grade.getSubject().getSubjectId(), oldScore, newScore));
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new GradeChangeEvent(changes));
+        }
+        return changes.size();
+    }
+
     public void deleteGrade(Long id) {
         log.debug("Deleting grade with ID: {}", id);
 
-        if (!gradeRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Không tìm thấy điểm với ID: " + id);
-        }
+        Grade grade = gradeRepository.findByIdWithStudentAndSubject(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy điểm với ID: " + id));
 
-        gradeRepository.deleteById(id);
+        gradeRepository.delete(grade);
         log.info("Deleted grade with ID: {}", id);
+        eventPublisher.publishEvent(GradeChangeEvent.of(GradeChange.deleted(
+                id, grade.getStudent().getStudentId(), grade.getSubject().getSubjectId(), grade.getAverageScore())));
     }
 
+    /**
+     * Xoá toàn bộ điểm của một học sinh trước khi xoá học sinh,
+     * để các thay đổi đi qua GradeChangeEvent thay vì cascade ngầm của JPA/MySQL
+     */
+    public void deleteGradesByStudentId(String studentId) {
+        log.debug("Deleting grades for student ID: {}", studentId);
+        deleteGrades(gradeRepository.findDTOsByStudentId(studentId));
+    }
+
+    public void deleteGradesBySubjectId(String subjectId) {
+        log.debug("Deleting grades for subject ID: {}", subjectId);
+        deleteGrades(gradeRepository.findDTOsBySubjectId(subjectId));
+    }
+
+    // findDTOsByStudentId opens its own read-only transaction (replica-routed), so waiting followers hold no connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<GradeDTO> getGradesByStudentId(String studentId) {
         log.debug("Fetching grades for student ID: {}", studentId);
-        return gradeRepository.findByStudentStudentId(studentId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return singleFlight.execute(SingleFlight.GRADES_BY_STUDENT, studentId,
+                () -> gradeRepository.findDTOsByStudentId(studentId));
     }
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SUBJECT_GRADES, key = "#subjectId", sync = true)
     public List<GradeDTO> getGradesBySubjectId(String subjectId) {
         log.debug("Fetching grades for subject ID: {}", subjectId);
-        return gradeRepository.findBySubjectSubjectId(subjectId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return gradeRepository.findDTOsBySubjectId(subjectId);
     }
 
+    @Transactional(readOnly = true)
     public BigDecimal getAverageScoreByStudentId(String studentId) {
         log.debug("Calculating average score for student ID: {}", studentId);
-        return gradeRepository.findAverageScoreByStudentId(studentId);
+        return scoreAggregateService.getStudentStats(studentId).getAverage();
     }
 
+    // sync = true already runs one load per key: the response cache coalesces concurrent misses itself
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SUBJECT_AVERAGE, key = "#subjectId", sync = true)
     public BigDecimal getAverageScoreBySubjectId(String subjectId) {
         log.debug("Calculating average score for subject ID: {}", subjectId);
-        return gradeRepository.findAverageScoreBySubjectId(subjectId);
+        return scoreAggregateService.getSubjectStats(subjectId).getAverage();
+    }
+
+    @Transactional(readOnly = true)
+    public ScoreStatsDTO getScoreStatsByStudentId(String studentId) {
+        log.debug("Fetching score stats for student ID: {}", studentId);
+        return scoreAggregateService.getStudentStats(studentId);
+    }
+
+    @Transactional(readOnly = true)
+    public ScoreStatsDTO getScoreStatsBySubjectId(String subjectId) {
+        log.debug("Fetching score stats for subject ID: {}", subjectId);
+        return scoreAggregateService.getSubjectStats(subjectId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onGradeChange(GradeChangeEvent event) {
+        // Already after commit: evictIfPresent acts immediately on the transaction-aware cache
+        Cache grades = cacheManager.getCache(CacheConfig.SUBJECT_GRADES);
+        Cache averages = cacheManager.getCache(CacheConfig.SUBJECT_AVERAGE);
+        event.changes().stream()
+                .map(GradeChange::subjectId)
+                .distinct()
+                .forEach(subjectId -> {
+                    grades.evictIfPresent(subjectId);
+                    averages.evictIfPresent(subjectId);
+                });
+    }
+
+    private void deleteGrades(List<GradeDTO> grades) {
+        if (grades.isEmpty()) {
+            return;
+        }
+        gradeRepository.deleteAllByIdInBatch(grades.stream().map(GradeDTO::getId).toList());
+        eventPublisher.publishEvent(new GradeChangeEvent(grades.stream()
+                .map(grade -> GradeChange.deleted(grade.getId(), grade.getStudentId(),
+                        grade.getSubjectId(), grade.getAverageScore()))
+                .toList()));
     }
 
-    private GradeDTO convertToDTO(Grade grade) {
+    static GradeDTO convertToDTO(Grade grade) {
         GradeDTO dto = new GradeDTO();
         dto.setId(grade.getId());
         dto.setStudentId(grade.getStudent().getStudentId());
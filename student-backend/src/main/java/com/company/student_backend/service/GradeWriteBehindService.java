@@ -0,0 +1,362 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chế độ write-behind (tuỳ chọn) cho PUT /api/grades/{id}: điểm mới được đưa vào hàng đợi chia stripe theo
+ * (học sinh, môn học), các lần cập nhật liên tiếp cho cùng một cặp được gộp lại chỉ còn giá trị cuối,
+ * rồi ghi theo lô trong một transaction mỗi flush-interval hoặc khi hàng đợi đạt batch-size.
+ * Khi tắt ứng dụng hàng đợi được flush đồng bộ trước khi DataSource đóng; khi hàng đợi đầy
+ * hoặc đang tắt, request ghi thẳng như chế độ thường và bỏ cập nhật cũ hơn đang chờ của cùng cặp.
+ * Lô lỗi do dữ liệu được tách ra ghi từng dòng; dòng vẫn lỗi sau max-attempts lần flush thì bị bỏ
+ */
+@Service
+@Slf4j
+public class GradeWriteBehindService {
+
+    private record GradeKey(String studentId, String subjectId) {
+    }
+
+    private record Pending(GradeKey key, Long gradeId, BigDecimal score, int attempts) {
+
+        Pending retried() {
+            return new Pending(key, gradeId, score, attempts + 1);
+        }
+    }
+
+    /**
+     * @param buffered false khi điểm đã được ghi thẳng (hàng đợi đầy hoặc đang tắt)
+     */
+    public record Update(GradeDTO grade, boolean buffered) {
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<GradeKey, Pending> pending = new LinkedHashMap<>();
+    }
+
+    private final GradeService gradeService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final Stripe[] stripes;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final Timer flushTimer;
+    private final Counter coalesced;
+    private final Counter failures;
+    private final Counter dropped;
+    private volatile boolean closed;
+
+    public GradeWriteBehindService(GradeService gradeService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.grades.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${app.grades.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                   @Value("${app.grades.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${app.grades.write-behind.max-pending:10000}") int maxPending,
+                                   @Value("${app.grades.write-behind.stripes:16}") int stripes,
+                                   @Value("${app.grades.write-behind.max-attempts:3}") int maxAttempts) {
+        this.gradeService = gradeService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.flushTimer = Timer.builder("grade.write_behind.flush")
+                .description("Time spent writing one flush of buffered grade updates")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("grade.write_behind.coalesced")
+                .description("Grade updates replaced by a newer update before being written")
+                .register(meterRegistry);
+        this.failures = Counter.builder("grade.write_behind.failures")
+                .description("Flush batches that failed")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("grade.write_behind.dropped")
+                .description("Buffered grade updates dropped after failing max-attempts flushes on their own")
+                .register(meterRegistry);
+        Gauge.builder("grade.write_behind.pending", depth, AtomicInteger::get)
+                .description("Buffered grade updates waiting to be written")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "grade-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                    flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Grade write-behind enabled: flush every {} ms or {} updates, {} stripes",
+                    flushInterval.toMillis(), batchSize, stripes);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Đưa điểm mới vào hàng đợi và trả về bản ghi với điểm đang chờ ghi.
+     * Mã điểm không tồn tại vẫn báo 404 ngay (đọc không khoá)
+     */
+    public Update enqueue(Long id, GradeDTO gradeDTO) {
+        GradeDTO current = gradeService.getGradeById(id);
+        GradeKey key = new GradeKey(current.getStudentId(), current.getSubjectId());
+        if (closed || depth.get() >= maxPending) {
+            log.warn("Write-behind queue unavailable ({} pending), writing grade {} directly", depth.get(), id);
+            flushLock.lock();
+            try {
+                // An older buffered score for this pair must not be flushed over the direct write
+                discard(key);
+                return new Update(gradeService.updateGrade(id, gradeDTO), false);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            if (stripe.pending.put(key, new Pending(key, id, gradeDTO.getAverageScore(), 0)) == null) {
+                depth.incrementAndGet();
+            } else {
+                coalesced.increment();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (depth.get() >= batchSize) {
+            requestFlush();
+        }
+
+        current.setAverageScore(gradeDTO.getAverageScore());
+        return new Update(current, true);
+    }
+
+    /**
+     * Bỏ các cập nhật đang chờ của những cặp (học sinh, môn học) sắp bị ghi thẳng (vd. nhập hàng loạt),
+     * sau khi lần flush đang chạy (nếu có) kết thúc
+     */
+    public void discardPending(Collection<GradeDTO> grades) {
+        if (grades.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            for (GradeDTO grade : grades) {
+                discard(new GradeKey(grade.getStudentId(), grade.getSubjectId()));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return depth.get();
+    }
+
+    /**
+     * Ghi toàn bộ hàng đợi hiện tại, mỗi lô batch-size dòng trong một transaction.
+     * Lỗi tạm thời (mất kết nối, timeout khoá): phần còn lại được đưa lại hàng đợi (trừ khi đã có cập nhật
+     * mới hơn) và lỗi được ném ra. Lỗi khác: lô được ghi lại từng dòng để các dòng tốt không bị kẹt sau dòng lỗi
+     *
+     * @return số dòng đã thay đổi
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Pending> drained = drain();
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            int applied = 0;
+            try {
+                for (int from = 0; from < drained.size(); from += batchSize) {
+                    List<Pending> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+                    try {
+                        applied += apply(batch);
+                    } catch (RuntimeException e) {
+                        failures.increment();
+                        if (isTransient(e)) {
+                            requeue(drained.subList(from, drained.size()));
+                            throw e;
+                        }
+                        log.warn("Flush batch of {} grade updates failed, retrying row by row: {}",
+                                batch.size(), e.getMessage());
+                        applied += applyOneByOne(batch);
+                    }
+                }
+            } finally {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            log.debug("Flushed {} buffered grade updates ({} changed)", drained.size(), applied);
+            return applied;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Chạy trước khi các bean phụ thuộc (transaction manager, DataSource) bị huỷ
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            int applied = flush();
+            log.info("Flushed buffered grade updates on shutdown ({} changed)", applied);
+        } catch (RuntimeException e) {
+            log.error("Could not flush {} buffered grade updates on shutdown", depth.get(), e);
+        }
+    }
+
+    private int apply(List<Pending> batch) {
+        Map<Long, BigDecimal> scores = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            scores.put(pending.gradeId(), pending.score());
+        }
+        // One transaction per batch (GradeService is @Transactional)
+        return gradeService.applyScoreUpdates(scores);
+    }
+
+    private int applyOneByOne(List<Pending> batch) {
+        int applied = 0;
+        for (Pending pending : batch) {
+            try {
+                applied += apply(List.of(pending));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    requeue(List.of(pending));
+                } else if (pending.attempts() + 1 >= maxAttempts) {
+                    dropped.increment();
+                    log.error("Dropping buffered score {} for grade {} after {} failed flushes",
+                            pending.score(), pending.gradeId(), maxAttempts, e);
+                } else {
+                    requeue(List.of(pending.retried()));
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void requestFlush() {
+        if (closed || !flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            flushRequested.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Flushing buffered grade updates failed, {} updates re-queued", depth.get(), e);
+        }
+    }
+
+    private List<Pending> drain() {
+        List<Pending> drained = new ArrayList<>(depth.get());
+        for (Stripe stripe : stripes) {
+            Map<GradeKey, Pending> pending;
+            stripe.lock.lock();
+            try {
+                pending = stripe.pending;
+                stripe.pending = new LinkedHashMap<>();
+            } finally {
+                stripe.lock.unlock();
+            }
+            depth.addAndGet(-pending.size());
+            drained.addAll(pending.values());
+        }
+        return drained;
+    }
+
+    private void discard(GradeKey key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            if (stripe.pending.remove(key) != null) {
+                depth.decrementAndGet();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(GradeKey key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private void requeue(List<Pending> failed) {
+        for (Pending pending : failed) {
+            Stripe stripe = stripeOf(pending.key());
+            stripe.lock.lock();
+            try {
+                // A newer update that arrived during the flush wins over the failed one
+                if (stripe.pending.putIfAbsent(pending.key(), pending) == null) {
+                    depth.incrementAndGet();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.exception.InvalidRequestException;
+import com.company.student_backend.exception.ResourceNotReadyException;
+import com.company.student_backend.service.IdempotencyStore.Entry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Thực thi request ghi theo Idempotency-Key: lần gọi đầu chạy thật và lưu phản hồi,
+ * các lần gửi lại nhận đúng phản hồi đó mà không chạm tới bảng dữ liệu.
+ * Request trùng khoá đến đồng thời trên cùng instance chờ kết quả của request đầu tiên;
+ * giữa các instance thì store chỉ cho một request giành khoá, request còn lại nhận 409
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.lease:30s}") Duration lease) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    /**
+     * @param idempotencyKey giá trị header Idempotency-Key; null thì chạy bình thường
+     * @param payload        body của request, dùng để phát hiện khoá bị dùng lại cho nội dung khác
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, HttpServletRequest request, Object payload,
+                                         HttpStatus status, Class<T> type, Supplier<T> action) {
+        return execute(idempotencyKey, request, payload, type, () -> ResponseEntity.status(status).body(action.get()));
+    }
+
+    /**
+     * Như trên, cho các endpoint mà mã trạng thái phụ thuộc vào kết quả; chỉ status và body được lưu để phát lại
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, HttpServletRequest request, Object payload,
+                                         Class<T> type, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key phải có từ 1 đến " + MAX_KEY_LENGTH + " ký tự");
+        }
+        // Scoped by method and path so a key reused on another endpoint or ID is a different request
+        String key = request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+        String fingerprint = fingerprint(payload);
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Waiting for in-flight request with idempotency key {}", idempotencyKey);
+            return replay(await(running), fingerprint, type);
+        }
+        try {
+            Optional<Entry> existing = store.find(key);
+            if (existing.isPresent()) {
+                mine.complete(existing.get());
+                return replay(existing.get(), fingerprint, type);
+            }
+            if (!store.reserve(key, fingerprint, lease)) {
+                // Another instance reserved the key between find and reserve
+                Entry entry = store.find(key).orElseThrow(() -> inProgress());
+                mine.complete(entry);
+                return replay(entry, fingerprint, type);
+            }
+            ResponseEntity<T> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                store.release(key);
+                throw e;
+            }
+            Entry entry = new Entry(fingerprint, response.getStatusCode().value(), write(response.getBody()));
+            store.complete(key, fingerprint, entry.status(), entry.body(), ttl);
+            mine.complete(entry);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        store.purgeExpired();
+    }
+
+    private <T> ResponseEntity<T> replay(Entry entry, String fingerprint, Class<T> type) {
+        if (!entry.completed()) {
+            throw inProgress();
+        }
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new InvalidRequestException("Idempotency-Key đã được dùng cho một yêu cầu có nội dung khác");
+        }
+        try {
+            return ResponseEntity.status(entry.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(entry.body(), type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not readable", e);
+        }
+    }
+
+    private Entry await(CompletableFuture<Entry> running) {
+        try {
+            return running.get(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Same request, same outcome: rethrow the first caller's error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    private static ResourceNotReadyException inProgress() {
+        return new ResourceNotReadyException("Yêu cầu với Idempotency-Key này đang được xử lý, vui lòng thử lại sau");
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response is not serializable", e);
+        }
+    }
+
+    private String fingerprint(Object payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(payload));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request body", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.company.student_backend.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Lưu kết quả của các request ghi theo Idempotency-Key.
+ * Một khoá đi qua hai trạng thái: đang xử lý (giữ trong thời gian lease) rồi hoàn tất (giữ trong ttl)
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @param status null khi request vẫn đang xử lý
+     */
+    record Entry(String fingerprint, Integer status, String body) {
+        public boolean completed() {
+            return status != null;
+        }
+    }
+
+    /**
+     * Giành khoá cho request này; false nếu khoá đã tồn tại và chưa hết hạn
+     */
+    boolean reserve(String key, String fingerprint, Duration lease);
+
+    Optional<Entry> find(String key);
+
+    void complete(String key, String fingerprint, int status, String body, Duration ttl);
+
+    void release(String key);
+
+    void purgeExpired();
+}
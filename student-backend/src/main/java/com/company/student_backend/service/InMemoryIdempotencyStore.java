@@ -0,0 +1,67 @@
+package com.company.student_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Store trong tiến trình: giới hạn số khoá, mỗi khoá hết hạn theo lease/ttl riêng.
+ * Chỉ đúng khi chạy một instance; nhiều instance dùng JdbcIdempotencyStore
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private record Held(Entry entry, long ttlNanos) {
+    }
+
+    private final Cache<String, Held> cache;
+
+    public InMemoryIdempotencyStore(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Held>() {
+                    @Override
+                    public long expireAfterCreate(String key, Held value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Held value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Held value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public boolean reserve(String key, String fingerprint, Duration lease) {
+        return cache.asMap().putIfAbsent(key, new Held(new Entry(fingerprint, null, null), lease.toNanos())) == null;
+    }
+
+    @Override
+    public Optional<Entry> find(String key) {
+        return Optional.ofNullable(cache.getIfPresent(key)).map(Held::entry);
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, int status, String body, Duration ttl) {
+        cache.put(key, new Held(new Entry(fingerprint, status, body), ttl.toNanos()));
+    }
+
+    @Override
+    public void release(String key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void purgeExpired() {
+        cache.cleanUp();
+    }
+}
@@ -0,0 +1,75 @@
+package com.company.student_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Store dùng bảng idempotency_key, chia sẻ giữa các instance.
+ * Khoá chính trên idem_key đảm bảo chỉ một request giành được khoá; dòng đang xử lý
+ * của instance bị dừng giữa chừng hết hạn sau lease và được giành lại
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean reserve(String key, String fingerprint, Duration lease) {
+        LocalDateTime now = now();
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idem_key = ? AND expires_at < ?", key, now);
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_key (idem_key, fingerprint, expires_at) VALUES (?, ?, ?)",
+                    key, fingerprint, now.plus(lease));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<Entry> find(String key) {
+        List<Entry> entries = jdbcTemplate.query(
+                "SELECT fingerprint, status_code, response_body FROM idempotency_key WHERE idem_key = ? AND expires_at >= ?",
+                (rs, rowNum) -> new Entry(
+                        rs.getString("fingerprint"),
+                        rs.getObject("status_code", Integer.class),
+                        rs.getString("response_body")),
+                key, now());
+        return entries.stream().findFirst();
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, int status, String body, Duration ttl) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_key SET status_code = ?, response_body = ?, expires_at = ? WHERE idem_key = ?",
+                status, body, now().plus(ttl), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idem_key = ?", key);
+    }
+
+    @Override
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at < ?", now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
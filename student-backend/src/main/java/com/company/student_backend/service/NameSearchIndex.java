@@ -0,0 +1,191 @@
+package com.company.student_backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Chỉ mục tìm kiếm tên trong bộ nhớ: tên được bỏ dấu, chuyển chữ thường và tách thành từ,
+ * mỗi từ trong truy vấn phải là tiền tố của một từ trong tên ("nguyen v" khớp "Nguyễn Văn An").
+ * Từ được giữ trong TreeMap nên tìm theo tiền tố là một lần duyệt khoảng khoá
+ */
+class NameSearchIndex<T> {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Match<?>> BY_RANK = Comparator
+            .comparingInt((Match<?> match) -> match.tier)
+            .thenComparingInt(match -> match.entry.folded.length())
+            .thenComparing(match -> match.entry.folded)
+            .thenComparing(match -> match.entry.id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private final TreeMap<String, Set<String>> idsByToken = new TreeMap<>();
+
+    private record Entry<T>(String id, String folded, String[] tokens, T value) {
+    }
+
+    private record Match<T>(Entry<T> entry, int tier) {
+    }
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT)
+                .trim();
+    }
+
+    static String[] tokenize(String folded) {
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    void put(String id, String name, T value) {
+        String folded = String.join(" ", tokenize(fold(name)));
+        Entry<T> entry = new Entry<>(id, folded, tokenize(folded), value);
+        lock.writeLock().lock();
+        try {
+            removeTokens(entries.put(id, entry));
+            for (String token : entry.tokens) {
+                idsByToken.computeIfAbsent(token, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeTokens(entries.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            idsByToken.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Trả về tối đa limit kết quả đã xếp hạng bắt đầu từ vị trí offset. Thứ tự: tên trùng khớp,
+     * tên bắt đầu bằng truy vấn, các từ khớp trọn vẹn, rồi khớp tiền tố; cùng hạng thì tên ngắn hơn trước
+     */
+    List<T> search(String query, int offset, int limit) {
+        String folded = String.join(" ", tokenize(fold(query)));
+        String[] queryTokens = tokenize(folded);
+        if (queryTokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        // Probe with the longest token: it has the narrowest key range
+        String probe = Arrays.stream(queryTokens).max(Comparator.comparingInt(String::length)).get();
+        int wanted = offset + limit;
+        PriorityQueue<Match<T>> best = new PriorityQueue<>(BY_RANK.reversed());
+
+        lock.readLock().lock();
+        try {
+            Collection<Set<String>> ranges = idsByToken.subMap(probe, true, probe + Character.MAX_VALUE, false).values();
+            // A name can hold several tokens sharing the probe prefix only when more than one token matched
+            Set<String> seen = ranges.size() > 1 ? new HashSet<>() : null;
+            for (Set<String> ids : ranges) {
+                for (String id : ids) {
+                    if (seen != null && !seen.add(id)) {
+                        continue;
+                    }
+                    Entry<T> entry = entries.get(id);
+                    int tier = tier(entry, folded, queryTokens);
+                    if (tier < 0) {
+                        continue;
+                    }
+                    best.add(new Match<>(entry, tier));
+                    if (best.size() > wanted) {
+                        best.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match<T>> ranked = new ArrayList<>(best);
+        ranked.sort(BY_RANK);
+        List<T> page = new ArrayList<>(Math.max(0, ranked.size() - offset));
+        for (int i = offset; i < ranked.size(); i++) {
+            page.add(ranked.get(i).entry.value);
+        }
+        return page;
+    }
+
+    private static int tier(Entry<?> entry, String folded, String[] queryTokens) {
+        boolean allWhole = true;
+        for (String queryToken : queryTokens) {
+            boolean prefix = false;
+            boolean whole = false;
+            for (String token : entry.tokens) {
+                if (token.startsWith(queryToken)) {
+                    prefix = true;
+                    if (token.length() == queryToken.length()) {
+                        whole = true;
+                        break;
+                    }
+                }
+            }
+            if (!prefix) {
+                return -1;
+            }
+            allWhole &= whole;
+        }
+        if (entry.folded.equals(folded)) {
+            return 0;
+        }
+        if (entry.folded.startsWith(folded)) {
+            return 1;
+        }
+        return allWhole ? 2 : 3;
+    }
+
+    private void removeTokens(Entry<T> entry) {
+        if (entry == null) {
+            return;
+        }
+        for (String token : entry.tokens) {
+            Set<String> ids = idsByToken.get(token);
+            if (ids != null && ids.remove(entry.id) && ids.isEmpty()) {
+                idsByToken.remove(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.RankingEntryDTO;
+import com.company.student_backend.dto.StudentRankDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.exception.ResourceNotFoundException;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bảng xếp hạng trong bộ nhớ: chỉ mục điểm theo từng môn (SubjectScoreIndex) và
+ * danh sách học sinh sắp theo điểm trung bình. Nạp toàn bộ khi ứng dụng khởi động,
+ * sau đó cập nhật từ GradeChangeEvent khi transaction ghi điểm đã commit.
+ * Listener sau commit của hai transaction đồng thời có thể chạy khác thứ tự commit, nên điểm mới không lấy từ event
+ * mà đọc lại từ primary, tuần tự theo refreshLock: lần đọc sau luôn thấy ít nhất mọi commit mà lần đọc trước thấy
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RankingService {
+
+    public static final int MAX_K = 500;
+
+    private static final Comparator<StudentMean> BY_MEAN_DESC = (a, b) -> {
+        // Compare sumA / countA with sumB / countB exactly, without rounding
+        int byMean = Long.compare(b.sumTenths() * a.count(), a.sumTenths() * b.count());
+        return byMean != 0 ? byMean : a.studentId().compareTo(b.studentId());
+    };
+
+    private final GradeRepository gradeRepository;
+    private final StudentRepository studentRepository;
+    private final ValidationService validationService;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, SubjectScoreIndex> subjects = new HashMap<>();
+    private final Map<String, StudentMean> means = new HashMap<>();
+    private final TreeSet<StudentMean> overall = new TreeSet<>(BY_MEAN_DESC);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("Building ranking index from grades");
+        refreshLock.lock();
+        lock.writeLock().lock();
+        try {
+            subjects.clear();
+            means.clear();
+            overall.clear();
+            try (Stream<GradeDTO> grades = gradeRepository.streamAll()) {
+                grades.forEach(grade -> put(grade.getSubjectId(), grade.getStudentId(), tenths(grade.getAverageScore())));
+            }
+            log.info("Ranking index built: {} subjects, {} students", subjects.size(), means.size());
+        } finally {
+            lock.writeLock().unlock();
+            refreshLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onGradeChange(GradeChangeEvent event) {
+        // Read-write on purpose: a read-only transaction may be routed to a replica that has not seen the commit yet
+        Set<String> studentIds = new HashSet<>();
+        Set<String> subjectIds = new HashSet<>();
+        for (GradeChange change : event.changes()) {
+            studentIds.add(change.studentId());
+            subjectIds.add(change.subjectId());
+        }
+        refreshLock.lock();
+        try {
+            Map<List<String>, BigDecimal> current = new HashMap<>();
+            for (GradeDTO grade : gradeRepository.findDTOsByStudentIdsAndSubjectIds(studentIds, subjectIds)) {
+                current.put(List.of(grade.getSubjectId(), grade.getStudentId()), grade.getAverageScore());
+            }
+            lock.writeLock().lock();
+            try {
+                for (GradeChange change : event.changes()) {
+                    BigDecimal score = current.get(List.of(change.subjectId(), change.studentId()));
+                    if (score == null) {
+                        remove(change.subjectId(), change.studentId());
+                    } else {
+                        put(change.subjectId(), change.studentId(), tenths(score));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public List<RankingEntryDTO> getTopStudentsBySubject(String subjectId, int k) {
+        log.debug("Fetching top {} students for subject ID: {}", k, subjectId);
+        return subjectRanking(subjectId, k, true);
+    }
+
+    public List<RankingEntryDTO> getBottomStudentsBySubject(String subjectId, int k) {
+        log.debug("Fetching bottom {} students for subject ID: {}", k, subjectId);
+        return subjectRanking(subjectId, k, false);
+    }
+
+    public StudentRankDTO getStudentRankInSubject(String subjectId, String studentId) {
+        log.debug("Fetching rank of student {} in subject {}", studentId, subjectId);
+        StudentRankDTO rank = findStudentRankInSubject(subjectId, studentId);
+        if (rank == null) {
+            throw new ResourceNotFoundException("Không tìm thấy điểm của học sinh " + studentId + " cho môn học " + subjectId);
+        }
+        return rank;
+    }
+
+    /**
+     * Tra hạng trực tiếp từ chỉ mục, không chạm DB; trả về null nếu học sinh chưa có điểm môn này
+     */
+    public StudentRankDTO findStudentRankInSubject(String subjectId, String studentId) {
+        lock.readLock().lock();
+        try {
+            SubjectScoreIndex index = subjects.get(subjectId);
+            Integer tenths = index == null ? null : index.scoreOf(studentId);
+            if (tenths == null) {
+                return null;
+            }
+            return new StudentRankDTO(studentId, subjectId, score(tenths),
+                    index.rankOf(tenths), index.size(), index.percentileOf(tenths));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<RankingEntryDTO> getTopStudentsOverall(int k) {
+        log.debug("Fetching top {} students by mean score", k);
+        return overallRanking(k, true);
+    }
+
+    public List<RankingEntryDTO> getBottomStudentsOverall(int k) {
+        log.debug("Fetching bottom {} students by mean score", k);
+        return overallRanking(k, false);
+    }
+
+    private List<RankingEntryDTO> subjectRanking(String subjectId, int k, boolean highestFirst) {
+        validationService.validateAndGetSubject(subjectId);
+        List<RankingEntryDTO> entries = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            SubjectScoreIndex index = subjects.get(subjectId);
+            if (index == null) {
+                return entries;
+            }
+            for (Map.Entry<String, Integer> entry : index.take(clampK(k), highestFirst)) {
+                entries.add(new RankingEntryDTO(index.rankOf(entry.getValue()), entry.getKey(), null, score(entry.getValue())));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return withStudentNames(entries);
+    }
+
+    private List<RankingEntryDTO> overallRanking(int k, boolean highestFirst) {
+        int limit = clampK(k);
+        List<RankingEntryDTO> entries = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int total = overall.size();
+            int passed = 0;
+            Iterator<StudentMean> iterator = highestFirst ? overall.iterator() : overall.descendingIterator();
+            StudentMean pending = iterator.hasNext() ? iterator.next() : null;
+            // Walk tie groups so that equal means share the competition rank (1, 2, 2, 4)
+            while (pending != null && entries.size() < limit) {
+                List<StudentMean> ties = new ArrayList<>();
+                ties.add(pending);
+                pending = null;
+                while (iterator.hasNext()) {
+                    StudentMean next = iterator.next();
+                    if (!next.sameMeanAs(ties.get(0))) {
+                        pending = next;
+                        break;
+                    }
+                    ties.add(next);
+                }
+                int rank = highestFirst ? passed + 1 : total - passed - ties.size() + 1;
+                for (StudentMean mean : ties) {
+                    if (entries.size() < limit) {
+                        entries.add(new RankingEntryDTO(rank, mean.studentId(), null, mean.average()));
+                    }
+                }
+                passed += ties.size();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return withStudentNames(entries);
+    }
+
+    private List<RankingEntryDTO> withStudentNames(List<RankingEntryDTO> entries) {
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        Map<String, String> names = studentRepository.findAllById(
+                        entries.stream().map(RankingEntryDTO::getStudentId).toList()).stream()
+                .collect(Collectors.toMap(Student::getStudentId, Student::getStudentName));
+        entries.forEach(entry -> entry.setStudentName(names.get(entry.getStudentId())));
+        return entries;
+    }
+
+    private void put(String subjectId, String studentId, int tenths) {
+        SubjectScoreIndex index = subjects.computeIfAbsent(subjectId, id -> new SubjectScoreIndex());
+        Integer previous = index.scoreOf(studentId);
+        index.put(studentId, tenths);
+        adjustMean(studentId, previous, tenths);
+    }
+
+    private void remove(String subjectId, String studentId) {
+        SubjectScoreIndex index = subjects.get(subjectId);
+        Integer previous = index == null ? null : index.scoreOf(studentId);
+        if (previous == null) {
+            return;
+        }
+        index.remove(studentId);
+        if (index.isEmpty()) {
+            subjects.remove(subjectId);
+        }
+        adjustMean(studentId, previous, null);
+    }
+
+    private void adjustMean(String studentId, Integer removed, Integer added) {
+        StudentMean current = means.getOrDefault(studentId, new StudentMean(studentId, 0, 0));
+        long sum = current.sumTenths() - (removed == null ? 0 : removed) + (added == null ? 0 : added);
+        int count = current.count() - (removed == null ? 0 : 1) + (added == null ? 0 : 1);
+        overall.remove(current);
+        if (count == 0) {
+            means.remove(studentId);
+            return;
+        }
+        StudentMean updated = new StudentMean(studentId, sum, count);
+        means.put(studentId, updated);
+        overall.add(updated);
+    }
+
+    private static int clampK(int k) {
+        return Math.max(1, Math.min(k, MAX_K));
+    }
+
+    private static int tenths(BigDecimal score) {
+        return score.setScale(1, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+
+    private static BigDecimal score(int tenths) {
+        return BigDecimal.valueOf(tenths, 1);
+    }
+
+    private record StudentMean(String studentId, long sumTenths, int count) {
+
+        boolean sameMeanAs(StudentMean other) {
+            return sumTenths * other.count == other.sumTenths * count;
+        }
+
+        BigDecimal average() {
+            return BigDecimal.valueOf(sumTenths).divide(BigDecimal.valueOf(count * 10L), MathContext.DECIMAL64);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.exception.ResourceNotFoundException;
+import com.company.student_backend.repository.ReactiveReadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Đường đọc không chặn: không giữ luồng nào trong lúc chờ database, cùng thông báo lỗi với đường JPA
+ */
+@Service
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveReadService {
+
+    private final ReactiveReadRepository reactiveReadRepository;
+
+    public Flux<StudentDTO> getAllStudents() {
+        return reactiveReadRepository.findAllStudents();
+    }
+
+    public Mono<StudentDTO> getStudentById(String studentId) {
+        return reactiveReadRepository.findStudentById(studentId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Không tìm thấy học sinh với mã: " + studentId)));
+    }
+
+    public Flux<SubjectDTO> getAllSubjects() {
+        return reactiveReadRepository.findAllSubjects();
+    }
+
+    public Mono<SubjectDTO> getSubjectById(String subjectId) {
+        return reactiveReadRepository.findSubjectById(subjectId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Không tìm thấy môn học với mã: " + subjectId)));
+    }
+
+    public Flux<GradeDTO> getAllGrades() {
+        return reactiveReadRepository.findAllGrades();
+    }
+
+    public Mono<GradeDTO> getGradeById(Long id) {
+        return reactiveReadRepository.findGradeById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Không tìm thấy điểm với ID: " + id)));
+    }
+
+    public Flux<GradeDTO> getGradesByStudentId(String studentId) {
+        return reactiveReadRepository.findGradesByStudentId(studentId);
+    }
+
+    public Flux<GradeDTO> getGradesBySubjectId(String subjectId) {
+        return reactiveReadRepository.findGradesBySubjectId(subjectId);
+    }
+}
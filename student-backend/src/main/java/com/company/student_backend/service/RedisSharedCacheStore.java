@@ -0,0 +1,167 @@
+package com.company.student_backend.service;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * SharedCacheStore trên Redis (hoặc server tương thích giao thức Redis).
+ * Khoá có dạng {prefix}{cache}:{key}, hết hạn theo TTL; invalidation được phát qua pub/sub trên kênh {prefix}invalidate.
+ * evict thay giá trị bằng tombstone (chuỗi rỗng), clear đặt dấu {prefix}{cache}, cả hai sống trong khoảng tombstone;
+ * put là script Lua bỏ qua lần ghi khi còn tombstone/dấu clear. Nhờ vậy instance chưa nhận thông báo invalidation
+ * không ghi lại giá trị đã load trước lần ghi vào tầng chung.
+ * Thông báo bị lỡ khi mất kết nối không được gửi lại, nên TTL của tầng cục bộ là giới hạn trên cho dữ liệu cũ
+ */
+@Slf4j
+public class RedisSharedCacheStore implements SharedCacheStore, DisposableBean {
+
+    private static final int SCAN_BATCH = 500;
+    private static final byte[] TOMBSTONE = new byte[0];
+    // KEYS[1] value, KEYS[2] clear marker of its cache; ARGV[1] value, ARGV[2] TTL in milliseconds
+    private static final String PUT_SCRIPT = """
+            if redis.call('EXISTS', KEYS[2]) == 1 or redis.call('GET', KEYS[1]) == '' then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """;
+
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, byte[]> connection;
+    private final StatefulRedisPubSubConnection<String, String> pubSub;
+    private final String prefix;
+    private final String channel;
+    private final Duration tombstone;
+    // Lets this instance skip its own invalidations: it already dropped its local copy, and a late echo
+    // would otherwise discard values loaded after the write
+    private final String origin = UUID.randomUUID().toString();
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param tombstone thời gian chặn put sau evict/clear; nên lớn hơn invalidation-grace cộng độ trễ pub/sub
+     */
+    public RedisSharedCacheStore(String uri, String prefix, Duration timeout, Duration tombstone) {
+        RedisURI redisUri = RedisURI.create(uri);
+        redisUri.setTimeout(timeout);
+        this.client = RedisClient.create(redisUri);
+        // RESP2 is understood by every Redis-protocol server; pub/sub runs on its own connection anyway
+        client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+        this.prefix = prefix;
+        this.channel = prefix + "invalidate";
+        this.tombstone = tombstone;
+        this.connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        this.pubSub = client.connectPubSub(StringCodec.UTF8);
+        pubSub.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+                onInvalidation(message);
+            }
+        });
+        pubSub.sync().subscribe(channel);
+        log.info("Shared response cache connected to {}:{}", redisUri.getHost(), redisUri.getPort());
+    }
+
+    @Override
+    public byte[] get(String cache, String key) {
+        byte[] value = commands().get(key(cache, key));
+        return value == null || value.length == 0 ? null : value;
+    }
+
+    @Override
+    public void put(String cache, String key, byte[] value, Duration ttl) {
+        Long written = commands().eval(PUT_SCRIPT, ScriptOutputType.INTEGER,
+                new String[]{key(cache, key), clearMarker(cache)},
+                value, Long.toString(ttl.toMillis()).getBytes(StandardCharsets.US_ASCII));
+        if (written == null || written == 0) {
+            log.debug("Not caching {} {} in the shared tier: invalidated just before", cache, key);
+        }
+    }
+
+    @Override
+    public void evict(String cache, String key) {
+        commands().set(key(cache, key), TOMBSTONE, SetArgs.Builder.px(tombstone.toMillis()));
+        publish(cache + '\n' + key);
+    }
+
+    @Override
+    public void clear(String cache) {
+        RedisCommands<String, byte[]> commands = commands();
+        // Set before deleting, so that no put lands between the scan and the marker
+        commands.set(clearMarker(cache), TOMBSTONE, SetArgs.Builder.px(tombstone.toMillis()));
+        ScanArgs match = ScanArgs.Builder.matches(key(cache, "*")).limit(SCAN_BATCH);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<String> page = commands.scan(cursor, match);
+            if (!page.getKeys().isEmpty()) {
+                commands.del(page.getKeys().toArray(String[]::new));
+            }
+            cursor = page;
+        } while (!cursor.isFinished());
+        publish(cache);
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void destroy() {
+        pubSub.close();
+        connection.close();
+        client.shutdown();
+    }
+
+    private void publish(String message) {
+        commands().publish(channel, (origin + '\n' + message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void onInvalidation(String message) {
+        // "origin\ncache\nkey" evicts one key, "origin\ncache" clears the whole cache
+        int originEnd = message.indexOf('\n');
+        if (originEnd < 0 || message.substring(0, originEnd).equals(origin)) {
+            return;
+        }
+        String body = message.substring(originEnd + 1);
+        int separator = body.indexOf('\n');
+        String cache = separator < 0 ? body : body.substring(0, separator);
+        String key = separator < 0 ? null : body.substring(separator + 1);
+        for (BiConsumer<String, String> listener : listeners) {
+            listener.accept(cache, key);
+        }
+    }
+
+    private RedisCommands<String, byte[]> commands() {
+        return connection.sync();
+    }
+
+    private String key(String cache, String key) {
+        return prefix + cache + ':' + key;
+    }
+
+    private String clearMarker(String cache) {
+        return prefix + cache;
+    }
+}
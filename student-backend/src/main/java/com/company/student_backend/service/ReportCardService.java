@@ -0,0 +1,102 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.ReportCardDTO;
+import com.company.student_backend.dto.ReportCardEntryDTO;
+import com.company.student_backend.dto.ScoreStatsDTO;
+import com.company.student_backend.dto.StudentRankDTO;
+import com.company.student_backend.exception.InvalidRequestException;
+import com.company.student_backend.exception.ResourceNotFoundException;
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Phiếu điểm tổng hợp: thông tin học sinh, điểm từng môn kèm tên môn, điểm trung bình
+ * và thứ hạng trong từng môn. Mỗi lô chỉ chạy một câu SQL (fetch join điểm và môn học),
+ * thứ hạng lấy từ chỉ mục trong bộ nhớ của RankingService
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ReportCardService {
+
+    public static final int MAX_BATCH = 100;
+
+    private final StudentRepository studentRepository;
+    private final RankingService rankingService;
+
+    public ReportCardDTO getReportCard(String studentId) {
+        log.debug("Building report card for student ID: {}", studentId);
+        Student student = studentRepository.findByIdWithGrades(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy học sinh với mã: " + studentId));
+        return toReportCard(student);
+    }
+
+    /**
+     * Trả về phiếu điểm theo thứ tự mã trong yêu cầu; mã trùng được gộp, mã không tồn tại bị bỏ qua
+     */
+    public List<ReportCardDTO> getReportCards(List<String> studentIds) {
+        Set<String> ids = new LinkedHashSet<>(studentIds);
+        if (ids.size() > MAX_BATCH) {
+            throw new InvalidRequestException("Chỉ được lấy tối đa " + MAX_BATCH + " phiếu điểm mỗi lần");
+        }
+        log.debug("Building report cards for {} students", ids.size());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Student> students = studentRepository.findAllByIdWithGrades(ids).stream()
+                .collect(Collectors.toMap(Student::getStudentId, Function.identity()));
+        List<ReportCardDTO> reports = new ArrayList<>(students.size());
+        for (String id : ids) {
+            Student student = students.get(id);
+            if (student != null) {
+                reports.add(toReportCard(student));
+            }
+        }
+        return reports;
+    }
+
+    private ReportCardDTO toReportCard(Student student) {
+        List<ReportCardEntryDTO> entries = new ArrayList<>();
+        BigDecimal sum = BigDecimal.ZERO;
+        if (student.getGrades() != null) {
+            for (Grade grade : student.getGrades()) {
+                String subjectId = grade.getSubject().getSubjectId();
+                StudentRankDTO rank = rankingService.findStudentRankInSubject(subjectId, student.getStudentId());
+                entries.add(new ReportCardEntryDTO(
+                        subjectId,
+                        grade.getSubject().getSubjectName(),
+                        grade.getAverageScore(),
+                        rank == null ? null : rank.getRank(),
+                        rank == null ? null : rank.getTotal()
+                ));
+                sum = sum.add(grade.getAverageScore());
+            }
+        }
+        // Stable order keeps the payload, and therefore its ETag, identical between requests
+        entries.sort(Comparator.comparing(ReportCardEntryDTO::getSubjectId));
+        return new ReportCardDTO(
+                student.getStudentId(),
+                student.getStudentName(),
+                student.getBirthYear(),
+                entries,
+                entries.size(),
+                ScoreStatsDTO.average(sum, entries.size())
+        );
+    }
+}
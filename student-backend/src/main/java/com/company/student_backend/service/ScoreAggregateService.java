@@ -0,0 +1,224 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.AggregateRebuildResult;
+import com.company.student_backend.dto.ScoreStatsDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.model.ScoreAggregate;
+import com.company.student_backend.model.ScoreAggregateId;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.ScoreAggregateRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Duy trì tổng, số lượng, min, max điểm theo học sinh và theo môn học.
+ * Cập nhật đồng bộ trong transaction ghi điểm nên các endpoint điểm trung bình
+ * chỉ cần đọc một dòng thay vì chạy AVG trên bảng grades.
+ * Các dòng được khoá theo thứ tự (scope, scopeId) để hai transaction ghi nhiều điểm không khoá chéo nhau;
+ * dòng mới được tạo bằng một câu upsert nên hai lần ghi điểm đầu tiên đồng thời không cùng INSERT
+ */
+@Service
+@Slf4j
+@Transactional
+public class ScoreAggregateService {
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO score_aggregates (scope, scope_id, score_sum, score_count, min_score, max_score) " +
+            "SELECT ?, %1$s, SUM(average_score), COUNT(*), MIN(average_score), MAX(average_score) " +
+            "FROM grades GROUP BY %1$s";
+
+    // Adds a delta to the row, creating it if missing; min/max may be NULL on either side
+    private static final String MYSQL_UPSERT_SQL =
+            "INSERT INTO score_aggregates (scope, scope_id, score_sum, score_count, min_score, max_score) " +
+            "VALUES (?, ?, ?, ?, ?, ?) AS d " +
+            "ON DUPLICATE KEY UPDATE " +
+            "score_sum = score_aggregates.score_sum + d.score_sum, " +
+            "score_count = score_aggregates.score_count + d.score_count, " +
+            "min_score = LEAST(COALESCE(score_aggregates.min_score, d.min_score), COALESCE(d.min_score, score_aggregates.min_score)), " +
+            "max_score = GREATEST(COALESCE(score_aggregates.max_score, d.max_score), COALESCE(d.max_score, score_aggregates.max_score))";
+    private static final String MERGE_UPSERT_SQL =
+            "MERGE INTO score_aggregates a USING (VALUES (CAST(? AS VARCHAR(10)), CAST(? AS VARCHAR(10)), " +
+            "CAST(? AS DECIMAL(12,1)), CAST(? AS BIGINT), CAST(? AS DECIMAL(3,1)), CAST(? AS DECIMAL(3,1)))) " +
+            "AS d (scope, scope_id, score_sum, score_count, min_score, max_score) " +
+            "ON a.scope = d.scope AND a.scope_id = d.scope_id " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "score_sum = a.score_sum + d.score_sum, " +
+            "score_count = a.score_count + d.score_count, " +
+            "min_score = LEAST(COALESCE(a.min_score, d.min_score), COALESCE(d.min_score, a.min_score)), " +
+            "max_score = GREATEST(COALESCE(a.max_score, d.max_score), COALESCE(d.max_score, a.max_score)) " +
+            "WHEN NOT MATCHED THEN INSERT (scope, scope_id, score_sum, score_count, min_score, max_score) " +
+            "VALUES (d.scope, d.scope_id, d.score_sum, d.score_count, d.min_score, d.max_score)";
+    private static final String SELECT_FOR_UPDATE_SQL =
+            "SELECT score_sum, score_count, min_score, max_score FROM score_aggregates " +
+            "WHERE scope = ? AND scope_id = ? FOR UPDATE";
+    private static final String UPDATE_SQL =
+            "UPDATE score_aggregates SET score_sum = ?, score_count = ?, min_score = ?, max_score = ? " +
+            "WHERE scope = ? AND scope_id = ?";
+    private static final String DELETE_SQL =
+            "DELETE FROM score_aggregates WHERE scope = ? AND scope_id = ?";
+
+    // Global lock order for the rows one event touches
+    private static final Comparator<ScoreAggregateId> LOCK_ORDER =
+            Comparator.comparing(ScoreAggregateId::getScope).thenComparing(ScoreAggregateId::getScopeId);
+
+    private final ScoreAggregateRepository scoreAggregateRepository;
+    private final GradeRepository gradeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+
+    public ScoreAggregateService(ScoreAggregateRepository scoreAggregateRepository, GradeRepository gradeRepository,
+                                 JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.scoreAggregateRepository = scoreAggregateRepository;
+        this.gradeRepository = gradeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        boolean mysql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+        this.upsertSql = mysql ? MYSQL_UPSERT_SQL : MERGE_UPSERT_SQL;
+    }
+
+    @EventListener
+    public void onGradeChange(GradeChangeEvent event) {
+        Map<ScoreAggregateId, Delta> deltas = new TreeMap<>(LOCK_ORDER);
+        for (GradeChange change : event.changes()) {
+            deltas.computeIfAbsent(ScoreAggregateId.student(change.studentId()), id -> new Delta()).add(change);
+            deltas.computeIfAbsent(ScoreAggregateId.subject(change.subjectId()), id -> new Delta()).add(change);
+        }
+        deltas.forEach(this::applyDelta);
+    }
+
+    @Transactional(readOnly = true)
+    public ScoreStatsDTO getStudentStats(String studentId) {
+        log.debug("Reading score aggregate for student ID: {}", studentId);
+        return toStats(ScoreAggregateId.student(studentId));
+    }
+
+    @Transactional(readOnly = true)
+    public ScoreStatsDTO getSubjectStats(String subjectId) {
+        log.debug("Reading score aggregate for subject ID: {}", subjectId);
+        return toStats(ScoreAggregateId.subject(subjectId));
+    }
+
+    public AggregateRebuildResult rebuild() {
+        log.info("Rebuilding score aggregates from grades");
+        long start = System.nanoTime();
+        scoreAggregateRepository.deleteAllInBatch();
+        int students = jdbcTemplate.update(String.format(REBUILD_SQL, "student_id"), ScoreAggregateId.Scope.STUDENT.name());
+        int subjects = jdbcTemplate.update(String.format(REBUILD_SQL, "subject_id"), ScoreAggregateId.Scope.SUBJECT.name());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Rebuilt {} student and {} subject aggregates in {} ms", students, subjects, elapsedMillis);
+        return new AggregateRebuildResult(students, subjects, elapsedMillis);
+    }
+
+    private ScoreStatsDTO toStats(ScoreAggregateId id) {
+        return scoreAggregateRepository.findById(id)
+                .map(aggregate -> new ScoreStatsDTO(
+                        aggregate.getScoreCount(),
+                        aggregate.getScoreSum(),
+                        ScoreStatsDTO.average(aggregate.getScoreSum(), aggregate.getScoreCount()),
+                        aggregate.getMinScore(),
+                        aggregate.getMaxScore()))
+                .orElseGet(() -> new ScoreStatsDTO(0, BigDecimal.ZERO, null, null, null));
+    }
+
+    // Aggregate rows are written with JDBC only, so no stale ScoreAggregate entity lingers in the persistence context
+    private void applyDelta(ScoreAggregateId id, Delta delta) {
+        if (delta.removedMin == null) {
+            // Only additions: one statement creates or updates the row
+            upsert(id, delta.sum, delta.count, delta.addedMin, delta.addedMax);
+            return;
+        }
+
+        // Make sure the row exists, so the lock below is a row lock and never a gap lock;
+        // a row created here has count 0, which no counted row has (it is deleted at 0)
+        upsert(id, BigDecimal.ZERO, 0, null, null);
+        ScoreAggregate aggregate = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE_SQL, (rs, rowNum) -> new ScoreAggregate(
+                id, rs.getBigDecimal("score_sum"), rs.getLong("score_count"),
+                rs.getBigDecimal("min_score"), rs.getBigDecimal("max_score")),
+                id.getScope().name(), id.getScopeId());
+        boolean counted = aggregate.getScoreCount() > 0;
+
+        // Removing the current min/max (or a row we never counted) cannot be done incrementally:
+        // fall back to recounting this one student/subject from the grades table
+        boolean removedBound = !counted
+                || delta.removedMin.compareTo(aggregate.getMinScore()) <= 0
+                || delta.removedMax.compareTo(aggregate.getMaxScore()) >= 0;
+        if (removedBound) {
+            ScoreStatsDTO live = id.getScope() == ScoreAggregateId.Scope.STUDENT
+                    ? gradeRepository.findLiveStatsByStudentId(id.getScopeId())
+                    : gradeRepository.findLiveStatsBySubjectId(id.getScopeId());
+            aggregate.setScoreSum(live.getSum() == null ? BigDecimal.ZERO : live.getSum());
+            aggregate.setScoreCount(live.getCount());
+            aggregate.setMinScore(live.getMin());
+            aggregate.setMaxScore(live.getMax());
+        } else {
+            aggregate.setScoreSum(aggregate.getScoreSum().add(delta.sum));
+            aggregate.setScoreCount(aggregate.getScoreCount() + delta.count);
+            aggregate.setMinScore(min(aggregate.getMinScore(), delta.addedMin));
+            aggregate.setMaxScore(max(aggregate.getMaxScore(), delta.addedMax));
+        }
+
+        if (aggregate.getScoreCount() <= 0) {
+            jdbcTemplate.update(DELETE_SQL, id.getScope().name(), id.getScopeId());
+        } else {
+            jdbcTemplate.update(UPDATE_SQL, aggregate.getScoreSum(), aggregate.getScoreCount(),
+                    aggregate.getMinScore(), aggregate.getMaxScore(), id.getScope().name(), id.getScopeId());
+        }
+    }
+
+    private void upsert(ScoreAggregateId id, BigDecimal sum, long count, BigDecimal min, BigDecimal max) {
+        Object[] args = {id.getScope().name(), id.getScopeId(), sum, count, min, max};
+        try {
+            jdbcTemplate.update(upsertSql, args);
+        } catch (DuplicateKeyException e) {
+            // MERGE is not atomic against a concurrent insert of the same key (H2); ON DUPLICATE KEY UPDATE is.
+            // The insert that won has committed by now, so the retry takes the WHEN MATCHED branch
+            log.debug("Concurrent insert of score aggregate {}, retrying as update", id);
+            jdbcTemplate.update(upsertSql, args);
+        }
+    }
+
+    private static BigDecimal min(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.min(b);
+    }
+
+    private static BigDecimal max(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.max(b);
+    }
+
+    private static final class Delta {
+        private BigDecimal sum = BigDecimal.ZERO;
+        private long count;
+        private BigDecimal addedMin;
+        private BigDecimal addedMax;
+        private BigDecimal removedMin;
+        private BigDecimal removedMax;
+
+        private void add(GradeChange change) {
+            if (change.oldScore() != null) {
+                sum = sum.subtract(change.oldScore());
+                count--;
+                removedMin = min(removedMin, change.oldScore());
+                removedMax = max(removedMax, change.oldScore());
+            }
+            if (change.newScore() != null) {
+                sum = sum.add(change.newScore());
+                count++;
+                addedMin = min(addedMin, change.newScore());
+                addedMax = max(addedMax, change.newScore());
+            }
+        }
+    }
+}
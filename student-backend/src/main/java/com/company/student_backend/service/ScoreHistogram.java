@@ -0,0 +1,70 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.ScoreDistributionDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Bộ đếm cố định 101 mức điểm (0.0 .. 10.0) cho một nhóm. Mọi thống kê
+ * (trung bình, độ lệch chuẩn, phân vị, tỉ lệ đạt) được tính từ bộ đếm,
+ * không cần giữ danh sách điểm
+ */
+class ScoreHistogram {
+
+    static final int BUCKETS = 101;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    void add(BigDecimal score, long count) {
+        counts[score.setScale(1, RoundingMode.HALF_UP).unscaledValue().intValueExact()] += count;
+        total += count;
+    }
+
+    ScoreDistributionDTO toDistribution(String group, int passTenths) {
+        if (total == 0) {
+            return new ScoreDistributionDTO(group, 0, null, null, null, null, null, null, null, null, null, counts);
+        }
+
+        long sum = 0;
+        long passed = 0;
+        for (int tenths = 0; tenths < BUCKETS; tenths++) {
+            sum += tenths * counts[tenths];
+            if (tenths >= passTenths) {
+                passed += counts[tenths];
+            }
+        }
+        double mean = (double) sum / total;
+        double squares = 0;
+        for (int tenths = 0; tenths < BUCKETS; tenths++) {
+            double diff = tenths - mean;
+            squares += diff * diff * counts[tenths];
+        }
+        double stdDev = Math.sqrt(squares / total);
+
+        return new ScoreDistributionDTO(group, total,
+                tenthsToScore(mean), tenthsToScore(stdDev),
+                quantile(0), quantile(0.25), quantile(0.5), quantile(0.75), quantile(0.9), quantile(1),
+                (double) passed / total, counts);
+    }
+
+    /**
+     * Phân vị theo phương pháp nearest-rank: giá trị nhỏ nhất có ít nhất q * n điểm nhỏ hơn hoặc bằng
+     */
+    private BigDecimal quantile(double q) {
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long cumulative = 0;
+        for (int tenths = 0; tenths < BUCKETS; tenths++) {
+            cumulative += counts[tenths];
+            if (cumulative >= rank) {
+                return BigDecimal.valueOf(tenths, 1);
+            }
+        }
+        return BigDecimal.valueOf(BUCKETS - 1, 1);
+    }
+
+    private static BigDecimal tenthsToScore(double tenths) {
+        return BigDecimal.valueOf(tenths / 10).setScale(4, RoundingMode.HALF_UP);
+    }
+}
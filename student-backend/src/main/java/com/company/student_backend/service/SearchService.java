@@ -0,0 +1,78 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.CursorPage;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.event.StudentChangeEvent;
+import com.company.student_backend.event.SubjectChangeEvent;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tìm kiếm gợi ý (type-ahead) theo tên học sinh/môn học, không phân biệt hoa thường và dấu.
+ * Chỉ mục được nạp khi ứng dụng khởi động và cập nhật sau khi transaction ghi đã commit.
+ * nextCursor của trang kết quả là vị trí bắt đầu của trang kế tiếp, truyền lại qua tham số "offset"
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+
+    private final NameSearchIndex<StudentDTO> students = new NameSearchIndex<>();
+    private final NameSearchIndex<SubjectDTO> subjects = new NameSearchIndex<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("Building name search index");
+        students.clear();
+        subjects.clear();
+        try (Stream<StudentDTO> rows = studentRepository.streamAll()) {
+            rows.forEach(student -> students.put(student.getStudentId(), student.getStudentName(), student));
+        }
+        try (Stream<SubjectDTO> rows = subjectRepository.streamAll()) {
+            rows.forEach(subject -> subjects.put(subject.getSubjectId(), subject.getSubjectName(), subject));
+        }
+        log.info("Name search index built: {} students, {} subjects", students.size(), subjects.size());
+    }
+
+    public CursorPage<StudentDTO> searchStudents(String query, int offset, int limit) {
+        return page(students, query, offset, limit);
+    }
+
+    public CursorPage<SubjectDTO> searchSubjects(String query, int offset, int limit) {
+        return page(subjects, query, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        event.saved().forEach(student -> students.put(student.getStudentId(), student.getStudentName(), student));
+        event.deletedIds().forEach(students::remove);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubjectChange(SubjectChangeEvent event) {
+        event.saved().forEach(subject -> subjects.put(subject.getSubjectId(), subject.getSubjectName(), subject));
+        event.deletedIds().forEach(subjects::remove);
+    }
+
+    private static <T> CursorPage<T> page(NameSearchIndex<T> index, String query, int offset, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        int start = Math.max(0, offset);
+        List<T> rows = index.search(query, start, pageSize + 1);
+        return CursorPage.of(rows, pageSize, last -> String.valueOf(start + pageSize));
+    }
+}
@@ -0,0 +1,32 @@
+package com.company.student_backend.service;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Tầng cache dùng chung giữa các instance, nằm sau cache Caffeine trong tiến trình.
+ * evict/clear vừa xoá dữ liệu dùng chung vừa báo cho các instance khác bỏ bản sao cục bộ
+ * (instance gọi tự bỏ bản sao của mình)
+ */
+public interface SharedCacheStore {
+
+    /**
+     * @return null nếu không có khoá hoặc đã hết hạn
+     */
+    byte[] get(String cache, String key);
+
+    /**
+     * Không ghi nếu khoá (hoặc cả cache) vừa bị evict/clear: giá trị có thể được load trước lần ghi dữ liệu,
+     * từ một instance chưa nhận thông báo invalidation
+     */
+    void put(String cache, String key, byte[] value, Duration ttl);
+
+    void evict(String cache, String key);
+
+    void clear(String cache);
+
+    /**
+     * Nhận thông báo invalidation từ các instance khác; key null nghĩa là xoá toàn bộ cache
+     */
+    void subscribe(BiConsumer<String, String> listener);
+}
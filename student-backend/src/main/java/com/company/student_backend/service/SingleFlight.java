@@ -0,0 +1,118 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Gộp các lần đọc giống nhau đang chạy đồng thời (single-flight): trong một nhóm được bật ở app.single-flight.groups,
+ * lời gọi đầu tiên cho một khoá chạy truy vấn, các lời gọi cùng khoá đến trong lúc đó chờ và nhận chung kết quả
+ * (hoặc chung exception). Kết quả được dùng chung giữa các request nên không được sửa.
+ * Người chờ quá timeout của nhóm nhận 503 thay vì tự chạy thêm một truy vấn nữa
+ */
+@Service
+@Slf4j
+public class SingleFlight {
+
+    public static final String GRADES_BY_STUDENT = "grades-by-student";
+
+    private record FlightKey(String group, Object key) {
+    }
+
+    private record Group(Duration timeout, Counter executions, Counter collapsed, Counter timeouts) {
+    }
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(Environment environment, MeterRegistry meterRegistry) {
+        Map<String, Duration> timeouts = Binder.get(environment)
+                .bind("app.single-flight.groups", Bindable.mapOf(String.class, Duration.class))
+                .orElse(Map.of());
+        timeouts.forEach((name, timeout) -> groups.put(name, new Group(timeout,
+                counter(meterRegistry, "single_flight.executions", "Reads that ran their own query", name),
+                counter(meterRegistry, "single_flight.collapsed", "Reads that shared another caller's in-flight query", name),
+                counter(meterRegistry, "single_flight.timeouts", "Reads that gave up waiting for an in-flight query", name))));
+        log.info("Single-flight groups: {}", timeouts);
+    }
+
+    /**
+     * Chạy call, hoặc chờ lời gọi đang chạy với cùng (group, key); nhóm không được cấu hình thì chạy thẳng
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, Object key, Supplier<T> call) {
+        Group settings = groups.get(group);
+        // A write transaction must see its own uncommitted changes, not another caller's result
+        if (settings == null || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            return call.get();
+        }
+        FlightKey flightKey = new FlightKey(group, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, mine);
+        if (running != null) {
+            settings.collapsed().increment();
+            return (T) await(running, settings, flightKey);
+        }
+        settings.executions().increment();
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running, Group settings, FlightKey flightKey) {
+        try {
+            return running.get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Same read, same outcome: rethrow the first caller's error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            settings.timeouts().increment();
+            log.warn("Gave up waiting {} ms for in-flight read {} {}",
+                    settings.timeout().toMillis(), flightKey.group(), flightKey.key());
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        }
+    }
+
+    private static ServiceBusyException busy() {
+        return new ServiceBusyException("Hệ thống đang bận xử lý yêu cầu tương tự, vui lòng thử lại sau");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String description, String group) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("group", group)
+                .register(meterRegistry);
+    }
+}
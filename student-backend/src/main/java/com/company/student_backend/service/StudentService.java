@@ -1,18 +1,32 @@
 package com.company.student_backend.service;
 
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.dto.CursorPage;
 import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.event.StudentChangeEvent;
 import com.company.student_backend.exception.DuplicateResourceException;
+import com.company.student_backend.exception.ResourceNotFoundException;
 import com.company.student_backend.model.Student;
 import com.company.student_backend.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
@@ -20,7 +34,11 @@ public class StudentService {
 
     private final StudentRepository studentRepository;
     private final ValidationService validationService;
+    private final GradeService gradeService;
+    private final SearchService searchService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public List<StudentDTO> getAllStudents() {
         log.debug("Fetching all students");
         return studentRepository.findAll().stream()
@@ -28,12 +46,37 @@ public class StudentService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<StudentDTO> getStudentsPage(String after, int limit) {
+        log.debug("Fetching students page after ID: {} (limit {})", after, limit);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<StudentDTO> rows = studentRepository.findPageAfter(after == null ? "" : after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, StudentDTO::getStudentId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllStudents(Consumer<StudentDTO> consumer) {
+        log.debug("Streaming all students");
+        try (Stream<StudentDTO> students = studentRepository.streamAll()) {
+            students.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public StudentDTO getStudentById(String studentId) {
         log.debug("Fetching student with ID: {}", studentId);
-        Student student = validationService.validateAndGetStudent(studentId);
-        return convertToDTO(student);
+        StudentDTO student = validationService.validateAndGetStudent(studentId);
+        // Copy: the cached instance is shared
+        return new StudentDTO(student.getStudentId(), student.getStudentName(), student.getBirthYear());
     }
 
+    @Transactional(readOnly = true)
+    public BatchLookupResult<StudentDTO, String> getStudentsByIds(List<String> studentIds) {
+        log.debug("Fetching {} students by ID", studentIds.size());
+        return BatchLookupResult.lookup(studentIds, studentRepository::findDTOsByIdIn, StudentDTO::getStudentId);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.STUDENT_EXISTS, key = "#studentDTO.studentId")
     public StudentDTO createStudent(StudentDTO studentDTO) {
         log.debug("Creating new student: {}", studentDTO);
 
@@ -45,13 +88,23 @@ public class StudentService {
         Student savedStudent = studentRepository.save(student);
         log.info("Created student with ID: {}", savedStudent.getStudentId());
 
-        return convertToDTO(savedStudent);
+        StudentDTO result = convertToDTO(savedStudent);
+        eventPublisher.publishEvent(StudentChangeEvent.saved(result));
+        return result;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#studentId"),
+            // Birth year may change, which moves the student's grades to another cohort
+            @CacheEvict(cacheNames = CacheConfig.COHORT_ANALYTICS, allEntries = true),
+            // Grade rows carry the student name, in every subject the student takes
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_GRADES, allEntries = true)
+    })
     public StudentDTO updateStudent(String studentId, StudentDTO studentDTO) {
         log.debug("Updating student with ID: {}", studentId);
 
-        Student existingStudent = validationService.validateAndGetStudent(studentId);
+        Student existingStudent = studentRepository.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy học sinh với mã: " + studentId));
 
         existingStudent.setStudentName(studentDTO.getStudentName());
         existingStudent.setBirthYear(studentDTO.getBirthYear());
@@ -59,9 +112,15 @@ public class StudentService {
         Student updatedStudent = studentRepository.save(existingStudent);
         log.info("Updated student with ID: {}", updatedStudent.getStudentId());
 
-        return convertToDTO(updatedStudent);
+        StudentDTO result = convertToDTO(updatedStudent);
+        eventPublisher.publishEvent(StudentChangeEvent.saved(result));
+        return result;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#studentId"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENT_EXISTS, key = "#studentId")
+    })
     public void deleteStudent(String studentId) {
         log.debug("Deleting student with ID: {}", studentId);
 
@@ -69,10 +128,20 @@ public class StudentService {
             validationService.validateAndGetStudent(studentId); // Throws ResourceNotFoundException
         }
 
+        gradeService.deleteGradesByStudentId(studentId);
         studentRepository.deleteById(studentId);
+        eventPublisher.publishEvent(StudentChangeEvent.deleted(studentId));
         log.info("Deleted student with ID: {}", studentId);
     }
 
+    // In-memory lookup: no need to open a transaction or borrow a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPage<StudentDTO> suggestStudents(String query, int offset, int limit) {
+        log.debug("Suggesting students for query: {} (offset {}, limit {})", query, offset, limit);
+        return searchService.searchStudents(query, offset, limit);
+    }
+
+    @Transactional(readOnly = true)
     public List<StudentDTO> searchStudentsByName(String name) {
         log.debug("Searching students by name: {}", name);
         return studentRepository.findByStudentNameContainingIgnoreCase(name).stream()
@@ -80,6 +149,7 @@ public class StudentService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<StudentDTO> getStudentsByBirthYear(Integer birthYear) {
         log.debug("Fetching students by birth year: {}", birthYear);
         return studentRepository.findByBirthYear(birthYear).stream()
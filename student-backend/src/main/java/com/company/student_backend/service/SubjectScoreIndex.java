@@ -0,0 +1,108 @@
+package com.company.student_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Chỉ mục điểm của một môn học. Điểm là DECIMAL(3,1) trong [0, 10] nên chỉ có 101 mức;
+ * mỗi mức giữ tập mã học sinh đã sắp xếp, và một cây Fenwick đếm số học sinh theo mức
+ * để tính thứ hạng trong O(log 101) thay vì sắp xếp lại cả môn.
+ * Điểm được lưu dưới dạng số nguyên phần mười (7.5 -> 75). Không thread-safe, RankingService đồng bộ bên ngoài
+ */
+class SubjectScoreIndex {
+
+    static final int BUCKETS = 101;
+
+    private final Map<String, Integer> scoreByStudent = new HashMap<>();
+    private final int[] fenwick = new int[BUCKETS + 1];
+    @SuppressWarnings("unchecked")
+    private final TreeSet<String>[] studentsByBucket = new TreeSet[BUCKETS];
+
+    /**
+     * Idempotent: đặt lại điểm của học sinh, thay thế điểm cũ nếu có
+     */
+    void put(String studentId, int tenths) {
+        remove(studentId);
+        scoreByStudent.put(studentId, tenths);
+        if (studentsByBucket[tenths] == null) {
+            studentsByBucket[tenths] = new TreeSet<>();
+        }
+        studentsByBucket[tenths].add(studentId);
+        add(tenths, 1);
+    }
+
+    void remove(String studentId) {
+        Integer tenths = scoreByStudent.remove(studentId);
+        if (tenths != null) {
+            studentsByBucket[tenths].remove(studentId);
+            add(tenths, -1);
+        }
+    }
+
+    boolean isEmpty() {
+        return scoreByStudent.isEmpty();
+    }
+
+    int size() {
+        return scoreByStudent.size();
+    }
+
+    Integer scoreOf(String studentId) {
+        return scoreByStudent.get(studentId);
+    }
+
+    int countAtOrBelow(int tenths) {
+        int count = 0;
+        for (int i = tenths + 1; i > 0; i -= i & -i) {
+            count += fenwick[i];
+        }
+        return count;
+    }
+
+    /**
+     * Thứ hạng kiểu thi đấu (1, 2, 2, 4): số học sinh có điểm cao hơn cộng 1
+     */
+    int rankOf(int tenths) {
+        return size() - countAtOrBelow(tenths) + 1;
+    }
+
+    /**
+     * Phân vị: tỉ lệ học sinh có điểm thấp hơn, cộng một nửa số học sinh bằng điểm
+     */
+    double percentileOf(int tenths) {
+        int below = tenths == 0 ? 0 : countAtOrBelow(tenths - 1);
+        int equal = countAtOrBelow(tenths) - below;
+        return (below + equal / 2.0) * 100.0 / size();
+    }
+
+    /**
+     * Trả về tối đa k cặp (mã học sinh, điểm), từ cao xuống thấp hoặc ngược lại;
+     * cùng điểm thì sắp theo mã học sinh
+     */
+    List<Map.Entry<String, Integer>> take(int k, boolean highestFirst) {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(Math.min(k, size()));
+        for (int step = 0; step < BUCKETS && result.size() < k; step++) {
+            int tenths = highestFirst ? BUCKETS - 1 - step : step;
+            TreeSet<String> students = studentsByBucket[tenths];
+            if (students == null) {
+                continue;
+            }
+            for (String studentId : students) {
+                if (result.size() == k) {
+                    break;
+                }
+                result.add(Map.entry(studentId, tenths));
+            }
+        }
+        return result;
+    }
+
+    private void add(int tenths, int delta) {
+        for (int i = tenths + 1; i <= BUCKETS; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+}
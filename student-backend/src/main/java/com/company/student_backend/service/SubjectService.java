@@ -1,18 +1,33 @@
 package com.company.student_backend.service;
 
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.dto.CursorPage;
 import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.event.SubjectChangeEvent;
 import com.company.student_backend.exception.DuplicateResourceException;
+import com.company.student_backend.exception.ResourceNotFoundException;
 import com.company.student_backend.model.Subject;
 import com.company.student_backend.repository.SubjectRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
@@ -20,7 +35,12 @@ public class SubjectService {
 
     private final SubjectRepository subjectRepository;
     private final ValidationService validationService;
+    private final GradeService gradeService;
+    private final SearchService searchService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SUBJECT_LIST, sync = true)
     public List<SubjectDTO> getAllSubjects() {
         log.debug("Fetching all subjects");
         return subjectRepository.findAll().stream()
@@ -28,12 +48,40 @@ public class SubjectService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<SubjectDTO> getSubjectsPage(String after, int limit) {
+        log.debug("Fetching subjects page after ID: {} (limit {})", after, limit);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<SubjectDTO> rows = subjectRepository.findPageAfter(after == null ? "" : after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, SubjectDTO::getSubjectId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllSubjects(Consumer<SubjectDTO> consumer) {
+        log.debug("Streaming all subjects");
+        try (Stream<SubjectDTO> subjects = subjectRepository.streamAll()) {
+            subjects.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public SubjectDTO getSubjectById(String subjectId) {
         log.debug("Fetching subject with ID: {}", subjectId);
-        Subject subject = validationService.validateAndGetSubject(subjectId);
-        return convertToDTO(subject);
+        SubjectDTO subject = validationService.validateAndGetSubject(subjectId);
+        // Copy: the cached instance is shared
+        return new SubjectDTO(subject.getSubjectId(), subject.getSubjectName());
     }
 
+    @Transactional(readOnly = true)
+    public BatchLookupResult<SubjectDTO, String> getSubjectsByIds(List<String> subjectIds) {
+        log.debug("Fetching {} subjects by ID", subjectIds.size());
+        return BatchLookupResult.lookup(subjectIds, subjectRepository::findDTOsByIdIn, SubjectDTO::getSubjectId);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_EXISTS, key = "#subjectDTO.subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_LIST, allEntries = true)
+    })
     public SubjectDTO createSubject(SubjectDTO subjectDTO) {
         log.debug("Creating new subject: {}", subjectDTO);
 
@@ -45,22 +93,38 @@ public class SubjectService {
         Subject savedSubject = subjectRepository.save(subject);
         log.info("Created subject with ID: {}", savedSubject.getSubjectId());
 
-        return convertToDTO(savedSubject);
+        SubjectDTO result = convertToDTO(savedSubject);
+        eventPublisher.publishEvent(SubjectChangeEvent.saved(result));
+        return result;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_LIST, allEntries = true),
+            // Grade rows carry the subject name
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_GRADES, key = "#subjectId")
+    })
     public SubjectDTO updateSubject(String subjectId, SubjectDTO subjectDTO) {
         log.debug("Updating subject with ID: {}", subjectId);
 
-        Subject existingSubject = validationService.validateAndGetSubject(subjectId);
+        Subject existingSubject = subjectRepository.findById(subjectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy môn học với mã: " + subjectId));
 
         existingSubject.setSubjectName(subjectDTO.getSubjectName());
 
         Subject updatedSubject = subjectRepository.save(existingSubject);
         log.info("Updated subject with ID: {}", updatedSubject.getSubjectId());
 
-        return convertToDTO(updatedSubject);
+        SubjectDTO result = convertToDTO(updatedSubject);
+        eventPublisher.publishEvent(SubjectChangeEvent.saved(result));
+        return result;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_EXISTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_LIST, allEntries = true)
+    })
     public void deleteSubject(String subjectId) {
         log.debug("Deleting subject with ID: {}", subjectId);
 
@@ -68,10 +132,20 @@ public class SubjectService {
             validationService.validateAndGetSubject(subjectId); // Throws ResourceNotFoundException
         }
 
+        gradeService.deleteGradesBySubjectId(subjectId);
         subjectRepository.deleteById(subjectId);
+        eventPublisher.publishEvent(SubjectChangeEvent.deleted(subjectId));
         log.info("Deleted subject with ID: {}", subjectId);
     }
 
+    // In-memory lookup: no need to open a transaction or borrow a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPage<SubjectDTO> suggestSubjects(String query, int offset, int limit) {
+        log.debug("Suggesting subjects for query: {} (offset {}, limit {})", query, offset, limit);
+        return searchService.searchSubjects(query, offset, limit);
+    }
+
+    @Transactional(readOnly = true)
     public List<SubjectDTO> searchSubjectsByName(String name) {
         log.debug("Searching subjects by name: {}", name);
         return subjectRepository.findBySubjectNameContainingIgnoreCase(name).stream()
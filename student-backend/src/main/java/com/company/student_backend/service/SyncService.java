@@ -0,0 +1,109 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.CursorPage;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.dto.SyncResponseDTO;
+import com.company.student_backend.model.ChangeLogEntry;
+import com.company.student_backend.model.ChangeLogEntry.EntityType;
+import com.company.student_backend.model.ChangeLogEntry.Op;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Đồng bộ delta: đọc change_log sau checkpoint của client, gộp nhiều thay đổi của cùng
+ * thực thể thành thao tác cuối cùng và nạp trạng thái hiện tại của các bản ghi còn tồn tại
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class SyncService {
+
+    private final ChangeLogService changeLogService;
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final GradeRepository gradeRepository;
+
+    // Entries younger than this are held back, so a transaction that took a lower seq
+    // but committed later is not skipped by a client that already moved past it
+    @Value("${app.sync.settle-window:1s}")
+    private Duration settleWindow;
+
+    /**
+     * since = null: client chưa từng đồng bộ, trả fullResync kèm checkpoint hiện tại
+     */
+    public SyncResponseDTO getChanges(Long since, int limit) {
+        log.debug("Fetching changes since seq: {} (limit {})", since, limit);
+        LocalDateTime cutoff = ChangeLogService.now().minus(settleWindow);
+        long purgedThrough = changeLogService.purgedThrough();
+        if (since == null || since < purgedThrough) {
+            // Never hand out a checkpoint below the watermark, even when compaction emptied the log
+            return SyncResponseDTO.fullResync(Math.max(changeLogService.latestSeq(cutoff), purgedThrough));
+        }
+
+        int pageSize = CursorPage.clampLimit(limit);
+        List<ChangeLogEntry> entries = changeLogService.findAfter(since, cutoff, pageSize + 1);
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+        long checkpoint = entries.isEmpty() ? since : entries.get(entries.size() - 1).getSeq();
+
+        // Last operation wins per entity
+        Map<EntityType, Map<String, Op>> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            latest.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+                    .put(entry.getEntityId(), entry.getOp());
+        }
+
+        Changes<String, StudentDTO> students = load(latest.get(EntityType.STUDENT), Function.identity(),
+                studentRepository::findDTOsByIdIn, StudentDTO::getStudentId);
+        Changes<String, SubjectDTO> subjects = load(latest.get(EntityType.SUBJECT), Function.identity(),
+                subjectRepository::findDTOsByIdIn, SubjectDTO::getSubjectId);
+        Changes<Long, GradeDTO> grades = load(latest.get(EntityType.GRADE), Long::valueOf,
+                gradeRepository::findDTOsByIdIn, GradeDTO::getId);
+
+        return new SyncResponseDTO(checkpoint, false, hasMore,
+                students.upserts(), subjects.upserts(), grades.upserts(),
+                students.deletedIds(), subjects.deletedIds(), grades.deletedIds());
+    }
+
+    private record Changes<K, T>(List<T> upserts, List<K> deletedIds) {
+    }
+
+    private static <K extends Comparable<K>, T> Changes<K, T> load(Map<String, Op> ops,
+                                                                   Function<String, K> parseId,
+                                                                   Function<Set<K>, List<T>> findByIds,
+                                                                   Function<T, K> idOf) {
+        if (ops == null) {
+            return new Changes<>(List.of(), List.of());
+        }
+        Set<K> upsertIds = new TreeSet<>();
+        Set<K> deletedIds = new TreeSet<>();
+        ops.forEach((id, op) -> (op == Op.DELETE ? deletedIds : upsertIds).add(parseId.apply(id)));
+
+        List<T> upserts = upsertIds.isEmpty() ? List.of() : findByIds.apply(upsertIds);
+        // A row missing here was deleted by a later entry beyond this page; report it as deleted now
+        upserts.forEach(row -> upsertIds.remove(idOf.apply(row)));
+        deletedIds.addAll(upsertIds);
+        return new Changes<>(upserts, new ArrayList<>(deletedIds));
+    }
+}
@@ -1,19 +1,26 @@
 package com.company.student_backend.service;
 
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
 import com.company.student_backend.exception.ResourceNotFoundException;
-import com.company.student_backend.model.Student;
-import com.company.student_backend.model.Subject;
 import com.company.student_backend.repository.StudentRepository;
 import com.company.student_backend.repository.SubjectRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 /**
  * Validation service to handle common validation logic
  * Tránh lặp lại code validation trong các service khác
+ * Kết quả tra cứu được cache (xem CacheConfig); StudentService/SubjectService xoá cache khi ghi.
+ * Cache giữ DTO chứ không giữ entity: entity detached dùng chung giữa các transaction sẽ ném
+ * LazyInitializationException khi chạm quan hệ lazy. DTO trả về là bản dùng chung, không được sửa
  */
 @Service
+@Timed(value = "app.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ValidationService {
@@ -24,24 +31,26 @@ public class ValidationService {
     /**
      * Validate and get student by ID
      * @param studentId ID của sinh viên
-     * @return Student entity
+     * @return thông tin sinh viên
      * @throws ResourceNotFoundException nếu không tìm thấy sinh viên
      */
-    public Student validateAndGetStudent(String studentId) {
+    @Cacheable(cacheNames = CacheConfig.STUDENTS, key = "#studentId", sync = true)
+    public StudentDTO validateAndGetStudent(String studentId) {
         log.debug("Validating student with ID: {}", studentId);
-        return studentRepository.findById(studentId)
+        return studentRepository.findDTOById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy học sinh với mã: " + studentId));
     }
 
     /**
      * Validate and get subject by ID
      * @param subjectId ID của môn học
-     * @return Subject entity
+     * @return thông tin môn học
      * @throws ResourceNotFoundException nếu không tìm thấy môn học
      */
-    public Subject validateAndGetSubject(String subjectId) {
+    @Cacheable(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId", sync = true)
+    public SubjectDTO validateAndGetSubject(String subjectId) {
         log.debug("Validating subject with ID: {}", subjectId);
-        return subjectRepository.findById(subjectId)
+        return subjectRepository.findDTOById(subjectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy môn học với mã: " + subjectId));
     }
 
@@ -50,6 +59,7 @@ public class ValidationService {
      * @param studentId ID của sinh viên
      * @return true nếu tồn tại, false nếu không
      */
+    @Cacheable(cacheNames = CacheConfig.STUDENT_EXISTS, key = "#studentId", sync = true)
     public boolean isStudentExists(String studentId) {
         return studentRepository.existsById(studentId);
     }
@@ -59,6 +69,7 @@ public class ValidationService {
      * @param subjectId ID của môn học
      * @return true nếu tồn tại, false nếu không
      */
+    @Cacheable(cacheNames = CacheConfig.SUBJECT_EXISTS, key = "#subjectId", sync = true)
     public boolean isSubjectExists(String subjectId) {
         return subjectRepository.existsById(subjectId);
     }
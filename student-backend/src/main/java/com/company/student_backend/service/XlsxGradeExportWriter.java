@@ -0,0 +1,65 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * SXSSF chỉ giữ một cửa sổ dòng trong bộ nhớ, phần còn lại được đẩy ra file tạm (nén);
+ * tự sang sheet mới khi vượt giới hạn dòng của XLSX
+ */
+class XlsxGradeExportWriter implements GradeExportWriter {
+
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private SXSSFSheet sheet;
+    private int nextRow;
+
+    XlsxGradeExportWriter(OutputStream out) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        newSheet();
+    }
+
+    @Override
+    public void write(GradeDTO grade) {
+        if (nextRow == MAX_ROWS_PER_SHEET) {
+            newSheet();
+        }
+        Row row = sheet.createRow(nextRow++);
+        row.createCell(0).setCellValue(grade.getId());
+        row.createCell(1).setCellValue(grade.getStudentId());
+        row.createCell(2).setCellValue(grade.getStudentName());
+        row.createCell(3).setCellValue(grade.getSubjectId());
+        row.createCell(4).setCellValue(grade.getSubjectName());
+        row.createCell(5).setCellValue(grade.getAverageScore().doubleValue());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            workbook.write(out);
+        } finally {
+            // Also deletes the temporary sheet files
+            workbook.close();
+        }
+    }
+
+    private void newSheet() {
+        sheet = workbook.createSheet("Bảng điểm " + (workbook.getNumberOfSheets() + 1));
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADER.length; i++) {
+            header.createCell(i).setCellValue(HEADER[i]);
+        }
+        nextRow = 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.company.student_backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Permit được trả khi đóng kết nối (chỉ một lần) hoặc khi mượn kết nối thất bại; hết permit thì bị từ chối sau maxWait
+ */
+class LimitingDataSourceTest {
+
+    private SimpleMeterRegistry registry;
+    private DataSource target;
+    private LimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        registry = new SimpleMeterRegistry();
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new LimitingDataSource(target, new ConnectionLimiter(2, Duration.ofMillis(50), registry));
+    }
+
+    @Test
+    void releasesPermitOnceWhenConnectionIsClosed() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(2.0, gauge("db.limiter.active"));
+
+        first.close();
+        first.close();
+        assertEquals(1.0, gauge("db.limiter.active"));
+
+        second.close();
+        assertEquals(0.0, gauge("db.limiter.active"));
+    }
+
+    @Test
+    void rejectsAfterMaxWaitWhenAllPermitsAreHeld() throws SQLException {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1.0, registry.get("db.limiter.rejected").counter().count());
+        assertEquals(3, registry.get("db.limiter.wait").timer().count());
+    }
+
+    @Test
+    void releasesPermitWhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(0.0, gauge("db.limiter.active"));
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
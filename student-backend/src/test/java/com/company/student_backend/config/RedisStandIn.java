@@ -0,0 +1,247 @@
+package com.company.student_backend.config;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Server giả lập giao thức Redis (RESP2) trong bộ nhớ, chỉ đủ lệnh cho RedisSharedCacheStore:
+ * GET, SET [PX], DEL, SCAN MATCH, PUBLISH, SUBSCRIBE và các lệnh bắt tay của client.
+ * EVAL không chạy Lua: nó làm đúng việc của script put có điều kiện trong RedisSharedCacheStore
+ */
+class RedisStandIn implements AutoCloseable {
+
+    private record Value(byte[] data, long expiresAt) {
+    }
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Value> data = new ConcurrentHashMap<>();
+    private final Map<String, Set<OutputStream>> channels = new ConcurrentHashMap<>();
+
+    RedisStandIn() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(this::accept, "redis-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String uri() {
+        return "redis://localhost:" + serverSocket.getLocalPort();
+    }
+
+    void flushAll() {
+        data.clear();
+    }
+
+    int size() {
+        data.values().removeIf(value -> value.expiresAt() < System.currentTimeMillis());
+        return data.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread connection = new Thread(() -> serve(socket), "redis-stand-in-connection");
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            List<byte[]> command;
+            while ((command = readCommand(in)) != null) {
+                byte[] reply = execute(command, out);
+                synchronized (out) {
+                    out.write(reply);
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Client disconnected
+        }
+    }
+
+    // Redis runs commands one at a time, which makes EVAL atomic
+    private synchronized byte[] execute(List<byte[]> command, OutputStream out) {
+        String name = string(command.get(0)).toUpperCase();
+        return switch (name) {
+            case "PING" -> simple("PONG");
+            case "CLIENT", "SELECT", "AUTH" -> simple("OK");
+            case "GET" -> get(string(command.get(1)));
+            case "SET" -> {
+                long ttl = command.size() >= 5 && string(command.get(3)).equalsIgnoreCase("PX")
+                        ? Long.parseLong(string(command.get(4))) : Long.MAX_VALUE / 2;
+                data.put(string(command.get(1)), new Value(command.get(2), System.currentTimeMillis() + ttl));
+                yield simple("OK");
+            }
+            case "EVAL" -> conditionalPut(command);
+            case "DEL", "UNLINK" -> {
+                long removed = command.subList(1, command.size()).stream()
+                        .filter(key -> data.remove(string(key)) != null)
+                        .count();
+                yield integer(removed);
+            }
+            case "SCAN" -> scan(command);
+            case "PUBLISH" -> integer(publish(string(command.get(1)), command.get(2)));
+            case "SUBSCRIBE" -> {
+                String channel = string(command.get(1));
+                channels.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(out);
+                yield array(bulk("subscribe"), bulk(channel), integer(1));
+            }
+            default -> ("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    private byte[] get(String key) {
+        Value value = live(key);
+        if (value == null) {
+            return "$-1\r\n".getBytes(StandardCharsets.UTF_8);
+        }
+        return bulk(value.data());
+    }
+
+    private byte[] conditionalPut(List<byte[]> command) {
+        // EVAL script 2 valueKey clearMarker value ttlMillis
+        String key = string(command.get(3));
+        Value current = live(key);
+        if (live(string(command.get(4))) != null || current != null && current.data().length == 0) {
+            return integer(0);
+        }
+        long ttl = Long.parseLong(string(command.get(6)));
+        data.put(key, new Value(command.get(5), System.currentTimeMillis() + ttl));
+        return integer(1);
+    }
+
+    private Value live(String key) {
+        Value value = data.get(key);
+        return value == null || value.expiresAt() < System.currentTimeMillis() ? null : value;
+    }
+
+    private byte[] scan(List<byte[]> command) {
+        Pattern pattern = Pattern.compile(".*");
+        for (int i = 2; i + 1 < command.size(); i += 2) {
+            if (string(command.get(i)).equalsIgnoreCase("MATCH")) {
+                pattern = glob(string(command.get(i + 1)));
+            }
+        }
+        // Everything in one page: cursor 0 ends the scan
+        List<byte[]> keys = new ArrayList<>();
+        for (String key : data.keySet()) {
+            if (pattern.matcher(key).matches()) {
+                keys.add(bulk(key));
+            }
+        }
+        return array(bulk("0"), array(keys.toArray(byte[][]::new)));
+    }
+
+    private long publish(String channel, byte[] message) {
+        Set<OutputStream> subscribers = channels.getOrDefault(channel, Set.of());
+        byte[] push = array(bulk("message"), bulk(channel), bulk(message));
+        for (OutputStream subscriber : subscribers) {
+            try {
+                synchronized (subscriber) {
+                    subscriber.write(push);
+                    subscriber.flush();
+                }
+            } catch (IOException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+        return subscribers.size();
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            parts.add(in.readNBytes(length));
+            in.readNBytes(2);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\r') {
+                in.read();
+                return line.toString(StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (!regex.isEmpty()) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] simple(String value) {
+        return ("+" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] integer(long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bulk(String value) {
+        return bulk(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bulk(byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(value);
+        out.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static byte[] array(byte[]... elements) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(("*" + elements.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        for (byte[] element : elements) {
+            out.writeBytes(element);
+        }
+        return out.toByteArray();
+    }
+}
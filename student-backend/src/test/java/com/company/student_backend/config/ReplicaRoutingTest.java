@@ -0,0 +1,204 @@
+package com.company.student_backend.config;
+
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.http.Cookie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Hai cơ sở dữ liệu H2 đóng vai primary và replica (replica không được sao chép,
+ * nên dữ liệu đọc được cho biết transaction đã đi vào đâu).
+ * Qua HTTP, cửa sổ read-your-writes chỉ áp dụng cho client gửi lại cookie/header thời điểm ghi,
+ * và giá trị đọc từ replica ngay sau một lần ghi không được giữ trong cache
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary",
+        "app.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "app.datasource.replica.read-your-writes-window=" + ReplicaRoutingTest.WINDOW_MILLIS + "ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    // Wide enough for a write and the next read, even on the first (slow) requests of the context
+    static final long WINDOW_MILLIS = 1000;
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        replica.update("INSERT INTO students (student_id, student_name, birth_year) VALUES ('SV900', 'Bản sao', 2000)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.update("DELETE FROM grades");
+        replica.update("DELETE FROM subjects");
+        replica.update("DELETE FROM students");
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaOutsideReadYourWritesWindow() throws InterruptedException {
+        Thread.sleep(WINDOW_MILLIS + 200);
+
+        assertEquals(List.of("SV900"), studentIds(studentService.getStudentsPage(null, 10).getItems()));
+    }
+
+    @Test
+    void readsRightAfterWriteGoToPrimaryUntilWindowPasses() throws InterruptedException {
+        studentService.createStudent(new StudentDTO("SV001", "Nguyễn Văn An", 2001));
+
+        // Read-your-writes: the replica has not seen SV001 yet, so the read stays on the primary
+        assertEquals(List.of("SV001"), studentIds(studentService.getStudentsPage(null, 10).getItems()));
+
+        Thread.sleep(WINDOW_MILLIS + 200);
+        assertEquals(List.of("SV900"), studentIds(studentService.getStudentsPage(null, 10).getItems()));
+    }
+
+    @Test
+    void cookieKeepsOnlyTheWritingClientOnPrimary() throws Exception {
+        MvcResult write = createStudent("SV001");
+        Cookie lastWrite = write.getResponse().getCookie(ReplicaLagGuard.COOKIE);
+        assertNotNull(lastWrite);
+
+        expectFirstStudent(get("/api/students").param("limit", "10").cookie(lastWrite), "SV001");
+        // Another client has not written anything and keeps reading the replica
+        expectFirstStudent(get("/api/students").param("limit", "10"), "SV900");
+
+        Thread.sleep(WINDOW_MILLIS + 200);
+        expectFirstStudent(get("/api/students").param("limit", "10").cookie(lastWrite), "SV900");
+    }
+
+    @Test
+    void headerCarriesLastWriteForClientsWithoutCookies() throws Exception {
+        String lastWrite = createStudent("SV001").getResponse().getHeader(ReplicaLagGuard.HEADER);
+        assertNotNull(lastWrite);
+
+        expectFirstStudent(get("/api/students").param("limit", "10").header(ReplicaLagGuard.HEADER, lastWrite), "SV001");
+    }
+
+    @Test
+    void lastWriteFarInTheFutureIsIgnored() throws Exception {
+        String future = String.valueOf(System.currentTimeMillis() + 3_600_000);
+
+        expectFirstStudent(get("/api/students").param("limit", "10")
+                .cookie(new Cookie(ReplicaLagGuard.COOKIE, future)), "SV900");
+    }
+
+    @Test
+    void gradesByStudentReadFromReplicaWithoutOpeningWriteWindow() throws Exception {
+        replica.update("INSERT INTO subjects (subject_id, subject_name) VALUES ('MH900', 'Toán')");
+        replica.update("INSERT INTO grades (student_id, subject_id, average_score) VALUES ('SV900', 'MH900', 8.5)");
+        Thread.sleep(WINDOW_MILLIS + 200);
+
+        MvcResult result = mockMvc.perform(get("/api/grades/student/{id}", "SV900"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].subjectId").value("MH900"))
+                .andReturn();
+        assertNull(result.getResponse().getHeader(ReplicaLagGuard.HEADER));
+        assertNull(result.getResponse().getCookie(ReplicaLagGuard.COOKIE));
+    }
+
+    @Test
+    void lookupLoadedFromLaggingReplicaRightAfterWriteIsNotCached() throws Exception {
+        studentRepository.save(new Student("SV900", "Bản sao", 2000, null));
+        Thread.sleep(WINDOW_MILLIS + 200);
+        mockMvc.perform(put("/api/students/{id}", "SV900")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV900\",\"studentName\":\"Đã sửa\",\"birthYear\":2000}"))
+                .andExpect(status().isOk());
+
+        // Another client reads the replica, which has not applied the update yet
+        expectStudentName("SV900", "Bản sao");
+        replica.update("UPDATE students SET student_name = 'Đã sửa' WHERE student_id = 'SV900'");
+        expectStudentName("SV900", "Đã sửa");
+    }
+
+    @Test
+    void staleReplicaReadRightAfterWriteCarriesNoValidators() throws Exception {
+        studentRepository.save(new Student("SV900", "Bản sao", 2000, null));
+        Thread.sleep(WINDOW_MILLIS + 200);
+        mockMvc.perform(put("/api/students/{id}", "SV900")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV900\",\"studentName\":\"Đã sửa\",\"birthYear\":2000}"))
+                .andExpect(status().isOk());
+
+        // The new version must not be attached to the replica's pre-write row
+        mockMvc.perform(get("/api/students/{id}", "SV900"))
+                .andExpect(jsonPath("$.studentName").value("Bản sao"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        replica.update("UPDATE students SET student_name = 'Đã sửa' WHERE student_id = 'SV900'");
+        Thread.sleep(WINDOW_MILLIS + 200);
+        mockMvc.perform(get("/api/students/{id}", "SV900"))
+                .andExpect(jsonPath("$.studentName").value("Đã sửa"))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    private MvcResult createStudent(String studentId) throws Exception {
+        return mockMvc.perform(post("/api/students")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"" + studentId + "\",\"studentName\":\"Nguyễn Văn An\",\"birthYear\":2001}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    private void expectFirstStudent(MockHttpServletRequestBuilder request, String studentId) throws Exception {
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].studentId").value(studentId));
+    }
+
+    private void expectStudentName(String studentId, String name) throws Exception {
+        mockMvc.perform(get("/api/students/{id}", studentId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentName").value(name));
+    }
+
+    private static List<String> studentIds(List<StudentDTO> students) {
+        return students.stream().map(StudentDTO::getStudentId).toList();
+    }
+}
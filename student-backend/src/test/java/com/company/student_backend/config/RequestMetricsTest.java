@@ -0,0 +1,80 @@
+package com.company.student_backend.config;
+
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.service.StudentService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Metric theo request (số câu SQL, thời gian JDBC), timer của service và log request chậm
+ */
+@SpringBootTest(properties = "app.metrics.slow-request-threshold=0ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class RequestMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void recordsSqlStatementsPerEndpointAndServiceTimers() throws Exception {
+        mockMvc.perform(post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"studentName\":\"Học sinh 1\",\"birthYear\":2001}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/students/{id}", "SV001")).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.sql.statements")
+                .tags("uri", "/api/students/{studentId}", "method", "GET")
+                .summary();
+        assertThat(statements.count()).isPositive();
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1);
+        Timer jdbcTime = meterRegistry.get("http.server.requests.sql.time")
+                .tags("uri", "/api/students", "method", "POST")
+                .timer();
+        assertThat(jdbcTime.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+
+        Timer serviceTimer = meterRegistry.get("app.service")
+                .tags("class", StudentService.class.getName(), "method", "getStudentById")
+                .timer();
+        assertThat(serviceTimer.count()).isPositive();
+    }
+
+    @Test
+    void slowRequestLogIncludesQueryBreakdown(CapturedOutput output) throws Exception {
+        mockMvc.perform(get("/api/students/{id}", "missing")).andExpect(status().isNotFound());
+
+        assertThat(output).contains("Slow request GET /api/students/missing (/api/students/{studentId})");
+        assertThat(output.getOut().toLowerCase()).contains("from students");
+    }
+}
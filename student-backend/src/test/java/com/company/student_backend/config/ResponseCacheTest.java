@@ -0,0 +1,314 @@
+package com.company.student_backend.config;
+
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.repository.SubjectRepository;
+import com.company.student_backend.service.DataVersionService;
+import com.company.student_backend.service.RedisSharedCacheStore;
+import com.company.student_backend.service.SharedCacheStore;
+import com.company.student_backend.service.SubjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache kết quả hai tầng với tầng chung chạy trên RedisStandIn: ứng dụng trong context là instance A,
+ * instance B được dựng thủ công trên cùng server để kiểm tra chia sẻ và invalidation giữa các instance
+ */
+@SpringBootTest(properties = {
+        "app.response-cache.shared.store=redis",
+        "app.response-cache.shared.redis.tombstone=" + ResponseCacheTest.TOMBSTONE_MILLIS + "ms"
+})
+@ActiveProfiles("test")
+class ResponseCacheTest {
+
+    static final long TOMBSTONE_MILLIS = 300;
+
+    private static final RedisStandIn REDIS;
+
+    static {
+        try {
+            REDIS = new RedisStandIn();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.response-cache.shared.redis.uri", REDIS::uri);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        REDIS.close();
+    }
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    private RedisSharedCacheStore otherStore;
+
+    @BeforeEach
+    void setUp() {
+        otherStore = new RedisSharedCacheStore(REDIS.uri(), "response-cache:", Duration.ofSeconds(1),
+                Duration.ofMillis(TOMBSTONE_MILLIS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherStore.destroy();
+        subjectRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        // Drop the clear markers too: the next test starts with an empty shared tier
+        REDIS.flushAll();
+    }
+
+    @Test
+    void otherInstanceReadsSharedTierAndDropsLocalCopyOnWrite() throws InterruptedException {
+        subjectService.createSubject(new SubjectDTO("MH001", "Toán"));
+        Thread.sleep(TOMBSTONE_MILLIS + 100);
+        assertEquals(1, subjectService.getAllSubjects().size());
+
+        TwoTierCache other = otherInstance(CacheConfig.SUBJECT_LIST,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, SubjectDTO.class));
+        AtomicInteger loads = new AtomicInteger();
+        List<SubjectDTO> fromShared = other.get(SimpleKey.EMPTY, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(List.of(new SubjectDTO("MH001", "Toán")), fromShared);
+        assertEquals(0, loads.get());
+
+        subjectService.createSubject(new SubjectDTO("MH002", "Văn"));
+        // Invalidation reaches the other instance asynchronously over pub/sub
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> otherLocal = (Cache<Object, Object>) other.getNativeCache();
+        for (int attempt = 0; attempt < 100 && otherLocal.estimatedSize() > 0; attempt++) {
+            Thread.sleep(20);
+        }
+        assertNull(otherLocal.getIfPresent(SimpleKey.EMPTY.toString()));
+        // The shared tier takes the new list once the write's clear marker has expired
+        Thread.sleep(TOMBSTONE_MILLIS + 100);
+        assertEquals(2, subjectService.getAllSubjects().size());
+        assertEquals(2, other.get(SimpleKey.EMPTY, List::of).size());
+    }
+
+    @Test
+    void coldKeyIsLoadedOncePerInstanceAndThenServedFromSharedTier() throws Exception {
+        TwoTierCache first = otherInstance(CacheConfig.SUBJECT_AVERAGE,
+                objectMapper.getTypeFactory().constructType(BigDecimal.class));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return first.get("MH001", () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(200);
+                        return new BigDecimal("7.5");
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                assertEquals(new BigDecimal("7.5"), result.get());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+
+        TwoTierCache second = otherInstance(CacheConfig.SUBJECT_AVERAGE,
+                objectMapper.getTypeFactory().constructType(BigDecimal.class));
+        assertEquals(new BigDecimal("7.5"), second.get("MH001", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void valueLoadedAcrossAnotherInstancesWriteIsReturnedButNotCached() throws Exception {
+        TwoTierCache other = otherInstance(CacheConfig.SUBJECT_LIST,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, SubjectDTO.class));
+        Semaphore invalidated = new Semaphore(0);
+        otherStore.subscribe((cacheName, key) -> {
+            if (cacheName.equals(CacheConfig.SUBJECT_LIST)) {
+                invalidated.release();
+            }
+        });
+        subjectService.createSubject(new SubjectDTO("MH001", "Toán"));
+        // Consume this write's invalidation so that it cannot be mistaken for the next one's
+        assertTrue(invalidated.tryAcquire(2, TimeUnit.SECONDS));
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            // The loader reads the rows before the write commits and finishes after its invalidation
+            Future<List<SubjectDTO>> stale = reader.submit(() -> other.get(SimpleKey.EMPTY, () -> {
+                List<SubjectDTO> rows = subjectRows();
+                loading.countDown();
+                written.await();
+                return rows;
+            }));
+            loading.await();
+            subjectService.createSubject(new SubjectDTO("MH002", "Văn"));
+            assertTrue(invalidated.tryAcquire(2, TimeUnit.SECONDS));
+            written.countDown();
+
+            assertEquals(1, stale.get().size());
+        } finally {
+            reader.shutdownNow();
+        }
+        assertNull(otherStore.get(CacheConfig.SUBJECT_LIST, SimpleKey.EMPTY.toString()));
+        assertEquals(2, other.get(SimpleKey.EMPTY, this::subjectRows).size());
+        assertEquals(2, subjectService.getAllSubjects().size());
+    }
+
+    @Test
+    void instanceNotYetInvalidatedCannotRecacheAnOldValue() throws InterruptedException {
+        String key = SimpleKey.EMPTY.toString();
+        subjectService.createSubject(new SubjectDTO("MH001", "Toán"));
+        Thread.sleep(TOMBSTONE_MILLIS + 100);
+        assertEquals(1, subjectService.getAllSubjects().size());
+        byte[] oldList = otherStore.get(CacheConfig.SUBJECT_LIST, key);
+        assertNotNull(oldList);
+
+        subjectService.createSubject(new SubjectDTO("MH002", "Văn"));
+        // Another instance finishes a load that read the rows before the write, ahead of the pub/sub message
+        otherStore.put(CacheConfig.SUBJECT_LIST, key, oldList, Duration.ofMinutes(1));
+        assertNull(otherStore.get(CacheConfig.SUBJECT_LIST, key));
+
+        cacheManager.getCache(CacheConfig.SUBJECT_AVERAGE).evict("MH001");
+        otherStore.put(CacheConfig.SUBJECT_AVERAGE, "MH001", bytes("5.0"), Duration.ofMinutes(1));
+        assertNull(otherStore.get(CacheConfig.SUBJECT_AVERAGE, "MH001"));
+
+        Thread.sleep(TOMBSTONE_MILLIS + 100);
+        otherStore.put(CacheConfig.SUBJECT_AVERAGE, "MH001", bytes("8.0"), Duration.ofMinutes(1));
+        assertArrayEquals(bytes("8.0"), otherStore.get(CacheConfig.SUBJECT_AVERAGE, "MH001"));
+    }
+
+    @Test
+    void evictionDuringLoadOnSameInstanceSkipsBothTiers() throws Exception {
+        TwoTierCache cache = otherInstance(CacheConfig.SUBJECT_AVERAGE,
+                objectMapper.getTypeFactory().constructType(BigDecimal.class));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> stale = reader.submit(() -> cache.get("MH001", () -> {
+                loading.countDown();
+                written.await();
+                return new BigDecimal("5.0");
+            }));
+            loading.await();
+            // After-commit eviction of a concurrent grade write
+            cache.evict("MH001");
+            written.countDown();
+            assertEquals(new BigDecimal("5.0"), stale.get());
+        } finally {
+            reader.shutdownNow();
+        }
+
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> local = (Cache<Object, Object>) cache.getNativeCache();
+        assertNull(local.getIfPresent("MH001"));
+        assertNull(otherStore.get(CacheConfig.SUBJECT_AVERAGE, "MH001"));
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(new BigDecimal("8.0"), cache.get("MH001", () -> {
+            loads.incrementAndGet();
+            return new BigDecimal("8.0");
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(new BigDecimal("8.0"), cache.get("MH001", () -> null));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<SubjectDTO> subjectRows() {
+        return subjectRepository.findAll().stream()
+                .map(subject -> new SubjectDTO(subject.getSubjectId(), subject.getSubjectName()))
+                .toList();
+    }
+
+    @Test
+    void dataVersionChangesOnEveryInstanceAfterAWrite() {
+        DataVersionService other = new DataVersionService(
+                new StaticListableBeanFactory(Map.of("sharedCacheStore", otherStore))
+                        .getBeanProvider(SharedCacheStore.class),
+                Duration.ofMinutes(5), "", Duration.ZERO);
+        String before = other.subjects().etag();
+        assertEquals(before, dataVersionService.subjects().etag());
+
+        subjectService.createSubject(new SubjectDTO("MH001", "Toán"));
+
+        String after = other.subjects().etag();
+        assertNotEquals(before, after);
+        assertEquals(after, dataVersionService.subjects().etag());
+    }
+
+    private TwoTierCache otherInstance(String name, JavaType valueType) {
+        TwoTierCache cache = new TwoTierCache(name, Caffeine.newBuilder(), otherStore, Duration.ofMinutes(1), Duration.ZERO,
+                objectMapper, valueType, new SimpleMeterRegistry());
+        otherStore.subscribe((cacheName, key) -> {
+            if (cacheName.equals(name)) {
+                cache.evictLocal(key);
+            }
+        });
+        return cache;
+    }
+}
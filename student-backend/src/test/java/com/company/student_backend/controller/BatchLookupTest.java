@@ -0,0 +1,116 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.BatchLookupResult;
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tra cứu theo danh sách mã: đúng thứ tự yêu cầu, báo mã không tồn tại thay vì 404,
+ * một câu SQL cho mỗi request và 400 khi vượt quá giới hạn
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long gradeId;
+
+    @BeforeEach
+    void setUp() {
+        List<Student> students = studentRepository.saveAll(List.of(
+                new Student("SV001", "Nguyễn Văn A", 2005, null),
+                new Student("SV002", "Trần Thị B", 2006, null),
+                new Student("SV003", "Lê Văn C", 2005, null)));
+        Subject subject = subjectRepository.save(new Subject("MH001", "Toán", null));
+        gradeId = gradeRepository.save(new Grade(null, students.get(0), subject, new BigDecimal("8.5"))).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void studentsComeBackInRequestOrderWithMissingIdsInOneStatement() throws Exception {
+        mockMvc.perform(get("/api/students").param("ids", "SV003,SV999,SV001,SV003"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].studentId").value("SV003"))
+                .andExpect(jsonPath("$.items[1].studentId").value("SV001"))
+                .andExpect(jsonPath("$.missingIds.length()").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value("SV999"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void subjectsAndGradesReportMissingIds() throws Exception {
+        mockMvc.perform(get("/api/subjects").param("ids", "MH404", "MH001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].subjectName").value("Toán"))
+                .andExpect(jsonPath("$.missingIds[0]").value("MH404"));
+
+        mockMvc.perform(get("/api/grades").param("ids", gradeId + "," + (gradeId + 1000)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].studentName").value("Nguyễn Văn A"))
+                .andExpect(jsonPath("$.items[0].subjectName").value("Toán"))
+                .andExpect(jsonPath("$.missingIds[0]").value(gradeId + 1000));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tooManyIdsIsRejected() throws Exception {
+        String ids = IntStream.rangeClosed(1, BatchLookupResult.MAX_IDS + 1)
+                .mapToObj(i -> "SV" + i)
+                .collect(Collectors.joining(","));
+        mockMvc.perform(get("/api/students").param("ids", ids))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
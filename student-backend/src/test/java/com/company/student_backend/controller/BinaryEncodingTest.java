@@ -0,0 +1,126 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.GradeColumnsDTO;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Thương lượng định dạng Smile/CBOR và bố cục cột cho danh sách điểm
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BinaryEncodingTest {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Student> students = studentRepository.saveAll(List.of(
+                new Student("SV001", "Nguyễn Văn An", 2001, null),
+                new Student("SV002", "Trần Thị Bình", 2002, null)));
+        List<Subject> subjects = subjectRepository.saveAll(List.of(
+                new Subject("MH001", "Toán học", null),
+                new Subject("MH002", "Vật lý", null)));
+        List<Grade> grades = new ArrayList<>();
+        for (Student student : students) {
+            for (Subject subject : subjects) {
+                grades.add(new Grade(null, student, subject, new BigDecimal("7.5")));
+            }
+        }
+        gradeRepository.saveAll(grades);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void cborListMatchesJsonWithItsOwnETag() throws Exception {
+        MockHttpServletResponse json = mockMvc.perform(get("/api/grades"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+        MockHttpServletResponse cbor = mockMvc.perform(get("/api/grades").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse();
+
+        List<GradeDTO> fromJson = objectMapper.readValue(json.getContentAsByteArray(), new TypeReference<>() {});
+        List<GradeDTO> fromCbor = new CBORMapper().readValue(cbor.getContentAsByteArray(), new TypeReference<>() {});
+        assertEquals(fromJson, fromCbor);
+
+        String cborTag = cbor.getHeader(HttpHeaders.ETAG);
+        assertNotEquals(json.getHeader(HttpHeaders.ETAG), cborTag);
+        mockMvc.perform(get("/api/grades").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/grades").header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void columnarLayoutSendsEachNameOnceAndRoundTrips() throws Exception {
+        List<GradeDTO> rows = objectMapper.readValue(mockMvc.perform(get("/api/grades"))
+                .andReturn().getResponse().getContentAsByteArray(), new TypeReference<>() {});
+
+        byte[] smile = mockMvc.perform(get("/api/grades").param("layout", "columnar").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        GradeColumnsDTO columns = new SmileMapper().readValue(smile, GradeColumnsDTO.class);
+
+        assertEquals(List.of("Nguyễn Văn An", "Trần Thị Bình"), columns.getStudentNames());
+        assertEquals(2, columns.getSubjectNames().size());
+        assertEquals(rows, columns.toRows());
+    }
+}
@@ -0,0 +1,275 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nhập hàng loạt qua /bulk cho điểm, học sinh và môn học: trạng thái từng dòng, upsert, ranh giới chunk
+ * (chunk-size = 2), dòng JSON không đọc được ở giữa body và trường CSV đặt trong ngoặc kép
+ */
+@SpringBootTest(properties = "app.bulk.chunk-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BulkImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.saveAll(List.of(
+                new Student("SV001", "Nguyễn Văn A", 2005, null),
+                new Student("SV002", "Trần Thị B", 2006, null)));
+        subjectRepository.saveAll(List.of(
+                new Subject("MH001", "Toán", null),
+                new Subject("MH002", "Văn", null)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void jsonGradesReportEachRowAcrossChunks() throws Exception {
+        importJson("""
+                [{"studentId":"SV001","subjectId":"MH001","averageScore":8.0},
+                 {"studentId":"SV404","subjectId":"MH001","averageScore":7.0},
+                 {"studentId":"SV001","subjectId":"MH001","averageScore":9.0},
+                 {"studentId":"SV002","subjectId":"MH001","averageScore":11},
+                 {"studentId":"SV002","subjectId":"MH002","averageScore":6.5},
+                 {"studentId":"SV002","subjectId":"MH002","averageScore":6.0}]""", false)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(4))
+                .andExpect(jsonPath("$.chunks.length()").value(3))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[1].status").value("NOT_FOUND"))
+                // Same pair as row 0, committed by the previous chunk
+                .andExpect(jsonPath("$.rows[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[3].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[3].message").value("Điểm không được lớn hơn 10"))
+                .andExpect(jsonPath("$.rows[4].status").value("CREATED"))
+                // Same pair as row 4 within one chunk
+                .andExpect(jsonPath("$.rows[5].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[5].index").value(5));
+
+        assertThat(gradeRepository.findAll())
+                .extracting(Grade::getAverageScore)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactlyInAnyOrder(new BigDecimal("8.0"), new BigDecimal("6.5"));
+    }
+
+    @Test
+    void upsertUpdatesExistingGradesAndInsertsNewOnes() throws Exception {
+        importJson("[{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":5.0}]", false)
+                .andExpect(jsonPath("$.created").value(1));
+
+        importJson("""
+                [{"studentId":"SV001","subjectId":"MH001","averageScore":9.5},
+                 {"studentId":"SV002","subjectId":"MH001","averageScore":7.0}]""", true)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.rows[0].key").value("SV001/MH001"));
+
+        assertThat(gradeRepository.findAll()).hasSize(2);
+        assertThat(gradeRepository.findDTOsByStudentId("SV001").get(0).getAverageScore())
+                .isEqualByComparingTo("9.5");
+    }
+
+    @Test
+    void csvGradesSkipHeaderAndFlagUnparsableScores() throws Exception {
+        mockMvc.perform(post("/api/grades/bulk")
+                        .contentType("text/csv")
+                        .content("""
+                                studentId,subjectId,averageScore
+                                SV001,MH001,8.0
+
+                                SV002,MH001,abc
+                                SV002,MH404,7.0
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[1].message").value("Điểm trung bình không được để trống"))
+                .andExpect(jsonPath("$.rows[2].status").value("NOT_FOUND"));
+        assertThat(gradeRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void unmappableJsonElementIsReportedAndLaterRowsStillImport() throws Exception {
+        importJson("""
+                [{"studentId":"SV001","subjectId":"MH001","averageScore":8.0},
+                 {"studentId":"SV001","subjectId":"MH002","averageScore":{"value":7}},
+                 {"studentId":"SV002","subjectId":"MH001","averageScore":"abc"},
+                 {"studentId":"SV002","subjectId":"MH002","averageScore":6.0}]""", false)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rows[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[1].message").value("Giá trị không hợp lệ ở trường averageScore"))
+                .andExpect(jsonPath("$.rows[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[3].status").value("CREATED"));
+        assertThat(gradeRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    void malformedJsonTailIsReportedAfterEarlierChunksCommit() throws Exception {
+        importJson("""
+                [{"studentId":"SV001","subjectId":"MH001","averageScore":8.0},
+                 {"studentId":"SV001","subjectId":"MH002","averageScore":7.0},
+                 {"studentId":"SV002",""", false)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rows[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows.length()").value(3));
+        assertThat(gradeRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    void studentsJsonInsertsAndReportsDuplicateAndInvalidRows() throws Exception {
+        mockMvc.perform(post("/api/students/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"studentId":"SV003","studentName":"Lê Văn C","birthYear":2005},
+                                 {"studentId":"SV001","studentName":"Nguyễn Văn A","birthYear":2005},
+                                 {"studentId":"SV004","studentName":"","birthYear":2006},
+                                 {"studentId":"SV003","studentName":"Lê Văn C","birthYear":2005}]"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[1].message").value("Mã học sinh đã tồn tại: SV001"))
+                .andExpect(jsonPath("$.rows[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[2].message").value("Tên học sinh không được để trống"))
+                // Committed by the previous chunk
+                .andExpect(jsonPath("$.rows[3].status").value("DUPLICATE"));
+        assertThat(studentRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void studentsUpsertUpdatesExistingRows() throws Exception {
+        mockMvc.perform(post("/api/students/bulk")
+                        .param("upsert", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"studentId":"SV001","studentName":"Nguyễn Văn Ánh","birthYear":2004},
+                                 {"studentId":"SV005","studentName":"Phạm Thị E","birthYear":2007}]"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("UPDATED"));
+        Student updated = studentRepository.findById("SV001").orElseThrow();
+        assertThat(updated.getStudentName()).isEqualTo("Nguyễn Văn Ánh");
+        assertThat(updated.getBirthYear()).isEqualTo(2004);
+    }
+
+    @Test
+    void studentsCsvKeepsCommasAndQuotesInsideQuotedFields() throws Exception {
+        mockMvc.perform(post("/api/students/bulk")
+                        .contentType("text/csv")
+                        .content("""
+                                studentId,studentName,birthYear
+                                SV003,"Nguyễn, Văn C",2005
+                                SV004,"Trần Thị ""Bé"" D",2006
+                                SV005,"Lê Văn
+                                E",2007
+                                SV006,Hoàng Văn F,năm
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.rows[3].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[3].message").value("Năm sinh không được để trống"));
+        assertThat(studentRepository.findById("SV003").orElseThrow().getStudentName()).isEqualTo("Nguyễn, Văn C");
+        assertThat(studentRepository.findById("SV004").orElseThrow().getStudentName()).isEqualTo("Trần Thị \"Bé\" D");
+        assertThat(studentRepository.findById("SV005").orElseThrow().getStudentName()).isEqualTo("Lê Văn\nE");
+    }
+
+    @Test
+    void unterminatedCsvQuoteIsReportedAfterEarlierRowsImport() throws Exception {
+        mockMvc.perform(post("/api/subjects/bulk")
+                        .contentType("text/csv")
+                        .content("MH003,Hoá\nMH004,\"Lý, Sinh\nMH005,Sử\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows.length()").value(2));
+        assertThat(subjectRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void subjectsJsonAndCsvInsertUpsertAndReportRows() throws Exception {
+        mockMvc.perform(post("/api/subjects/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"subjectId":"MH003","subjectName":"Tiếng Anh"},
+                                 {"subjectId":"MH001","subjectName":"Toán"},
+                                 {"subjectId":"MH004"}]"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[1].message").value("Mã môn học đã tồn tại: MH001"))
+                .andExpect(jsonPath("$.rows[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[2].message").value("Tên môn học không được để trống"));
+
+        mockMvc.perform(post("/api/subjects/bulk")
+                        .param("upsert", "true")
+                        .contentType("text/csv")
+                        .content("""
+                                subjectId,subjectName
+                                MH002,"Ngữ văn, Tiếng Việt"
+                                MH005,Lịch sử
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1));
+        assertThat(subjectRepository.findById("MH002").orElseThrow().getSubjectName()).isEqualTo("Ngữ văn, Tiếng Việt");
+        assertThat(subjectRepository.count()).isEqualTo(4);
+    }
+
+    private ResultActions importJson(String json, boolean upsert) throws Exception {
+        return mockMvc.perform(post("/api/grades/bulk")
+                .param("upsert", String.valueOf(upsert))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json));
+    }
+}
@@ -0,0 +1,152 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET có điều kiện: 304 không chạy câu SQL nào, và ETag đổi sau khi ghi qua API
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Student student = studentRepository.save(new Student("SV001", "Học sinh 1", 2001, null));
+        Subject subject = subjectRepository.save(new Subject("MH001", "Toán", null));
+        gradeRepository.save(new Grade(null, student, subject, new BigDecimal("8.0")));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void matchingETagReturnsNotModifiedWithoutQuerying() throws Exception {
+        String etag = mockMvc.perform(get("/api/grades"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/grades").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void studentRenameInvalidatesStudentAndGradeETags() throws Exception {
+        String studentEtag = etagOf("/api/students/SV001");
+        String gradesEtag = etagOf("/api/grades");
+        String subjectsEtag = etagOf("/api/subjects");
+
+        mockMvc.perform(put("/api/students/{id}", "SV001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"studentName\":\"Học sinh Một\",\"birthYear\":2001}"))
+                .andExpect(status().isOk());
+
+        // GradeDTO carries the student name, so the grade list is stale as well
+        mockMvc.perform(get("/api/students/SV001").header(HttpHeaders.IF_NONE_MATCH, studentEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/grades").header(HttpHeaders.IF_NONE_MATCH, gradesEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/subjects").header(HttpHeaders.IF_NONE_MATCH, subjectsEtag))
+                .andExpect(status().isNotModified());
+        assertNotEquals(studentEtag, etagOf("/api/students/SV001"));
+    }
+
+    @Test
+    void lastModifiedIsSentOnlyOnceItsSecondHasPassed() throws Exception {
+        renameStudent("Học sinh Một");
+        // First seen in this second: another write could still land in it
+        mockMvc.perform(get("/api/students/SV001"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        Thread.sleep(1000);
+        String lastModified = mockMvc.perform(get("/api/students/SV001"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(lastModified);
+        mockMvc.perform(get("/api/students/SV001").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+
+        renameStudent("Học sinh Hai");
+        mockMvc.perform(get("/api/students/SV001").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void notFoundCarriesNoValidators() throws Exception {
+        mockMvc.perform(get("/api/students/{id}", "SV404"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private void renameStudent(String name) throws Exception {
+        mockMvc.perform(put("/api/students/{id}", "SV001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"studentName\":\"" + name + "\",\"birthYear\":2001}"))
+                .andExpect(status().isOk());
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
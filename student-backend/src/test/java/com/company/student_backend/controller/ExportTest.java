@@ -0,0 +1,151 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.GradeColumnsDTO;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Job xuất bảng điểm: gửi yêu cầu, theo dõi trạng thái rồi tải file, đọc lại được ở cả ba định dạng
+ */
+@SpringBootTest(properties = "app.export.directory=${java.io.tmpdir}/student-exports-test")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        postJson("/api/students", "{\"studentId\":\"SV001\",\"studentName\":\"Nguyễn Văn A\",\"birthYear\":2001}");
+        postJson("/api/students", "{\"studentId\":\"SV002\",\"studentName\":\"Trần, \\\"Bé\\\"\",\"birthYear\":2002}");
+        postJson("/api/subjects", "{\"subjectId\":\"MH001\",\"subjectName\":\"Toán\"}");
+        postJson("/api/grades", "{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":8.5}");
+        postJson("/api/grades", "{\"studentId\":\"SV002\",\"subjectId\":\"MH001\",\"averageScore\":7.0}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void csvExportEscapesFieldsAndStartsWithBom() throws Exception {
+        byte[] file = runExport("csv", "text/csv");
+
+        String csv = new String(file, StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("\uFEFFid,studentId,studentName,subjectId,subjectName,averageScore\n");
+        assertThat(csv).contains(",SV001,Nguyễn Văn A,MH001,Toán,8.5\n");
+        assertThat(csv).contains(",SV002,\"Trần, \"\"Bé\"\"\",MH001,Toán,7.0\n");
+        assertThat(csv.lines()).hasSize(3);
+    }
+
+    @Test
+    void xlsxExportHasHeaderAndOneRowPerGrade() throws Exception {
+        byte[] file = runExport("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(file))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getRow(0).getCell(2).getStringCellValue()).isEqualTo("studentName");
+            assertThat(sheet.getLastRowNum()).isEqualTo(2);
+            List<Double> scores = List.of(
+                    sheet.getRow(1).getCell(5).getNumericCellValue(),
+                    sheet.getRow(2).getCell(5).getNumericCellValue());
+            assertThat(scores).containsExactlyInAnyOrder(8.5, 7.0);
+        }
+    }
+
+    @Test
+    void columnarExportIsSequenceOfColumnBlocks() throws Exception {
+        byte[] file = runExport("columnar", "application/cbor");
+
+        List<GradeColumnsDTO> blocks = new ArrayList<>();
+        try (MappingIterator<GradeColumnsDTO> values = new CBORMapper().readerFor(GradeColumnsDTO.class).readValues(file)) {
+            values.forEachRemaining(blocks::add);
+        }
+        assertThat(blocks).hasSize(1);
+        assertThat(blocks.get(0).toRows()).hasSize(2);
+        assertThat(blocks.get(0).getStudentNames()).contains("Nguyễn Văn A");
+    }
+
+    @Test
+    void rejectsUnknownFormatAndUnknownJob() throws Exception {
+        mockMvc.perform(post("/api/exports").param("format", "parquet"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/exports/{id}", "missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    private byte[] runExport(String format, String contentType) throws Exception {
+        String body = mockMvc.perform(post("/api/exports").param("format", format))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("/api/exports/")))
+                .andExpect(jsonPath("$.status").exists())
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+
+        String status = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            status = JsonPath.read(mockMvc.perform(get("/api/exports/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.status");
+            if (status.equals("COMPLETED") || status.equals("FAILED")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(status).isEqualTo("COMPLETED");
+        mockMvc.perform(get("/api/exports/{id}", id)).andExpect(jsonPath("$.rows").value(2));
+
+        return mockMvc.perform(get("/api/exports/{id}/download", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(contentType)))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("attachment")))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private void postJson(String url, String json) throws Exception {
+        mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated());
+    }
+}
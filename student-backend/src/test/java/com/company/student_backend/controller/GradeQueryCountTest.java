@@ -0,0 +1,125 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Chặn hồi quy N+1: mỗi request đọc điểm chỉ được chạy đúng một câu SQL,
+ * bất kể số lượng điểm trả về
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GradeQueryCountTest {
+
+    private static final int STUDENT_COUNT = 5;
+    private static final int SUBJECT_COUNT = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long firstGradeId;
+
+    @BeforeEach
+    void setUp() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 1; i <= STUDENT_COUNT; i++) {
+            students.add(new Student("SV00" + i, "Học sinh " + i, 2000 + i, null));
+        }
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 1; i <= SUBJECT_COUNT; i++) {
+            subjects.add(new Subject("MH00" + i, "Môn " + i, null));
+        }
+        studentRepository.saveAll(students);
+        subjectRepository.saveAll(subjects);
+
+        List<Grade> grades = new ArrayList<>();
+        for (Student student : students) {
+            for (Subject subject : subjects) {
+                grades.add(new Grade(null, student, subject, new BigDecimal("7.5")));
+            }
+        }
+        firstGradeId = gradeRepository.saveAll(grades).get(0).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void getAllGradesRunsSingleStatement() throws Exception {
+        mockMvc.perform(get("/api/grades"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(STUDENT_COUNT * SUBJECT_COUNT));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getGradeByIdRunsSingleStatement() throws Exception {
+        mockMvc.perform(get("/api/grades/{id}", firstGradeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentName").value("Học sinh 1"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getGradesByStudentIdRunsSingleStatement() throws Exception {
+        mockMvc.perform(get("/api/grades/student/{studentId}", "SV001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SUBJECT_COUNT))
+                .andExpect(jsonPath("$[0].subjectName").value("Môn 1"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getGradesBySubjectIdRunsSingleStatement() throws Exception {
+        mockMvc.perform(get("/api/grades/subject/{subjectId}", "MH001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(STUDENT_COUNT))
+                .andExpect(jsonPath("$[0].studentName").value("Học sinh 1"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,147 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.company.student_backend.service.GradeEventBroadcaster;
+import com.company.student_backend.service.GradeService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Luồng SSE thay đổi điểm: lọc theo môn học, và subscriber tràn bộ đệm bị ngắt
+ * mà không chặn transaction ghi
+ */
+@SpringBootTest(properties = "app.grades.stream.buffer-size=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GradeStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private GradeEventBroadcaster broadcaster;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    private final List<Long> gradeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        postJson("/api/subjects", "{\"subjectId\":\"MH001\",\"subjectName\":\"Toán\"}");
+        postJson("/api/subjects", "{\"subjectId\":\"MH002\",\"subjectName\":\"Văn\"}");
+        for (int i = 1; i <= 6; i++) {
+            postJson("/api/students", "{\"studentId\":\"SV00" + i + "\",\"studentName\":\"Học sinh " + i + "\",\"birthYear\":2001}");
+            String body = postJson("/api/grades", "{\"studentId\":\"SV00" + i + "\",\"subjectId\":\"MH001\",\"averageScore\":5.0}");
+            gradeIds.add(((Number) JsonPath.read(body, "$.id")).longValue());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void streamsCreateUpdateDeleteForSubscribedSubjectOnly() throws Exception {
+        MockHttpServletResponse stream = subscribe("/api/grades/stream?subjectId=MH002");
+
+        String body = postJson("/api/grades", "{\"studentId\":\"SV001\",\"subjectId\":\"MH002\",\"averageScore\":6.0}");
+        long id = ((Number) JsonPath.read(body, "$.id")).longValue();
+        putScore(gradeIds.get(1), "SV002", "MH001", "9.0");
+        putScore(id, "SV001", "MH002", "7.5");
+        mockMvc.perform(delete("/api/grades/{id}", id)).andExpect(status().isNoContent());
+
+        String events = awaitContent(stream, "\"type\":\"DELETED\"");
+        assertThat(events.split("event:grade", -1)).hasSize(4);
+        assertThat(events).contains("\"type\":\"CREATED\"", "\"type\":\"UPDATED\"", "\"oldScore\":6.0", "\"newScore\":7.5");
+        assertThat(events).doesNotContain("MH001");
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutBlockingWriter() throws Exception {
+        // Streams opened by other tests in this context never complete under MockMvc
+        int others = broadcaster.getSubscriberCount();
+        MockHttpServletResponse stream = subscribe("/api/grades/stream?subjectId=MH001");
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(others + 1);
+
+        // One transaction publishing more changes than the subscriber buffer holds
+        Map<Long, BigDecimal> scores = new LinkedHashMap<>();
+        gradeIds.forEach(id -> scores.put(id, new BigDecimal("8.0")));
+        assertThat(gradeService.applyScoreUpdates(scores)).isEqualTo(gradeIds.size());
+
+        String events = awaitContent(stream, "event:dropped");
+        assertThat(events).doesNotContain("event:grade");
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(others);
+        assertThat(gradeRepository.findAll()).allSatisfy(grade ->
+                assertThat(grade.getAverageScore()).isEqualByComparingTo("8.0"));
+    }
+
+    private MockHttpServletResponse subscribe(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getResponse();
+    }
+
+    private String awaitContent(MockHttpServletResponse stream, String expected) throws Exception {
+        String content = "";
+        for (int attempt = 0; attempt < 100 && !content.contains(expected); attempt++) {
+            Thread.sleep(20);
+            content = stream.getContentAsString(StandardCharsets.UTF_8);
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private void putScore(Long id, String studentId, String subjectId, String score) throws Exception {
+        mockMvc.perform(put("/api/grades/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"" + studentId + "\",\"subjectId\":\"" + subjectId + "\",\"averageScore\":" + score + "}"))
+                .andExpect(status().isOk());
+    }
+
+    private String postJson(String url, String json) throws Exception {
+        return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
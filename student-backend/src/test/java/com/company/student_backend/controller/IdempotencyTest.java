@@ -0,0 +1,172 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.company.student_backend.service.IdempotencyStore;
+import com.company.student_backend.service.InMemoryIdempotencyStore;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key trên các endpoint tạo/cập nhật: gửi lại nhận đúng phản hồi cũ,
+ * request trùng khoá đồng thời chỉ chạy một lần (store jdbc)
+ */
+@SpringBootTest(properties = "app.idempotency.store=jdbc")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTest {
+
+    private static final String GRADE_JSON = "{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":8.5}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"studentName\":\"Học sinh 1\",\"birthYear\":2001}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/subjects").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subjectId\":\"MH001\",\"subjectName\":\"Toán\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void retryReplaysOriginalResponseInsteadOfConflict() throws Exception {
+        String first = postGrade("retry-1")
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        String second = postGrade("retry-1")
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat((Integer) JsonPath.read(second, "$.id")).isEqualTo(JsonPath.read(first, "$.id"));
+        assertThat(gradeRepository.count()).isEqualTo(1);
+
+        // Without a key the duplicate still reaches validation
+        mockMvc.perform(post("/api/grades").contentType(MediaType.APPLICATION_JSON).content(GRADE_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void keyIsScopedToPathAndBody() throws Exception {
+        String body = postGrade("scoped").andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        int id = JsonPath.read(body, "$.id");
+
+        mockMvc.perform(post("/api/grades").header("Idempotency-Key", "scoped")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":9.0}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(put("/api/grades/{id}", id).header("Idempotency-Key", "scoped")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":9.0}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.averageScore").value(9.0));
+    }
+
+    @Test
+    void concurrentDuplicatesExecuteOnce() throws Exception {
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                Callable<MockHttpServletResponse> call = () -> {
+                    start.await();
+                    return postGrade("concurrent").andReturn().getResponse();
+                };
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+            for (Future<MockHttpServletResponse> future : futures) {
+                assertThat(future.get().getStatus()).isEqualTo(201);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(gradeRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyHeldByAnotherInstanceIsReportedInProgress() throws Exception {
+        idempotencyStore.reserve("POST /api/grades other-node", "x", Duration.ofMinutes(1));
+
+        postGrade("other-node").andExpect(status().isConflict());
+        assertThat(gradeRepository.count()).isZero();
+    }
+
+    @Test
+    void inMemoryStoreExpiresAndReleasesKeys() throws Exception {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(10);
+        assertThat(store.reserve("k", "fp", Duration.ofMinutes(1))).isTrue();
+        assertThat(store.reserve("k", "fp", Duration.ofMinutes(1))).isFalse();
+        assertThat(store.find("k")).hasValueSatisfying(entry -> assertThat(entry.completed()).isFalse());
+
+        store.complete("k", "fp", 201, "{}", Duration.ofMillis(50));
+        assertThat(store.find("k")).hasValueSatisfying(entry -> assertThat(entry.status()).isEqualTo(201));
+        Thread.sleep(100);
+        assertThat(store.find("k")).isEmpty();
+
+        assertThat(store.reserve("k", "fp", Duration.ofMinutes(1))).isTrue();
+        store.release("k");
+        assertThat(store.reserve("k", "fp", Duration.ofMinutes(1))).isTrue();
+    }
+
+    private ResultActions postGrade(String key) throws Exception {
+        return mockMvc.perform(post("/api/grades").header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON).content(GRADE_JSON));
+    }
+}
@@ -0,0 +1,175 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cache tra cứu học sinh/môn học của ValidationService: lần đọc lặp lại không chạm DB, được xoá khi
+ * sửa, xoá hoặc nhập hàng loạt, và số hit/miss được xuất qua metric cache.gets
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LookupCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.saveAll(List.of(
+                new Student("SV001", "Nguyễn Văn A", 2005, null),
+                new Student("SV002", "Trần Thị B", 2006, null)));
+        subjectRepository.save(new Subject("MH001", "Toán", null));
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void repeatedLookupIsServedFromCacheAndCounted() throws Exception {
+        double hits = cacheGets(CacheConfig.STUDENTS, "hit");
+        double misses = cacheGets(CacheConfig.STUDENTS, "miss");
+
+        expectStudentName("SV001", "Nguyễn Văn A");
+        assertEquals(1, statistics.getPrepareStatementCount());
+        expectStudentName("SV001", "Nguyễn Văn A");
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals(misses + 1, cacheGets(CacheConfig.STUDENTS, "miss"));
+        assertEquals(hits + 1, cacheGets(CacheConfig.STUDENTS, "hit"));
+    }
+
+    @Test
+    void cachedLookupsCanBeUsedToCreateGradesOutsideTheirTransaction() throws Exception {
+        expectStudentName("SV001", "Nguyễn Văn A");
+        mockMvc.perform(get("/api/subjects/{id}", "MH001")).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/grades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":8.5}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.studentName").value("Nguyễn Văn A"));
+    }
+
+    @Test
+    void updateEvictsStudentAndSubject() throws Exception {
+        expectStudentName("SV001", "Nguyễn Văn A");
+        mockMvc.perform(put("/api/students/{id}", "SV001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"studentName\":\"Nguyễn Văn Ánh\",\"birthYear\":2005}"))
+                .andExpect(status().isOk());
+        expectStudentName("SV001", "Nguyễn Văn Ánh");
+
+        expectSubjectName("MH001", "Toán");
+        mockMvc.perform(put("/api/subjects/{id}", "MH001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subjectId\":\"MH001\",\"subjectName\":\"Toán học\"}"))
+                .andExpect(status().isOk());
+        expectSubjectName("MH001", "Toán học");
+    }
+
+    @Test
+    void deleteEvictsLookup() throws Exception {
+        expectStudentName("SV002", "Trần Thị B");
+        mockMvc.perform(delete("/api/students/{id}", "SV002")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/students/{id}", "SV002")).andExpect(status().isNotFound());
+
+        expectSubjectName("MH001", "Toán");
+        mockMvc.perform(delete("/api/subjects/{id}", "MH001")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/subjects/{id}", "MH001")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void bulkUpsertEvictsLookups() throws Exception {
+        expectStudentName("SV001", "Nguyễn Văn A");
+        expectSubjectName("MH001", "Toán");
+
+        mockMvc.perform(post("/api/students/bulk")
+                        .param("upsert", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"studentId\":\"SV001\",\"studentName\":\"Lê Văn C\",\"birthYear\":2005}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        mockMvc.perform(post("/api/subjects/bulk")
+                        .param("upsert", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"subjectId\":\"MH001\",\"subjectName\":\"Đại số\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        expectStudentName("SV001", "Lê Văn C");
+        expectSubjectName("MH001", "Đại số");
+    }
+
+    private void expectStudentName(String studentId, String name) throws Exception {
+        mockMvc.perform(get("/api/students/{id}", studentId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentName").value(name));
+    }
+
+    private void expectSubjectName(String subjectId, String name) throws Exception {
+        mockMvc.perform(get("/api/subjects/{id}", subjectId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subjectName").value(name));
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
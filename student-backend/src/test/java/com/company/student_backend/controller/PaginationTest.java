@@ -0,0 +1,193 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.CursorPage;
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Phân trang keyset (limit/after) và luồng NDJSON của các danh sách học sinh, môn học, điểm
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaginationTest {
+
+    private static final int STUDENT_COUNT = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    private final List<Long> gradeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Student> students = new ArrayList<>();
+        // Saved out of key order: pages must still follow studentId
+        for (int i = STUDENT_COUNT; i >= 1; i--) {
+            students.add(new Student("SV00" + i, "Học sinh " + i, 2000 + i, null));
+        }
+        studentRepository.saveAll(students);
+        Subject subject = subjectRepository.save(new Subject("MH001", "Toán", null));
+        subjectRepository.save(new Subject("MH002", "Văn", null));
+        for (Student student : studentRepository.findAll()) {
+            gradeIds.add(gradeRepository.save(new Grade(null, student, subject, new BigDecimal("7.5"))).getId());
+        }
+        gradeIds.sort(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void firstPageReportsCursorOfLastItem() throws Exception {
+        mockMvc.perform(get("/api/students").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].studentId").value("SV001"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("SV002"));
+    }
+
+    @Test
+    void walkingStudentPagesVisitsEveryRowOnceInKeyOrder() throws Exception {
+        assertThat(walk("/api/students", 2, "studentId"))
+                .containsExactly("SV001", "SV002", "SV003", "SV004", "SV005");
+        // An exact multiple of the page size ends with hasMore=false, not with an empty page
+        assertThat(walk("/api/students", 5, "studentId")).hasSize(STUDENT_COUNT);
+    }
+
+    @Test
+    void walkingGradePagesUsesIdCursor() throws Exception {
+        assertThat(walk("/api/grades", 3, "id")).containsExactlyElementsOf(
+                gradeIds.stream().map(String::valueOf).toList());
+        assertThat(walk("/api/subjects", 1, "subjectId")).containsExactly("MH001", "MH002");
+    }
+
+    @Test
+    void limitIsClamped() throws Exception {
+        mockMvc.perform(get("/api/students").param("limit", "0"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true));
+        mockMvc.perform(get("/api/students").param("limit", String.valueOf(CursorPage.MAX_LIMIT + 1000)))
+                .andExpect(jsonPath("$.items.length()").value(STUDENT_COUNT))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void cursorPastTheEndReturnsEmptyPage() throws Exception {
+        mockMvc.perform(get("/api/students").param("limit", "10").param("after", "SV999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void ndjsonStreamsOneObjectPerLine() throws Exception {
+        List<JsonNode> students = readNdjson("/api/students");
+        assertThat(students).extracting(node -> node.get("studentId").asText())
+                .containsExactly("SV001", "SV002", "SV003", "SV004", "SV005");
+        assertThat(students.get(0).get("studentName").asText()).isEqualTo("Học sinh 1");
+
+        assertThat(readNdjson("/api/subjects")).extracting(node -> node.get("subjectName").asText())
+                .containsExactly("Toán", "Văn");
+
+        List<JsonNode> grades = readNdjson("/api/grades");
+        assertThat(grades).extracting(node -> node.get("id").asLong()).containsExactlyElementsOf(gradeIds);
+        assertThat(grades).allSatisfy(node -> assertThat(node.get("averageScore").decimalValue())
+                .isEqualByComparingTo("7.5"));
+    }
+
+    @Test
+    void ndjsonOfEmptyTableHasNoLines() throws Exception {
+        gradeRepository.deleteAllInBatch();
+
+        assertThat(readNdjson("/api/grades")).isEmpty();
+    }
+
+    private List<String> walk(String url, int limit, String key) throws Exception {
+        List<String> keys = new ArrayList<>();
+        String after = null;
+        for (int page = 0; page < 100; page++) {
+            MockHttpServletRequestBuilder request = get(url).param("limit", String.valueOf(limit));
+            if (after != null) {
+                request.param("after", after);
+            }
+            JsonNode body = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+            body.get("items").forEach(item -> keys.add(item.get(key).asText()));
+            if (!body.get("hasMore").asBoolean()) {
+                assertThat(body.get("nextCursor").isNull()).isTrue();
+                return keys;
+            }
+            after = body.get("nextCursor").asText();
+            assertThat(after).isEqualTo(keys.get(keys.size() - 1));
+        }
+        throw new AssertionError("Pagination did not terminate");
+    }
+
+    private List<JsonNode> readNdjson(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        assertThat(body.isEmpty() || body.endsWith("\n")).isTrue();
+        return lines;
+    }
+}
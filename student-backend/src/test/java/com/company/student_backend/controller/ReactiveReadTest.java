@@ -0,0 +1,143 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.ReactiveReadRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Đường đọc R2DBC dùng chung database (H2 in-memory) và DTO với đường JPA
+ */
+@SpringBootTest(properties = {
+        "app.reactive.enabled=true",
+        "app.reactive.r2dbc.url=r2dbc:h2:mem:///testdb"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReactiveReadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReactiveReadRepository reactiveReadRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        postJson("/api/subjects", "{\"subjectId\":\"MH001\",\"subjectName\":\"Toán\"}");
+        for (int i = 1; i <= 3; i++) {
+            postJson("/api/students", "{\"studentId\":\"SV00" + i + "\",\"studentName\":\"Học sinh " + i + "\",\"birthYear\":2001}");
+            postJson("/api/grades", "{\"studentId\":\"SV00" + i + "\",\"subjectId\":\"MH001\",\"averageScore\":" + (5 + i) + ".5}");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void streamsGradesAsNdjsonMatchingBlockingEndpoint() throws Exception {
+        String blocking = readNdjson("/api/grades");
+        String reactive = readNdjson("/api/reactive/grades");
+
+        assertThat(reactive.lines().toList()).hasSize(3).isEqualTo(blocking.lines().toList());
+    }
+
+    @Test
+    void servesSingleResourcesAndNotFound() throws Exception {
+        MvcResult found = mockMvc.perform(get("/api/reactive/students/{id}", "SV002"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(found))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentName").value("Học sinh 2"))
+                .andExpect(jsonPath("$.birthYear").value(2001));
+
+        MvcResult missing = mockMvc.perform(get("/api/reactive/subjects/{id}", "MH999"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Không tìm thấy môn học với mã: MH999"));
+    }
+
+    @Test
+    void gradeFluxHonoursSubscriberDemand() throws Exception {
+        List<GradeDTO> received = new CopyOnWriteArrayList<>();
+        CountDownLatch first = new CountDownLatch(1);
+        BaseSubscriber<GradeDTO> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(GradeDTO grade) {
+                received.add(grade);
+                first.countDown();
+            }
+        };
+        reactiveReadRepository.findGradesBySubjectId("MH001").subscribe(subscriber);
+
+        assertThat(first.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).getSubjectName()).isEqualTo("Toán");
+        subscriber.dispose();
+    }
+
+    private String readNdjson(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private void postJson(String url, String json) throws Exception {
+        mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,157 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.model.Grade;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.company.student_backend.service.RankingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Phiếu điểm: một câu SQL cho cả lô, và 304 khi nội dung chưa đổi
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReportCardTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Student> students = List.of(
+                new Student("SV001", "Học sinh 1", 2001, null),
+                new Student("SV002", "Học sinh 2", 2002, null),
+                new Student("SV003", "Học sinh 3", 2003, null));
+        List<Subject> subjects = List.of(
+                new Subject("MH001", "Toán", null),
+                new Subject("MH002", "Văn", null));
+        studentRepository.saveAll(students);
+        subjectRepository.saveAll(subjects);
+
+        List<Grade> grades = new ArrayList<>();
+        grades.add(new Grade(null, students.get(0), subjects.get(0), new BigDecimal("9.0")));
+        grades.add(new Grade(null, students.get(0), subjects.get(1), new BigDecimal("6.0")));
+        grades.add(new Grade(null, students.get(1), subjects.get(0), new BigDecimal("8.0")));
+        grades.add(new Grade(null, students.get(1), subjects.get(1), new BigDecimal("7.0")));
+        gradeRepository.saveAll(grades);
+        rankingService.rebuild();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+        rankingService.rebuild();
+    }
+
+    @Test
+    void reportCardCombinesGradesAverageAndRanks() throws Exception {
+        mockMvc.perform(get("/api/students/{id}/report-card", "SV001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentName").value("Học sinh 1"))
+                .andExpect(jsonPath("$.gradeCount").value(2))
+                .andExpect(jsonPath("$.average").value(7.5))
+                .andExpect(jsonPath("$.subjects[0].subjectName").value("Toán"))
+                .andExpect(jsonPath("$.subjects[0].rank").value(1))
+                .andExpect(jsonPath("$.subjects[1].rank").value(2))
+                .andExpect(jsonPath("$.subjects[1].total").value(2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void batchRunsSingleStatementAndKeepsRequestOrder() throws Exception {
+        mockMvc.perform(get("/api/students/report-cards").param("ids", "SV003", "SV002", "SV404", "SV001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].studentId").value("SV003"))
+                .andExpect(jsonPath("$[0].gradeCount").value(0))
+                .andExpect(jsonPath("$[1].studentId").value("SV002"))
+                .andExpect(jsonPath("$[2].studentId").value("SV001"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void unchangedReportCardReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/students/{id}/report-card", "SV002"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/students/{id}/report-card", "SV002").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Another student's grade moves SV002 down in Văn, so the report card must change
+        Grade grade = gradeRepository.findAll().stream()
+                .filter(g -> g.getAverageScore().compareTo(new BigDecimal("6.0")) == 0)
+                .findFirst().orElseThrow();
+        mockMvc.perform(put("/api/grades/{id}", grade.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"subjectId\":\"MH002\",\"averageScore\":10.0}"))
+                .andExpect(status().isOk());
+
+        String changed = mockMvc.perform(get("/api/students/{id}/report-card", "SV002").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subjects[1].rank").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void oversizedBatchIsRejected() throws Exception {
+        String[] ids = new String[101];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "SV" + i;
+        }
+        mockMvc.perform(get("/api/students/report-cards").param("ids", ids))
+                .andExpect(status().isBadRequest());
+    }
+}
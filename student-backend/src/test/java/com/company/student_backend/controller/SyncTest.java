@@ -0,0 +1,159 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Đồng bộ delta qua change_log: chỉ trả thay đổi sau checkpoint, gộp theo thao tác cuối,
+ * và yêu cầu tải lại toàn bộ khi checkpoint cũ hơn mốc đã dọn
+ */
+@SpringBootTest(properties = {
+        "app.sync.settle-window=0s",
+        "app.sync.tombstone-retention=0s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SyncTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void firstSyncAsksForFullResync() throws Exception {
+        mockMvc.perform(get("/api/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullResync").value(true))
+                .andExpect(jsonPath("$.students.length()").value(0));
+    }
+
+    @Test
+    void returnsOnlyChangesSinceCheckpointCollapsedToLastOperation() throws Exception {
+        long checkpoint = fullResyncCheckpoint();
+        createStudent("SV001", "Học sinh 1");
+        createStudent("SV002", "Học sinh 2");
+        postJson("/api/subjects", "{\"subjectId\":\"MH001\",\"subjectName\":\"Toán\"}");
+        long gradeId = createGrade("SV001", "MH001", "8.0");
+        mockMvc.perform(put("/api/students/{id}", "SV001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"SV001\",\"studentName\":\"Học sinh Một\",\"birthYear\":2001}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/students/{id}", "SV002")).andExpect(status().isNoContent());
+
+        String body = mockMvc.perform(get("/api/sync").param("since", String.valueOf(checkpoint)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullResync").value(false))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.students.length()").value(1))
+                .andExpect(jsonPath("$.students[0].studentName").value("Học sinh Một"))
+                .andExpect(jsonPath("$.deletedStudentIds[0]").value("SV002"))
+                .andExpect(jsonPath("$.subjects[0].subjectId").value("MH001"))
+                .andExpect(jsonPath("$.grades[0].id").value(gradeId))
+                .andReturn().getResponse().getContentAsString();
+
+        // Nothing new after the returned checkpoint
+        long next = ((Number) JsonPath.read(body, "$.checkpoint")).longValue();
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(next)))
+                .andExpect(jsonPath("$.checkpoint").value(next))
+                .andExpect(jsonPath("$.students.length()").value(0))
+                .andExpect(jsonPath("$.deletedStudentIds.length()").value(0));
+    }
+
+    @Test
+    void pagesThroughLongLogs() throws Exception {
+        long checkpoint = fullResyncCheckpoint();
+        for (int i = 1; i <= 3; i++) {
+            createStudent("SV00" + i, "Học sinh " + i);
+        }
+
+        String first = mockMvc.perform(get("/api/sync").param("since", String.valueOf(checkpoint)).param("limit", "2"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.students.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+        long next = ((Number) JsonPath.read(first, "$.checkpoint")).longValue();
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(next)).param("limit", "2"))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.students[0].studentId").value("SV003"));
+    }
+
+    @Test
+    void compactionKeepsLatestStateAndForcesResyncPastPurgedTombstones() throws Exception {
+        long checkpoint = fullResyncCheckpoint();
+        createStudent("SV001", "Học sinh 1");
+        for (int i = 2; i <= 4; i++) {
+            mockMvc.perform(put("/api/students/{id}", "SV001")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"studentId\":\"SV001\",\"studentName\":\"Lần " + i + "\",\"birthYear\":2001}"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/api/admin/sync/compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.supersededRemoved").value(3));
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(checkpoint)))
+                .andExpect(jsonPath("$.fullResync").value(false))
+                .andExpect(jsonPath("$.students[0].studentName").value("Lần 4"));
+
+        mockMvc.perform(delete("/api/students/{id}", "SV001")).andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/admin/sync/compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tombstonesPurged").value(1));
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(checkpoint)))
+                .andExpect(jsonPath("$.fullResync").value(true));
+    }
+
+    private long fullResyncCheckpoint() throws Exception {
+        String body = mockMvc.perform(get("/api/sync"))
+                .andExpect(jsonPath("$.fullResync").value(true))
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.checkpoint")).longValue();
+    }
+
+    private void createStudent(String id, String name) throws Exception {
+        postJson("/api/students", "{\"studentId\":\"" + id + "\",\"studentName\":\"" + name + "\",\"birthYear\":2001}");
+    }
+
+    private long createGrade(String studentId, String subjectId, String score) throws Exception {
+        String body = postJson("/api/grades", "{\"studentId\":\"" + studentId + "\",\"subjectId\":\"" + subjectId
+                + "\",\"averageScore\":" + score + "}");
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+
+    private String postJson(String url, String json) throws Exception {
+        return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.StudentBackendApplication;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.dto.SubjectDTO;
+import com.company.student_backend.service.BulkImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tải đồng thời vào GET /api/grades/student/{id}, so sánh throughput và độ trễ p50/p95/p99
+ * giữa thread pool của Tomcat và virtual thread (cần Java 21).
+ * Chỉ chạy khi bật: mvn test -Dtest=ThreadingModeLoadTest -Dbenchmark=true
+ * [-Dload.concurrency=400 -Dload.seconds=20 -Dload.profiles=test]
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadingModeLoadTest {
+
+    private static final int STUDENTS = 2_000;
+    private static final int SUBJECTS = 10;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private final int concurrency = Integer.getInteger("load.concurrency", 400);
+    private final Duration duration = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+    private final String profiles = System.getProperty("load.profiles", "test");
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        LoadResult platform = run(false);
+        log.info("Platform threads: {}", platform);
+        if (!JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("Virtual threads need Java 21, running on {}; skipping virtual-thread mode", JavaVersion.getJavaVersion());
+            return;
+        }
+        LoadResult virtual = run(true);
+        log.info("Virtual threads:  {}", virtual);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentBackendApplication.class)
+                .profiles(profiles.split(","))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load" + virtualThreads,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.company.student_backend=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level." + ThreadingModeLoadTest.class.getName() + "=INFO");
+        try {
+            seed(context.getBean(BulkImportService.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            return load(baseUrl);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void seed(BulkImportService bulkImportService) {
+        Random random = new Random(11);
+        List<SubjectDTO> subjects = new ArrayList<>();
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects.add(new SubjectDTO(String.format("MH%03d", i), "Môn " + i));
+        }
+        List<StudentDTO> students = new ArrayList<>();
+        List<GradeDTO> grades = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new StudentDTO(String.format("SV%05d", i), "Học sinh " + i, 2000 + random.nextInt(5)));
+            for (SubjectDTO subject : subjects) {
+                GradeDTO grade = new GradeDTO();
+                grade.setStudentId(students.get(i).getStudentId());
+                grade.setSubjectId(subject.getSubjectId());
+                grade.setAverageScore(BigDecimal.valueOf(random.nextInt(101), 1));
+                grades.add(grade);
+            }
+        }
+        bulkImportService.importSubjects(subjects.iterator(), false);
+        bulkImportService.importStudents(students.iterator(), false);
+        bulkImportService.importGrades(grades.iterator(), false);
+    }
+
+    private LoadResult load(String baseUrl) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        // The client keeps its own executor: the workers block in send() and cannot complete responses
+        HttpClient client = HttpClient.newHttpClient();
+        long warmupEnd = System.nanoTime() + WARMUP.toNanos();
+        long end = warmupEnd + duration.toNanos();
+
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> new Worker().run(client, baseUrl, warmupEnd, end)));
+        }
+
+        long[] latencies = new long[0];
+        long errors = 0;
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            errors += worker.errors;
+        }
+        workers.shutdown();
+
+        Arrays.sort(latencies);
+        double seconds = duration.toNanos() / 1e9;
+        return new LoadResult(latencies.length / seconds, errors,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.95), percentileMillis(latencies, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Worker {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Worker run(HttpClient client, String baseUrl, long warmupEnd, long end) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                String studentId = String.format("SV%05d", random.nextInt(STUDENTS));
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/grades/student/" + studentId)).build();
+                boolean ok;
+                try {
+                    ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long latency = System.nanoTime() - now;
+                if (now < warmupEnd) {
+                    continue;
+                }
+                if (!ok) {
+                    errors++;
+                } else {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = latency;
+                }
+            }
+            return this;
+        }
+    }
+
+    private record LoadResult(double requestsPerSecond, long errors, double p50Millis, double p95Millis,
+                              double p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, %d errors, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms",
+                    requestsPerSecond, errors, p50Millis, p95Millis, p99Millis);
+        }
+    }
+}
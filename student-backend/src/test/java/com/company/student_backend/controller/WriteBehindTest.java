@@ -0,0 +1,144 @@
+package com.company.student_backend.controller;
+
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import com.company.student_backend.service.GradeWriteBehindService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Write-behind cho PUT điểm: các cập nhật cùng (học sinh, môn học) được gộp,
+ * ghi theo lô khi flush và khi hàng đợi đạt batch-size
+ */
+@SpringBootTest(properties = {
+        "app.grades.write-behind.enabled=true",
+        "app.grades.write-behind.flush-interval=1h",
+        "app.grades.write-behind.batch-size=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GradeWriteBehindService writeBehindService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    private final List<Long> gradeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        postJson("/api/subjects", "{\"subjectId\":\"MH001\",\"subjectName\":\"Toán\"}");
+        for (int i = 1; i <= 3; i++) {
+            postJson("/api/students", "{\"studentId\":\"SV00" + i + "\",\"studentName\":\"Học sinh " + i + "\",\"birthYear\":2001}");
+            String body = postJson("/api/grades", "{\"studentId\":\"SV00" + i + "\",\"subjectId\":\"MH001\",\"averageScore\":5.0}");
+            gradeIds.add(((Number) JsonPath.read(body, "$.id")).longValue());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindService.flush();
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void repeatedUpdatesAreCoalescedUntilFlush() throws Exception {
+        Long id = gradeIds.get(0);
+        for (String score : List.of("6.0", "7.0", "9.5")) {
+            putScore(id, score)
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.averageScore").value(Double.parseDouble(score)));
+        }
+        assertThat(writeBehindService.getPendingCount()).isEqualTo(1);
+        mockMvc.perform(get("/api/grades/{id}", id)).andExpect(jsonPath("$.averageScore").value(5.0));
+
+        assertThat(writeBehindService.flush()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/grades/{id}", id)).andExpect(jsonPath("$.averageScore").value(9.5));
+        // Aggregates see the single coalesced change: (9.5 + 5.0 + 5.0) / 3
+        mockMvc.perform(get("/api/grades/subject/{id}/stats", "MH001"))
+                .andExpect(jsonPath("$.average").value(6.5));
+    }
+
+    @Test
+    void reachingBatchSizeTriggersFlush() throws Exception {
+        for (Long id : gradeIds) {
+            putScore(id, "8.0").andExpect(status().isAccepted());
+        }
+        for (int attempt = 0; attempt < 100 && writeBehindService.getPendingCount() > 0; attempt++) {
+            Thread.sleep(20);
+        }
+        assertThat(writeBehindService.getPendingCount()).isZero();
+        // The scheduler thread may still be committing the drained batch
+        writeBehindService.flush();
+        assertThat(gradeRepository.findAll()).allSatisfy(grade ->
+                assertThat(grade.getAverageScore()).isEqualByComparingTo("8.0"));
+    }
+
+    @Test
+    void bulkUpsertWinsOverOlderBufferedUpdate() throws Exception {
+        Long id = gradeIds.get(0);
+        putScore(id, "9.5").andExpect(status().isAccepted());
+
+        mockMvc.perform(post("/api/grades/bulk").param("upsert", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":4.0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        assertThat(writeBehindService.getPendingCount()).isZero();
+
+        writeBehindService.flush();
+        mockMvc.perform(get("/api/grades/{id}", id)).andExpect(jsonPath("$.averageScore").value(4.0));
+    }
+
+    @Test
+    void unknownGradeIsRejectedImmediately() throws Exception {
+        putScore(999_999L, "8.0").andExpect(status().isNotFound());
+        assertThat(writeBehindService.getPendingCount()).isZero();
+    }
+
+    private ResultActions putScore(Long id, String score) throws Exception {
+        return mockMvc.perform(put("/api/grades/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"studentId\":\"SV001\",\"subjectId\":\"MH001\",\"averageScore\":" + score + "}"));
+    }
+
+    private String postJson(String url, String json) throws Exception {
+        return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,173 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.config.CacheConfig;
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.ScoreDistributionDTO;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Thống kê tính từ bộ đếm 101 mức phải khớp với AVG/STDDEV_POP và phân vị nearest-rank tính bằng SQL
+ * trên cùng dữ liệu; pass-score 4.95 được làm tròn thành 5.0 chứ không cắt thành 4.9
+ */
+@SpringBootTest(properties = "app.analytics.pass-score=4.95")
+@ActiveProfiles("test")
+class AnalyticsServiceTest {
+
+    private static final int STUDENT_COUNT = 8;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Random random = new Random(7);
+    private final List<GradeDTO> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= STUDENT_COUNT; i++) {
+            studentRepository.save(new Student("SV00" + i, "Học sinh " + i, 2000 + i % 2, null));
+        }
+        subjectRepository.save(new Subject("MH001", "Toán", null));
+        subjectRepository.save(new Subject("MH002", "Văn", null));
+        // Boundary values around the pass mark, both extremes and a tie
+        String[] fixed = {"4.9", "5.0", "5.0", "0.0", "10.0"};
+        for (int i = 1; i <= STUDENT_COUNT; i++) {
+            String score = i <= fixed.length ? fixed[i - 1] : randomScore();
+            created.add(gradeService.createGrade(new GradeDTO(null, "SV00" + i, "MH001", new BigDecimal(score), null, null)));
+            created.add(gradeService.createGrade(new GradeDTO(null, "SV00" + i, "MH002", new BigDecimal(randomScore()), null, null)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void subjectAndCohortDistributionsMatchSql() {
+        for (String subjectId : List.of("MH001", "MH002")) {
+            assertMatchesSql(analyticsService.getSubjectDistribution(subjectId), "g.subject_id = ?", subjectId);
+        }
+        for (int birthYear : List.of(2000, 2001)) {
+            assertMatchesSql(analyticsService.getCohortDistribution(birthYear), "s.birth_year = ?", birthYear);
+        }
+        for (ScoreDistributionDTO distribution : analyticsService.getAllSubjectDistributions()) {
+            assertMatchesSql(distribution, "g.subject_id = ?", distribution.getGroup());
+        }
+    }
+
+    @Test
+    void passRateUsesRoundedPassScore() {
+        ScoreDistributionDTO distribution = analyticsService.getSubjectDistribution("MH001");
+        long atLeastFive = created.stream()
+                .filter(grade -> grade.getSubjectId().equals("MH001"))
+                .filter(grade -> grade.getAverageScore().compareTo(new BigDecimal("5.0")) >= 0)
+                .count();
+        assertEquals((double) atLeastFive / STUDENT_COUNT, distribution.getPassRate(), 1e-9);
+    }
+
+    @Test
+    void emptyGroupHasNoStatistics() {
+        ScoreDistributionDTO distribution = analyticsService.getCohortDistribution(1990);
+        assertEquals(0, distribution.getCount());
+        assertNull(distribution.getMean());
+        assertNull(distribution.getPassRate());
+    }
+
+    @Test
+    void gradeWritesEvictCachedDistributionsAfterCommit() {
+        analyticsService.getSubjectDistribution("MH001");
+        analyticsService.getSubjectDistribution("MH002");
+        analyticsService.getCohortDistribution(2001);
+        assertNotNull(cacheManager.getCache(CacheConfig.SUBJECT_ANALYTICS).get("MH001"));
+        assertNotNull(cacheManager.getCache(CacheConfig.COHORT_ANALYTICS).get(2001));
+
+        GradeDTO grade = created.get(0);
+        grade.setAverageScore(new BigDecimal("9.5"));
+        gradeService.updateGrade(grade.getId(), grade);
+
+        assertNull(cacheManager.getCache(CacheConfig.SUBJECT_ANALYTICS).get("MH001"));
+        // Only the changed subject is evicted; every cohort is, since the event does not carry the birth year
+        assertNotNull(cacheManager.getCache(CacheConfig.SUBJECT_ANALYTICS).get("MH002"));
+        assertNull(cacheManager.getCache(CacheConfig.COHORT_ANALYTICS).get(2001));
+        assertMatchesSql(analyticsService.getSubjectDistribution("MH001"), "g.subject_id = ?", "MH001");
+
+        gradeService.deleteGrade(created.get(1).getId());
+        assertNull(cacheManager.getCache(CacheConfig.SUBJECT_ANALYTICS).get("MH002"));
+        assertMatchesSql(analyticsService.getSubjectDistribution("MH002"), "g.subject_id = ?", "MH002");
+        assertMatchesSql(analyticsService.getCohortDistribution(2001), "s.birth_year = ?", 2001);
+    }
+
+    private void assertMatchesSql(ScoreDistributionDTO distribution, String where, Object group) {
+        String from = " FROM grades g JOIN students s ON s.student_id = g.student_id WHERE " + where;
+        Map<String, Object> stats = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS n, AVG(CAST(g.average_score AS DOUBLE)) AS mean, " +
+                "STDDEV_POP(CAST(g.average_score AS DOUBLE)) AS sd, " +
+                "SUM(CASE WHEN g.average_score >= 5.0 THEN 1 ELSE 0 END) AS passed" + from, group);
+        List<BigDecimal> sorted = jdbcTemplate.queryForList(
+                "SELECT g.average_score" + from + " ORDER BY g.average_score", BigDecimal.class, group);
+        long n = ((Number) stats.get("n")).longValue();
+
+        assertEquals(n, distribution.getCount());
+        assertEquals(((Number) stats.get("mean")).doubleValue(), distribution.getMean().doubleValue(), 1e-4);
+        assertEquals(((Number) stats.get("sd")).doubleValue(), distribution.getStdDev().doubleValue(), 1e-4);
+        assertEquals(((Number) stats.get("passed")).doubleValue() / n, distribution.getPassRate(), 1e-9);
+        assertEquals(0, sorted.get(0).compareTo(distribution.getMin()));
+        assertEquals(0, nearestRank(sorted, 0.25).compareTo(distribution.getP25()));
+        assertEquals(0, nearestRank(sorted, 0.5).compareTo(distribution.getMedian()));
+        assertEquals(0, nearestRank(sorted, 0.75).compareTo(distribution.getP75()));
+        assertEquals(0, nearestRank(sorted, 0.9).compareTo(distribution.getP90()));
+        assertEquals(0, sorted.get(sorted.size() - 1).compareTo(distribution.getMax()));
+    }
+
+    private static BigDecimal nearestRank(List<BigDecimal> sorted, double q) {
+        int rank = (int) Math.max(1, Math.ceil(q * sorted.size()));
+        return sorted.get(rank - 1);
+    }
+
+    private String randomScore() {
+        return BigDecimal.valueOf(random.nextInt(101), 1).toPlainString();
+    }
+}
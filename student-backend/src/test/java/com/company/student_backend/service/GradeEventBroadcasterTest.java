@@ -0,0 +1,128 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Client không bao giờ đọc: lần send bị chặn quá write-timeout làm subscriber bị loại,
+ * và các subscriber khác vẫn nhận sự kiện dù executor chỉ có một luồng
+ */
+class GradeEventBroadcasterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch stuckWriteStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseStuckWrite = new CountDownLatch(1);
+    private final AtomicInteger stuckWrites = new AtomicInteger();
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private final GradeEventBroadcaster broadcaster = new GradeEventBroadcaster(
+            meterRegistry, 16, 10, Duration.ofMinutes(30), 1, Duration.ofMillis(200)) {
+
+        private int created;
+
+        @Override
+        SseEmitter createEmitter(long timeoutMillis) {
+            return created++ == 0 ? new NeverReadingEmitter() : new RecordingEmitter();
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        releaseStuckWrite.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void clientThatNeverReadsIsDroppedWithoutStarvingOthers() throws Exception {
+        broadcaster.subscribe(null, null);
+        broadcaster.subscribe(null, null);
+
+        publish(1L);
+        assertTrue(stuckWriteStarted.await(5, TimeUnit.SECONDS));
+        publish(2L);
+
+        // The only sender thread is blocked in the stuck client's write
+        Thread.sleep(300);
+        assertTrue(received.size() < 2);
+
+        broadcaster.dropStalledSubscribers();
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("grade.stream.stalled").counter().count());
+
+        awaitReceived(2);
+        publish(3L);
+        awaitReceived(3);
+
+        releaseStuckWrite.countDown();
+        publish(4L);
+        awaitReceived(4);
+        assertEquals(1, stuckWrites.get());
+    }
+
+    @Test
+    void idleSubscribersAreNotDropped() throws Exception {
+        stuckWriteStarted.countDown();
+        broadcaster.subscribe(null, null);
+        Thread.sleep(300);
+
+        broadcaster.dropStalledSubscribers();
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    private void publish(long gradeId) {
+        broadcaster.onGradeChange(GradeChangeEvent.of(
+                GradeChange.updated(gradeId, "SV001", "MH001", new BigDecimal("5.0"), new BigDecimal("6.0"))));
+    }
+
+    private void awaitReceived(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, received.size());
+    }
+
+    private final class NeverReadingEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            stuckWrites.incrementAndGet();
+            stuckWriteStarted.countDown();
+            try {
+                // A full socket buffer: the write returns only when the container gives up
+                releaseStuckWrite.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+    }
+
+    private final class RecordingEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            if (event.toString().contains("event:grade")) {
+                received.add(event.toString());
+            }
+        }
+    }
+}
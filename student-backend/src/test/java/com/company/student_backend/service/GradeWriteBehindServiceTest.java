@@ -0,0 +1,135 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ghi thẳng khi hàng đợi đầy không bị cập nhật cũ hơn ghi đè; lô có dòng lỗi không chặn các dòng khác
+ * và dòng lỗi bị bỏ sau max-attempts lần flush
+ */
+class GradeWriteBehindServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Map<Long, BigDecimal>> appliedBatches = new ArrayList<>();
+    private GradeService gradeService;
+
+    @BeforeEach
+    void setUp() {
+        gradeService = mock(GradeService.class);
+        when(gradeService.getGradeById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return new GradeDTO(id, "SV00" + id, "MH001", new BigDecimal("5.0"), null, null);
+        });
+        when(gradeService.updateGrade(anyLong(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(gradeService.applyScoreUpdates(any())).thenAnswer(invocation -> {
+            Map<Long, BigDecimal> scores = invocation.getArgument(0);
+            appliedBatches.add(Map.copyOf(scores));
+            return scores.size();
+        });
+    }
+
+    @Test
+    void directWriteDropsOlderPendingUpdateForSamePair() {
+        GradeWriteBehindService service = service(1, 3);
+        assertTrue(service.enqueue(1L, score("6.0")).buffered());
+
+        // Queue is full: the newer score is written directly and the buffered one must not follow it
+        GradeWriteBehindService.Update update = service.enqueue(1L, score("7.0"));
+        assertFalse(update.buffered());
+        verify(gradeService).updateGrade(eq(1L), any());
+        assertEquals(0, service.getPendingCount());
+
+        assertEquals(0, service.flush());
+        assertTrue(appliedBatches.isEmpty());
+    }
+
+    @Test
+    void bulkWriteDiscardsPendingUpdateForSamePair() {
+        GradeWriteBehindService service = service(10, 3);
+        service.enqueue(1L, score("6.0"));
+        service.enqueue(2L, score("6.0"));
+
+        service.discardPending(List.of(new GradeDTO(null, "SV001", "MH001", new BigDecimal("4.0"), null, null)));
+
+        assertEquals(1, service.getPendingCount());
+        service.flush();
+        assertEquals(List.of(Map.of(2L, new BigDecimal("6.0"))), appliedBatches);
+    }
+
+    @Test
+    void poisonRowIsIsolatedAndDroppedAfterMaxAttempts() {
+        doAnswer(invocation -> {
+            Map<Long, BigDecimal> scores = invocation.getArgument(0);
+            if (scores.containsKey(2L)) {
+                throw new DataIntegrityViolationException("score out of range");
+            }
+            appliedBatches.add(Map.copyOf(scores));
+            return scores.size();
+        }).when(gradeService).applyScoreUpdates(any());
+        GradeWriteBehindService service = service(10, 2);
+        for (long id = 1; id <= 3; id++) {
+            service.enqueue(id, score("8.0"));
+        }
+
+        assertEquals(2, service.flush());
+        assertEquals(List.of(Map.of(1L, new BigDecimal("8.0")), Map.of(3L, new BigDecimal("8.0"))), appliedBatches);
+        assertEquals(1, service.getPendingCount());
+
+        // Second failure on its own reaches max-attempts: dropped, later flushes are no longer blocked
+        assertEquals(0, service.flush());
+        assertEquals(0, service.getPendingCount());
+        assertEquals(1.0, meterRegistry.get("grade.write_behind.dropped").counter().count());
+
+        service.enqueue(1L, score("9.0"));
+        assertEquals(1, service.flush());
+    }
+
+    @Test
+    void transientFailureRequeuesEverythingWithoutCountingAttempts() {
+        doThrow(new CannotAcquireLockException("lock wait timeout")).when(gradeService).applyScoreUpdates(any());
+        GradeWriteBehindService service = service(10, 1);
+        service.enqueue(1L, score("8.0"));
+        service.enqueue(2L, score("8.0"));
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThrows(CannotAcquireLockException.class, service::flush);
+            assertEquals(2, service.getPendingCount());
+        }
+        assertEquals(0.0, meterRegistry.get("grade.write_behind.dropped").counter().count());
+    }
+
+    private GradeWriteBehindService service(int maxPending, int maxAttempts) {
+        // Disabled: no scheduler thread, flushes are driven by the test
+        return new GradeWriteBehindService(gradeService, meterRegistry, false, Duration.ofHours(1),
+                100, maxPending, 4, maxAttempts);
+    }
+
+    private static GradeDTO score(String score) {
+        GradeDTO dto = new GradeDTO();
+        dto.setAverageScore(new BigDecimal(score));
+        return dto;
+    }
+}
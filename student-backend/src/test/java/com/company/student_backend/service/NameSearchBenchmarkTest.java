@@ -0,0 +1,84 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.StudentDTO;
+import com.company.student_backend.repository.StudentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * So sánh độ trễ giữa tìm kiếm LIKE '%x%' và chỉ mục tên trong bộ nhớ.
+ * Chỉ chạy khi bật: mvn test -Dtest=NameSearchBenchmarkTest -Dbenchmark=true [-Dbenchmark.students=100000]
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NameSearchBenchmarkTest {
+
+    private static final String[] FAMILY = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ", "Đặng"};
+    private static final String[] MIDDLE = {"Văn", "Thị", "Hữu", "Minh", "Ngọc", "Thanh", "Quốc", "Gia"};
+    private static final String[] GIVEN = {"An", "Bình", "Châu", "Dũng", "Giang", "Hà", "Hải", "Khánh", "Linh", "Nam",
+            "Phương", "Quân", "Sơn", "Trang", "Tuấn", "Vy"};
+    private static final String[] QUERIES = {"nguyen", "tran thi", "linh", "Hoàng Minh Quân", "vu gia kh"};
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllInBatch();
+        searchService.rebuild();
+    }
+
+    @Test
+    void compareLikeWithIndex() {
+        int count = Integer.getInteger("benchmark.students", 20_000);
+        Random random = new Random(7);
+        List<StudentDTO> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = FAMILY[random.nextInt(FAMILY.length)] + " " + MIDDLE[random.nextInt(MIDDLE.length)]
+                    + " " + GIVEN[random.nextInt(GIVEN.length)];
+            students.add(new StudentDTO(String.format("SV%07d", i), name, 1995 + random.nextInt(10)));
+        }
+        bulkImportService.importStudents(students.iterator(), false);
+
+        for (String query : QUERIES) {
+            double like = averageMicros(query, q -> studentService.searchStudentsByName(q));
+            double index = averageMicros(query, q -> studentService.suggestStudents(q, 0, 10));
+            log.info("{} students, query '{}': LIKE {} us, index {} us ({} matches via LIKE)",
+                    count, query, String.format("%.1f", like), String.format("%.1f", index),
+                    studentService.searchStudentsByName(query).size());
+        }
+    }
+
+    private static double averageMicros(String query, Consumer<String> search) {
+        for (int i = 0; i < ITERATIONS / 5; i++) {
+            search.accept(query);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.accept(query);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+}
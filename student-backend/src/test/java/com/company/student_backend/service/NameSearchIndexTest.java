@@ -0,0 +1,72 @@
+package com.company.student_backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tìm kiếm không phân biệt dấu, khớp tiền tố theo từ, xếp hạng và phân trang
+ */
+class NameSearchIndexTest {
+
+    private NameSearchIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameSearchIndex<>();
+        put("SV001", "Nguyễn Văn An");
+        put("SV002", "Trần Thị Bình");
+        put("SV003", "Nguyễn An");
+        put("SV004", "Đặng Nguyên Anh");
+        put("SV005", "Lê Văn Nguyện");
+    }
+
+    @Test
+    void matchesWithoutDiacritics() {
+        assertEquals(List.of("SV002"), index.search("tran thi binh", 0, 10));
+        assertEquals(List.of("SV004"), index.search("dang", 0, 10));
+        assertEquals(List.of("SV004"), index.search("ĐẶNG", 0, 10));
+    }
+
+    @Test
+    void everyQueryTokenMustPrefixAToken() {
+        assertEquals(List.of("SV001", "SV005"), index.search("nguyen v", 0, 10));
+        assertTrue(index.search("nguyen x", 0, 10).isEmpty());
+        assertTrue(index.search("guyen", 0, 10).isEmpty());
+        assertTrue(index.search("  ", 0, 10).isEmpty());
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWholeWordsThenPartial() {
+        // "nguyen an": SV003 exact, SV001 whole words, SV004 prefix only ("nguyen" + "anh")
+        assertEquals(List.of("SV003", "SV001", "SV004"), index.search("Nguyen An", 0, 10));
+        // Same tier: shorter name first
+        assertEquals(List.of("SV003", "SV001", "SV005", "SV004"), index.search("nguy", 0, 10));
+    }
+
+    @Test
+    void pagesThroughRankedResults() {
+        assertEquals(List.of("SV003", "SV001"), index.search("nguy", 0, 2));
+        assertEquals(List.of("SV005", "SV004"), index.search("nguy", 2, 2));
+        assertTrue(index.search("nguy", 4, 2).isEmpty());
+    }
+
+    @Test
+    void staysInSyncWithUpdatesAndRemovals() {
+        put("SV002", "Trần Thị Bích");
+        assertTrue(index.search("binh", 0, 10).isEmpty());
+        assertEquals(List.of("SV002"), index.search("bich", 0, 10));
+
+        index.remove("SV003");
+        assertEquals(List.of("SV001", "SV004"), index.search("nguyen an", 0, 10));
+        assertEquals(4, index.size());
+    }
+
+    private void put(String id, String name) {
+        index.put(id, name, id);
+    }
+}
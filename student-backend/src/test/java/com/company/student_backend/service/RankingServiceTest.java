@@ -0,0 +1,127 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.RankingEntryDTO;
+import com.company.student_backend.event.GradeChange;
+import com.company.student_backend.event.GradeChangeEvent;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Xếp hạng theo điểm trung bình với nhóm đồng hạng (so sánh phân số chính xác, khác số môn)
+ * và listener áp dụng điểm đọc lại từ DB chứ không tin điểm trong event
+ */
+class RankingServiceTest {
+
+    private final List<GradeDTO> rows = new ArrayList<>();
+    private GradeRepository gradeRepository;
+    private RankingService rankingService;
+
+    @BeforeEach
+    void setUp() {
+        gradeRepository = mock(GradeRepository.class);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        when(gradeRepository.streamAll()).thenAnswer(invocation -> List.copyOf(rows).stream());
+        doAnswer(invocation -> List.copyOf(rows)).when(gradeRepository).findDTOsByStudentIdsAndSubjectIds(any(), any());
+        when(studentRepository.findAllById(any())).thenReturn(List.of());
+        rankingService = new RankingService(gradeRepository, studentRepository, mock(ValidationService.class));
+
+        grade("SV001", "MH001", "9.0");
+        grade("SV002", "MH001", "8.0");
+        grade("SV003", "MH001", "8.0");
+        grade("SV004", "MH001", "6.0");
+        // Mean 8.0 over two subjects ties with SV002/SV003
+        grade("SV005", "MH001", "7.0");
+        grade("SV005", "MH002", "9.0");
+        rankingService.rebuild();
+    }
+
+    @Test
+    void topOverallSharesRankWithinTieGroups() {
+        List<RankingEntryDTO> top = rankingService.getTopStudentsOverall(10);
+
+        assertEquals(List.of("SV001", "SV002", "SV003", "SV005", "SV004"), studentIds(top));
+        assertEquals(List.of(1, 2, 2, 2, 5), ranks(top));
+        assertEquals(0, new BigDecimal("8.0").compareTo(top.get(3).getScore()));
+    }
+
+    @Test
+    void bottomOverallRanksCountFromTheTop() {
+        List<RankingEntryDTO> bottom = rankingService.getBottomStudentsOverall(10);
+
+        assertEquals(List.of("SV004", "SV005", "SV003", "SV002", "SV001"), studentIds(bottom));
+        assertEquals(List.of(5, 2, 2, 2, 1), ranks(bottom));
+
+        // k cuts through a tie group: the entries returned keep the group's rank
+        assertEquals(List.of(5, 2), ranks(rankingService.getBottomStudentsOverall(2)));
+    }
+
+    @Test
+    void subjectRankingAndPercentile() {
+        assertEquals(List.of(1, 2, 2, 4, 5), ranks(rankingService.getTopStudentsBySubject("MH001", 10)));
+        assertEquals(List.of("SV004", "SV005"), studentIds(rankingService.getBottomStudentsBySubject("MH001", 2)));
+        assertEquals(2, rankingService.getStudentRankInSubject("MH001", "SV003").getRank());
+        assertEquals(60.0, rankingService.getStudentRankInSubject("MH001", "SV002").getPercentile());
+    }
+
+    @Test
+    void listenerAppliesCommittedScoreNotTheOneCarriedByAStaleEvent() {
+        // Two updates of SV004 committed 6.0 -> 9.5 -> 7.0; the listener of the first one runs last
+        setScore("SV004", "MH001", "7.0");
+        rankingService.onGradeChange(GradeChangeEvent.of(
+                GradeChange.updated(4L, "SV004", "MH001", new BigDecimal("9.5"), new BigDecimal("7.0"))));
+        rankingService.onGradeChange(GradeChangeEvent.of(
+                GradeChange.updated(4L, "SV004", "MH001", new BigDecimal("6.0"), new BigDecimal("9.5"))));
+
+        assertEquals(0, new BigDecimal("7.0").compareTo(
+                rankingService.getStudentRankInSubject("MH001", "SV004").getScore()));
+        // Ties with SV005 (7.0)
+        assertEquals(4, rankingService.getStudentRankInSubject("MH001", "SV004").getRank());
+    }
+
+    @Test
+    void lateDeleteEventDoesNotRemoveRecreatedGrade() {
+        setScore("SV004", "MH001", "5.0");
+        rankingService.onGradeChange(GradeChangeEvent.of(
+                GradeChange.deleted(4L, "SV004", "MH001", new BigDecimal("6.0"))));
+        assertEquals(0, new BigDecimal("5.0").compareTo(
+                rankingService.getStudentRankInSubject("MH001", "SV004").getScore()));
+
+        rows.removeIf(row -> row.getStudentId().equals("SV004"));
+        rankingService.onGradeChange(GradeChangeEvent.of(
+                GradeChange.deleted(4L, "SV004", "MH001", new BigDecimal("5.0"))));
+        assertNull(rankingService.findStudentRankInSubject("MH001", "SV004"));
+        assertEquals(4, rankingService.getTopStudentsOverall(10).size());
+    }
+
+    private void grade(String studentId, String subjectId, String score) {
+        rows.add(new GradeDTO((long) rows.size() + 1, studentId, subjectId, new BigDecimal(score), null, null));
+    }
+
+    private void setScore(String studentId, String subjectId, String score) {
+        rows.stream()
+                .filter(row -> row.getStudentId().equals(studentId) && row.getSubjectId().equals(subjectId))
+                .forEach(row -> row.setAverageScore(new BigDecimal(score)));
+    }
+
+    private static List<String> studentIds(List<RankingEntryDTO> entries) {
+        return entries.stream().map(RankingEntryDTO::getStudentId).toList();
+    }
+
+    private static List<Integer> ranks(List<RankingEntryDTO> entries) {
+        return entries.stream().map(RankingEntryDTO::getRank).toList();
+    }
+}
@@ -0,0 +1,218 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.dto.GradeDTO;
+import com.company.student_backend.dto.ScoreStatsDTO;
+import com.company.student_backend.model.Student;
+import com.company.student_backend.model.Subject;
+import com.company.student_backend.repository.GradeRepository;
+import com.company.student_backend.repository.ScoreAggregateRepository;
+import com.company.student_backend.repository.StudentRepository;
+import com.company.student_backend.repository.SubjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Thống kê duy trì tăng dần phải luôn khớp với truy vấn AVG/MIN/MAX trực tiếp trên bảng grades,
+ * kể cả khi nhiều điểm đầu tiên của cùng một môn được ghi đồng thời
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ScoreAggregateServiceTest {
+
+    private static final int STUDENT_COUNT = 6;
+    private static final int SUBJECT_COUNT = 4;
+    // Below the connection pool size: each write also borrows a connection for the after-commit ranking refresh
+    private static final int WRITERS = 4;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private ScoreAggregateService scoreAggregateService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private ScoreAggregateRepository scoreAggregateRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= STUDENT_COUNT; i++) {
+            studentRepository.save(new Student("SV00" + i, "Học sinh " + i, 2000 + i, null));
+        }
+        for (int i = 1; i <= SUBJECT_COUNT; i++) {
+            subjectRepository.save(new Subject("MH00" + i, "Môn " + i, null));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        scoreAggregateRepository.deleteAllInBatch();
+        gradeRepository.deleteAllInBatch();
+        subjectRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void aggregatesTrackEveryGradeMutation() {
+        List<GradeDTO> created = new ArrayList<>();
+        for (int s = 1; s <= STUDENT_COUNT; s++) {
+            for (int j = 1; j <= SUBJECT_COUNT; j++) {
+                if ((s + j) % 3 != 0) {
+                    created.add(gradeService.createGrade(new GradeDTO(null, "SV00" + s, "MH00" + j, randomScore(), null, null)));
+                }
+            }
+        }
+        assertMatchesLiveQueries();
+
+        // Updates deliberately hit the current extremes as well as ordinary values
+        for (GradeDTO grade : created.subList(0, created.size() / 2)) {
+            grade.setAverageScore(random.nextBoolean() ? BigDecimal.ZERO : new BigDecimal("10.0"));
+            gradeService.updateGrade(grade.getId(), grade);
+        }
+        for (GradeDTO grade : created.subList(0, created.size() / 3)) {
+            grade.setAverageScore(randomScore());
+            gradeService.updateGrade(grade.getId(), grade);
+        }
+        assertMatchesLiveQueries();
+
+        for (GradeDTO grade : created.subList(created.size() - 4, created.size())) {
+            gradeService.deleteGrade(grade.getId());
+        }
+        assertMatchesLiveQueries();
+
+        List<GradeDTO> imported = new ArrayList<>();
+        for (int s = 1; s <= STUDENT_COUNT; s++) {
+            for (int j = 1; j <= SUBJECT_COUNT; j++) {
+                imported.add(new GradeDTO(null, "SV00" + s, "MH00" + j, randomScore(), null, null));
+            }
+        }
+        bulkImportService.importGrades(imported.iterator(), true);
+        assertMatchesLiveQueries();
+
+        studentService.deleteStudent("SV001");
+        subjectService.deleteSubject("MH002");
+        assertMatchesLiveQueries();
+        assertNull(gradeService.getAverageScoreByStudentId("SV001"));
+    }
+
+    @Test
+    void rebuildRestoresAggregatesFromGrades() {
+        for (int s = 1; s <= STUDENT_COUNT; s++) {
+            for (int j = 1; j <= SUBJECT_COUNT; j++) {
+                gradeService.createGrade(new GradeDTO(null, "SV00" + s, "MH00" + j, randomScore(), null, null));
+            }
+        }
+        scoreAggregateRepository.deleteAllInBatch();
+
+        scoreAggregateService.rebuild();
+
+        assertMatchesLiveQueries();
+        assertEquals(STUDENT_COUNT + SUBJECT_COUNT, scoreAggregateRepository.count());
+    }
+
+    @Test
+    void concurrentFirstGradesShareOneAggregateRow() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (int round = 0; round < 3; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<GradeDTO>> results = new ArrayList<>();
+                for (int s = 1; s <= WRITERS; s++) {
+                    GradeDTO grade = new GradeDTO(null, "SV00" + s, "MH001", BigDecimal.valueOf(s, 0), null, null);
+                    results.add(writers.submit(() -> {
+                        start.await();
+                        return gradeService.createGrade(grade);
+                    }));
+                }
+                start.countDown();
+                for (Future<GradeDTO> result : results) {
+                    result.get(10, TimeUnit.SECONDS);
+                }
+                assertMatchesLiveQueries();
+                assertEquals(WRITERS, scoreAggregateService.getSubjectStats("MH001").getCount());
+
+                // The subject row is deleted at count 0, so the next round creates it again
+                gradeService.deleteGradesBySubjectId("MH001");
+                assertEquals(0, scoreAggregateService.getSubjectStats("MH001").getCount());
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private void assertMatchesLiveQueries() {
+        for (Student student : studentRepository.findAll()) {
+            String id = student.getStudentId();
+            assertAverage(gradeRepository.findAverageScoreByStudentId(id), gradeService.getAverageScoreByStudentId(id));
+            assertStats(gradeRepository.findLiveStatsByStudentId(id), scoreAggregateService.getStudentStats(id));
+        }
+        for (Subject subject : subjectRepository.findAll()) {
+            String id = subject.getSubjectId();
+            assertAverage(gradeRepository.findAverageScoreBySubjectId(id), gradeService.getAverageScoreBySubjectId(id));
+            assertStats(gradeRepository.findLiveStatsBySubjectId(id), scoreAggregateService.getSubjectStats(id));
+        }
+    }
+
+    private static void assertAverage(BigDecimal expected, BigDecimal actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.setScale(6, RoundingMode.HALF_UP), actual.setScale(6, RoundingMode.HALF_UP));
+    }
+
+    private static void assertStats(ScoreStatsDTO expected, ScoreStatsDTO actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        if (expected.getCount() > 0) {
+            assertEquals(0, expected.getSum().compareTo(actual.getSum()));
+            assertEquals(0, expected.getMin().compareTo(actual.getMin()));
+            assertEquals(0, expected.getMax().compareTo(actual.getMax()));
+        }
+    }
+
+    private BigDecimal randomScore() {
+        return BigDecimal.valueOf(random.nextInt(101), 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.company.student_backend.service;
+
+import com.company.student_backend.exception.ResourceNotFoundException;
+import com.company.student_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Lời gọi cùng khoá đến đồng thời dùng chung một lần chạy, kể cả khi lỗi; người chờ quá timeout nhận 503
+ */
+class SingleFlightTest {
+
+    private static final String SLOW_GROUP = "slow-read";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.single-flight.groups.grades-by-student", "2s")
+                .withProperty("app.single-flight.groups." + SLOW_GROUP, "50ms");
+        singleFlight = new SingleFlight(environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsForSameKeyShareOneExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<List<String>>> results = runConcurrently(8, SingleFlight.GRADES_BY_STUDENT, "SV001", () -> {
+            calls.incrementAndGet();
+            sleep(200);
+            return List.of("MH001");
+        });
+
+        List<String> first = results.get(0).get();
+        for (Future<List<String>> result : results) {
+            assertSame(first, result.get());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(7.0, count("single_flight.collapsed", SingleFlight.GRADES_BY_STUDENT));
+
+        // The flight is over: the next call runs again
+        singleFlight.execute(SingleFlight.GRADES_BY_STUDENT, "SV001", () -> calls.incrementAndGet());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void leaderFailureIsSharedWithWaitingCallers() throws Exception {
+        List<Future<Object>> results = runConcurrently(4, SingleFlight.GRADES_BY_STUDENT, "SV404", () -> {
+            sleep(200);
+            throw new ResourceNotFoundException("Không tìm thấy học sinh với mã: SV404");
+        });
+
+        for (Future<Object> result : results) {
+            ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void callerWaitingPastGroupTimeoutGetsServiceBusy() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> singleFlight.execute(SLOW_GROUP, "MH001", () -> {
+            leaderStarted.countDown();
+            sleep(300);
+            return "7.5";
+        }));
+        leaderStarted.await();
+
+        assertThrows(ServiceBusyException.class,
+                () -> singleFlight.execute(SLOW_GROUP, "MH001", () -> "not called"));
+        assertEquals("7.5", leader.get());
+        assertEquals(1.0, count("single_flight.timeouts", SLOW_GROUP));
+    }
+
+    @Test
+    void unconfiguredGroupRunsEveryCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<Integer>> results = runConcurrently(4, "grades-by-subject", "MH001", () -> {
+            sleep(100);
+            return calls.incrementAndGet();
+        });
+        for (Future<Integer> result : results) {
+            result.get();
+        }
+        assertEquals(4, calls.get());
+    }
+
+    private <T> List<Future<T>> runConcurrently(int count, String group, String key, Supplier<T> call) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return singleFlight.execute(group, key, call);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    private double count(String name, String group) {
+        return meterRegistry.get(name).tag("group", group).counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
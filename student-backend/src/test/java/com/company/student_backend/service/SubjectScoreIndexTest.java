@@ -0,0 +1,84 @@
+package com.company.student_backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thứ hạng kiểu thi đấu, phân vị và thứ tự lấy top/bottom của chỉ mục Fenwick, kể cả hai mức biên 0 và 10
+ */
+class SubjectScoreIndexTest {
+
+    private SubjectScoreIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SubjectScoreIndex();
+        index.put("SV001", 90);
+        index.put("SV003", 80);
+        index.put("SV002", 80);
+        index.put("SV004", 60);
+    }
+
+    @Test
+    void tiesShareCompetitionRank() {
+        assertEquals(1, index.rankOf(90));
+        assertEquals(2, index.rankOf(80));
+        assertEquals(4, index.rankOf(60));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void percentileCountsHalfOfTies() {
+        assertEquals(87.5, index.percentileOf(90));
+        assertEquals(50.0, index.percentileOf(80));
+        assertEquals(12.5, index.percentileOf(60));
+    }
+
+    @Test
+    void takeOrdersByScoreThenStudentId() {
+        assertEquals(List.of(Map.entry("SV001", 90), Map.entry("SV002", 80), Map.entry("SV003", 80)),
+                index.take(3, true));
+        assertEquals(List.of(Map.entry("SV004", 60), Map.entry("SV002", 80)), index.take(2, false));
+        assertEquals(4, index.take(100, false).size());
+    }
+
+    @Test
+    void putReplacesPreviousScoreAndRemoveUpdatesCounts() {
+        index.put("SV004", 95);
+        assertEquals(1, index.rankOf(95));
+        assertEquals(3, index.rankOf(80));
+        assertEquals(4, index.size());
+
+        index.remove("SV002");
+        index.remove("SV404");
+        assertNull(index.scoreOf("SV002"));
+        assertEquals(3, index.rankOf(80));
+        assertEquals(4, index.rankOf(79));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void boundaryBucketsAreCounted() {
+        index.put("SV005", 0);
+        index.put("SV006", 100);
+
+        assertEquals(1, index.rankOf(100));
+        assertEquals(6, index.rankOf(0));
+        assertEquals(6, index.countAtOrBelow(100));
+        assertEquals(1, index.countAtOrBelow(0));
+        assertEquals(100.0 / 12, index.percentileOf(0), 1e-9);
+
+        for (String studentId : List.of("SV001", "SV002", "SV003", "SV004", "SV005", "SV006")) {
+            index.remove(studentId);
+        }
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.countAtOrBelow(100));
+    }
+}
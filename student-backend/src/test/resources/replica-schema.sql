@@ -0,0 +1,28 @@
+-- Schema for the H2 database standing in for the read replica in ReplicaRoutingTest
+CREATE TABLE IF NOT EXISTS students (
+    student_id VARCHAR(10) PRIMARY KEY,
+    student_name VARCHAR(100) NOT NULL,
+    birth_year INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS subjects (
+    subject_id VARCHAR(10) PRIMARY KEY,
+    subject_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS grades (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    student_id VARCHAR(10) NOT NULL,
+    subject_id VARCHAR(10) NOT NULL,
+    average_score DECIMAL(3,1) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS score_aggregates (
+    scope VARCHAR(10) NOT NULL,
+    scope_id VARCHAR(10) NOT NULL,
+    score_sum DECIMAL(12,1) NOT NULL,
+    score_count BIGINT NOT NULL,
+    min_score DECIMAL(3,1),
+    max_score DECIMAL(3,1),
+    PRIMARY KEY (scope, scope_id)
+);